@@ -45,11 +45,9 @@ import com.webcohesion.enunciate.modules.jaxb.util.FindRootElementMethod;
 import com.webcohesion.enunciate.modules.jaxb.util.ReferencedNamespacesMethod;
 import com.webcohesion.enunciate.modules.jaxrs.JaxrsModule;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
 import freemarker.core.Environment;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateExceptionHandler;
@@ -58,7 +56,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -296,30 +293,9 @@ public class CXMLClientModule extends BasicGeneratingModule implements ApiFeatur
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new CXMLClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), CXMLClientObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }
@@ -19,6 +19,8 @@ import com.webcohesion.enunciate.api.AggregatedApiRegistry;
 import com.webcohesion.enunciate.api.ApiRegistry;
 import com.webcohesion.enunciate.artifacts.Artifact;
 import com.webcohesion.enunciate.module.ApiRegistryAwareModule;
+import com.webcohesion.enunciate.module.ApiRegistryProviderModule;
+import com.webcohesion.enunciate.module.BasicGeneratingModule;
 import com.webcohesion.enunciate.module.DependencySpec;
 import com.webcohesion.enunciate.module.DependingModuleAwareModule;
 import com.webcohesion.enunciate.module.EnunciateModule;
@@ -30,19 +32,21 @@ import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
+import org.reflections.Store;
 
 import javax.tools.*;
 import java.io.*;
 import java.net.*;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.jar.JarOutputStream;
+import java.util.concurrent.*;
 import java.util.jar.Manifest;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * @author Ryan Heaton
@@ -61,9 +65,12 @@ public class Enunciate implements Runnable {
   private final EnunciateConfiguration configuration = new EnunciateConfiguration();
   private File buildDir;
   private final List<String> compilerArgs = new ArrayList<>();
-  private final Set<Artifact> artifacts = new TreeSet<>();
+  private final Set<Artifact> artifacts = new ConcurrentSkipListSet<>();
   private final Map<String, File> exports = new HashMap<>();
-  private final ApiRegistry apiRegistry = new AggregatedApiRegistry(this);
+  private final AggregatedApiRegistry apiRegistry = new AggregatedApiRegistry(this);
+  private EnunciateClientCompiler clientCompiler;
+  private EnunciateScanIndex sharedScanIndex;
+  private EnunciateProfile profile = new EnunciateProfile();
 
   public List<EnunciateModule> getModules() {
     return modules;
@@ -160,6 +167,27 @@ public class Enunciate implements Runnable {
     return logger;
   }
 
+  /**
+   * The compiler for the sources generated by the modules, shared by all the modules of this run.
+   *
+   * @return The compiler for the sources generated by the modules.
+   */
+  public synchronized EnunciateClientCompiler getClientCompiler() {
+    if (this.clientCompiler == null) {
+      this.clientCompiler = new EnunciateClientCompiler(getLogger());
+    }
+    return this.clientCompiler;
+  }
+
+  /**
+   * The timings and counters of the phases of the current (or last) run.
+   *
+   * @return The profile.
+   */
+  public EnunciateProfile getProfile() {
+    return profile;
+  }
+
   public Enunciate setLogger(EnunciateLogger logger) {
     this.logger = logger;
     return this;
@@ -213,6 +241,27 @@ public class Enunciate implements Runnable {
     return this;
   }
 
+  /**
+   * The in-memory scan index shared with other builds in the same JVM (e.g. the other modules of a multi-module build).
+   *
+   * @return The shared scan index, or null if there is none.
+   */
+  public EnunciateScanIndex getSharedScanIndex() {
+    return sharedScanIndex;
+  }
+
+  /**
+   * Set the in-memory scan index shared with other builds in the same JVM. The scanpath entries found in the shared index
+   * aren't scanned again.
+   *
+   * @param sharedScanIndex The shared scan index.
+   * @return this.
+   */
+  public Enunciate setSharedScanIndex(EnunciateScanIndex sharedScanIndex) {
+    this.sharedScanIndex = sharedScanIndex;
+    return this;
+  }
+
   public List<String> getCompilerArgs() {
     return compilerArgs;
   }
@@ -386,13 +435,7 @@ public class Enunciate implements Runnable {
    * @param dirs   The directories to zip up.
    */
   public boolean zip(File toFile, File... dirs) throws IOException {
-    if (!toFile.getParentFile().exists()) {
-      getLogger().debug("Creating directory %s...", toFile.getParentFile());
-      toFile.getParentFile().mkdirs();
-    }
-
-    ZipOutputStream zipout = new ZipOutputStream(new FileOutputStream(toFile));
-    return doZip(toFile, zipout, dirs);
+    return archive(toFile, null, dirs);
   }
 
   /**
@@ -403,71 +446,38 @@ public class Enunciate implements Runnable {
    * @param dirs   The directories to zip up.
    */
   public boolean jar(File toFile, Manifest mf, File... dirs) throws IOException {
-    if (!toFile.getParentFile().exists()) {
-      getLogger().debug("Creating directory %s...", toFile.getParentFile());
-      toFile.getParentFile().mkdirs();
-    }
-
-    ZipOutputStream zipout = new JarOutputStream(new FileOutputStream(toFile), mf);
-    return doZip(toFile, zipout, dirs);
+    return archive(toFile, mf, dirs);
   }
 
-  private boolean doZip(File toFile, ZipOutputStream zipout, File[] dirs) throws IOException {
-    boolean anyFiles = false;
-    byte[] buffer = new byte[2 * 1024]; //buffer of 2K should be fine.
-    for (File dir : dirs) {
-
-      URI baseURI = dir.toURI();
-      getLogger().debug("Adding contents of directory %s to zip file %s...", dir, toFile);
-      ArrayList<File> files = new ArrayList<>();
-      buildFileList(files, dir);
-      for (File file : files) {
-        ZipEntry entry = new ZipEntry(baseURI.relativize(file.toURI()).getPath());
-        getLogger().debug("Adding entry %s...", entry.getName());
-        zipout.putNextEntry(entry);
-
-        if (!file.isDirectory()) {
-          anyFiles = true;
-          FileInputStream in = new FileInputStream(file);
-          int len;
-          while ((len = in.read(buffer)) > 0) {
-            zipout.write(buffer, 0, len);
-          }
-          in.close();
-        }
-
-        // Complete the entry
-        zipout.closeEntry();
-      }
-    }
-
-    if (!anyFiles) {
-      ZipEntry entry = new ZipEntry("README.txt");
-      zipout.putNextEntry(entry);
-      zipout.write("Empty zip file".getBytes());
-      zipout.closeEntry();
+  /**
+   * zip up files (at the root of the zip) to a specified zip file.
+   *
+   * @param toFile The file to zip to.
+   * @param files  The files to zip up.
+   */
+  public boolean zipFiles(File toFile, File... files) throws IOException {
+    Map<String, File> entries = new TreeMap<>();
+    for (File file : files) {
+      entries.put(file.getName(), file);
     }
+    return archive(toFile, null, entries);
+  }
 
-    zipout.close();
-
-    return anyFiles;
+  private boolean archive(File toFile, Manifest mf, File[] dirs) throws IOException {
+    getLogger().debug("Adding contents of directories %s to zip file %s...", Arrays.asList(dirs), toFile);
+    return archive(toFile, mf, EnunciateArchiver.listEntries(dirs));
   }
 
-  /**
-   * Adds all files in specified directories to a list.
-   *
-   * @param list The list.
-   * @param dirs The directories.
-   */
-  protected void buildFileList(List<File> list, File... dirs) {
-    for (File dir : dirs) {
-      for (File file : dir.listFiles()) {
-        if (file.isDirectory()) {
-          buildFileList(list, file);
-        } else {
-          list.add(file);
-        }
-      }
+  private boolean archive(File toFile, Manifest mf, Map<String, File> entries) throws IOException {
+    if (!toFile.getParentFile().exists()) {
+      getLogger().debug("Creating directory %s...", toFile.getParentFile());
+      toFile.getParentFile().mkdirs();
+    }
+
+    try (EnunciateProfile.Span span = this.profile.start(EnunciateProfile.ENGINE, "package")) {
+      boolean written = new EnunciateArchiver(getLogger()).write(toFile, mf, entries);
+      span.count("archives", 1).count("entries", entries.size()).count("bytes", toFile.length());
+      return written;
     }
   }
 
@@ -489,13 +499,9 @@ public class Enunciate implements Runnable {
       if (entry.isDirectory()) {
         file.mkdirs();
       } else {
-        FileOutputStream out = new FileOutputStream(file);
-        byte[] buffer = new byte[1024 * 2]; //2 kb buffer should suffice.
-        int len;
-        while ((len = in.read(buffer)) > 0) {
-          out.write(buffer, 0, len);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+          in.transferTo(out);
         }
-        out.close();
       }
 
       in.closeEntry();
@@ -510,20 +516,28 @@ public class Enunciate implements Runnable {
    * @param to  The file to copy to.
    */
   public void copyResource(URL url, File to) throws IOException {
-    InputStream stream = url.openStream();
-
     getLogger().debug("Copying resource %s to %s...", url, to);
-    FileOutputStream out = new FileOutputStream(to);
-    byte[] buffer = new byte[1024 * 2]; //2 kb buffer should suffice.
-    int len;
-    while ((len = stream.read(buffer)) > 0) {
-      out.write(buffer, 0, len);
+    try (InputStream stream = url.openStream(); FileOutputStream out = new FileOutputStream(to)) {
+      stream.transferTo(out);
     }
   }
 
   @Override
   public void run() {
+    this.profile = new EnunciateProfile();
+    try {
+      runEngine();
+    }
+    finally {
+      writeProfile();
+    }
+  }
+
+  private void runEngine() {
     if (this.modules != null && !this.modules.isEmpty()) {
+      //views of the api from a previous run are stale.
+      this.apiRegistry.clear();
+
       //scan for any included types.
       List<File> classpath = this.classpath == null ? new ArrayList<>() : this.classpath;
       List<File> sourcepath = this.sourcepath == null ? new ArrayList<>() : this.sourcepath;
@@ -653,7 +667,14 @@ public class Enunciate implements Runnable {
       JavaCompiler.CompilationTask task = compiler.getTask(compilerOutput, null, diagnostics, options, null, sources);
       EnunciateAnnotationProcessor processor = new EnunciateAnnotationProcessor(this, includedTypes);
       task.setProcessors(Collections.singletonList(processor));
-      Boolean javacSuccess = task.call();
+      Boolean javacSuccess;
+      try (EnunciateProfile.Span span = this.profile.start(EnunciateProfile.ENGINE, "javac")) {
+        span.count("sources", sources.size());
+        javacSuccess = task.call();
+      }
+      finally {
+        closeClientCompiler();
+      }
       if (!javacSuccess || !processor.processed) {
         String outputText = compilerOutput.toString();
         try {
@@ -711,6 +732,18 @@ public class Enunciate implements Runnable {
         getLogger().debug("[javac] [%s] %s:%s:%s %s", diagnostic.getKind(), diagnostic.getSource(), diagnostic.getLineNumber(), diagnostic.getColumnNumber(), diagnostic);
       }
 
+      //without a build directory, there's no previous build to compare to next time.
+      if (processor.snapshot != null && this.buildDir != null) {
+        File snapshotFile = getProcessingSnapshotFile();
+        try {
+          processor.snapshot.store(snapshotFile);
+        }
+        catch (IOException e) {
+          getLogger().warn("Unable to write processing snapshot %s: %s", snapshotFile, e.getMessage());
+        }
+      }
+
+      EnunciateProfile.Span exportSpan = this.profile.start(EnunciateProfile.ENGINE, "export");
       HashSet<String> exportedArtifacts = new HashSet<>();
       for (Artifact artifact : artifacts) {
         String artifactId = artifact.getId();
@@ -730,8 +763,10 @@ public class Enunciate implements Runnable {
             throw new RuntimeException(e);
           }
           exportedArtifacts.add(export.getKey());
+          exportSpan.count("artifacts", 1);
         }
       }
+      exportSpan.close();
 
       for (String export : this.exports.keySet()) {
         if (!exportedArtifacts.remove(export)) {
@@ -743,6 +778,38 @@ public class Enunciate implements Runnable {
     }
   }
 
+  /**
+   * Writes the profile of the run to the build directory, if profiling is enabled.
+   */
+  protected void writeProfile() {
+    if (this.buildDir == null || !this.configuration.isProfilingEnabled()) {
+      return;
+    }
+
+    File json = new File(this.buildDir, "profile.json");
+    try {
+      this.buildDir.mkdirs();
+      this.profile.writeJson(json);
+      this.profile.writeCsv(new File(this.buildDir, "profile.csv"));
+      getLogger().info("Build profile written to %s.", json);
+    }
+    catch (IOException e) {
+      getLogger().warn("Unable to write the build profile %s: %s", json, e.getMessage());
+    }
+  }
+
+  private synchronized void closeClientCompiler() {
+    if (this.clientCompiler != null) {
+      try {
+        this.clientCompiler.close();
+      }
+      catch (IOException e) {
+        getLogger().debug("Unable to close the client compiler: %s", e.getMessage());
+      }
+      this.clientCompiler = null;
+    }
+  }
+
   private boolean isValidScanpathEntry(File entry) {
     return entry.isDirectory() || entry.getName().endsWith(".jar");
   }
@@ -784,11 +851,190 @@ public class Enunciate implements Runnable {
   }
 
   protected Reflections loadApiReflections(List<URL> classpath) {
-    ConfigurationBuilder reflectionSpec = new ConfigurationBuilder()
-        .setUrls(classpath)
-        .setScanners(new EnunciateReflectionsScanner(this, getModules()));
+    EnunciateReflectionsScanner scanner = new EnunciateReflectionsScanner(this, getModules());
+    EnunciateScanIndex index = null;
+    File indexFile = getScanIndexFile();
+    if (indexFile != null) {
+      index = EnunciateScanIndex.load(indexFile, getLogger(), this.sharedScanIndex);
+    }
+
+    //scan each entry of the scanpath concurrently, then merge the results in scanpath order so the outcome is deterministic.
+    final EnunciateScanIndex scanIndex = index;
+    List<Callable<List<Map.Entry<String, String>>>> scans = new ArrayList<>();
+    for (URL url : new LinkedHashSet<>(classpath)) {
+      scans.add(() -> scanner.scan(url, scanIndex));
+    }
+
+    Map<String, Set<String>> scanned = new LinkedHashMap<>();
+    EnunciateProfile.Span scanSpan = this.profile.start(EnunciateProfile.ENGINE, "scan").count("entries", scans.size());
+    ForkJoinPool scanPool = new ForkJoinPool(Math.max(1, Math.min(this.configuration.getScanThreads(), scans.size())));
+    try {
+      for (Future<List<Map.Entry<String, String>>> scan : scanPool.invokeAll(scans)) {
+        for (Map.Entry<String, String> entry : scan.get()) {
+          scanned.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).add(entry.getValue());
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EnunciateException(e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : new EnunciateException(cause);
+    }
+    finally {
+      scanPool.shutdown();
+      scanSpan.count("types", scanned.size()).close();
+    }
+
+    if (scanIndex != null) {
+      try {
+        scanIndex.store();
+      }
+      catch (IOException e) {
+        getLogger().warn("Unable to write scan index %s: %s", indexFile, e.getMessage());
+      }
+    }
+
+    Store store = new Store();
+    store.put(EnunciateReflectionsScanner.INDEX, scanned);
+    return new Reflections(store);
+  }
 
-    return new Reflections(reflectionSpec);
+  /**
+   * The file where the snapshot of the previous annotation processing pass is kept for incremental builds.
+   *
+   * @return The processing snapshot file, or null if there's no build directory.
+   */
+  protected File getProcessingSnapshotFile() {
+    return this.buildDir == null ? null : new File(this.buildDir, "processing-snapshot.bin");
+  }
+
+  /**
+   * Loads the snapshot of the previous annotation processing pass.
+   *
+   * @return The snapshot, or null if there is none.
+   */
+  protected EnunciateProcessingSnapshot loadProcessingSnapshot() {
+    return this.buildDir == null ? null : EnunciateProcessingSnapshot.load(getProcessingSnapshotFile(), getLogger());
+  }
+
+  /**
+   * Computes a fingerprint of everything other than the API source files that affects the annotation processing pass:
+   * the (effective) configuration and the input files of the modules, the include/exclude patterns, the compiler
+   * arguments, the modules and the classpath.
+   *
+   * @return The fingerprint.
+   */
+  protected String computeEnvironmentFingerprint() {
+    StringWriter config = new StringWriter();
+    try {
+      new FileHandler(this.configuration.getSource()).save(config);
+    }
+    catch (ConfigurationException e) {
+      config.write(String.valueOf(this.configuration.getConfigFile()));
+    }
+
+    List<String> modules = new ArrayList<>();
+    List<File> inputFiles = new ArrayList<>();
+    if (this.modules != null) {
+      for (EnunciateModule module : this.modules) {
+        modules.add(module.getClass().getName() + (module.isEnabled() ? "+" : "-"));
+        if (module.isEnabled() && module instanceof BasicGeneratingModule) {
+          inputFiles.addAll(((BasicGeneratingModule) module).getInputFiles());
+        }
+      }
+    }
+
+    StringBuilder classpath = new StringBuilder();
+    if (this.classpath != null) {
+      Set<String> sourcePaths = null;
+      for (File entry : this.classpath) {
+        classpath.append(entry.getAbsolutePath());
+        if (entry.isFile()) {
+          classpath.append(':').append(entry.length()).append(':').append(entry.lastModified());
+        }
+        else if (entry.isDirectory()) {
+          if (sourcePaths == null) {
+            sourcePaths = collectSourcePaths();
+          }
+          classpath.append(':').append(fingerprintClasspathDirectory(entry, sourcePaths));
+        }
+        classpath.append(File.pathSeparatorChar);
+      }
+    }
+
+    return EnunciateProcessingSnapshot.hash(config.toString(), String.valueOf(getIncludePatterns()), String.valueOf(getExcludePatterns()),
+                                            String.valueOf(this.compilerArgs), String.valueOf(modules), classpath.toString(),
+                                            EnunciateBuildManifest.fingerprintFiles(inputFiles),
+                                            String.valueOf(Enunciate.class.getPackage().getImplementationVersion()));
+  }
+
+  /**
+   * Computes a fingerprint of the files in a classpath directory (their names, sizes and timestamps). The class files of
+   * the types that are compiled from the source files of this build are left out: they are rebuilt with every change to
+   * the sources (e.g. <code>target/classes</code>), and changes to them are tracked through the hashes of the sources.
+   *
+   * @param dir         The classpath directory.
+   * @param sourcePaths The trailing paths of the source files of this build (see {@link #collectSourcePaths()}).
+   * @return The fingerprint of the directory.
+   */
+  static String fingerprintClasspathDirectory(File dir, Set<String> sourcePaths) {
+    Path base = dir.toPath();
+    List<String> files = new ArrayList<>();
+    try (Stream<Path> walk = Files.walk(base)) {
+      for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+        String path = base.relativize(file).toString().replace(File.separatorChar, '/');
+        if (path.endsWith(".class")) {
+          String typePath = path.substring(0, path.length() - ".class".length());
+          int nested = typePath.indexOf('$', typePath.lastIndexOf('/') + 1);
+          if (sourcePaths.contains((nested < 0 ? typePath : typePath.substring(0, nested)) + ".java")) {
+            continue;
+          }
+        }
+        File f = file.toFile();
+        files.add(path + ':' + f.length() + ':' + f.lastModified());
+      }
+    }
+    catch (IOException | UncheckedIOException e) {
+      return "unreadable:" + dir.lastModified();
+    }
+    Collections.sort(files);
+    return EnunciateProcessingSnapshot.hash(files.toArray(new String[0]));
+  }
+
+  /**
+   * The trailing paths of the source files of this build, e.g. <code>C.java</code>, <code>b/C.java</code> and
+   * <code>a/b/C.java</code> for <code>/src/a/b/C.java</code>, so a class file can be matched to its source file without
+   * knowing the source root.
+   *
+   * @return The trailing paths of the source files.
+   */
+  protected Set<String> collectSourcePaths() {
+    Set<String> sourcePaths = new HashSet<>();
+    if (this.sourceFiles != null) {
+      for (File sourceFile : this.sourceFiles) {
+        String path = sourceFile.getAbsolutePath().replace(File.separatorChar, '/');
+        for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+          sourcePaths.add(path.substring(slash + 1));
+        }
+      }
+    }
+    return sourcePaths;
+  }
+
+  /**
+   * The file where the classpath scan index is kept between builds.
+   *
+   * @return The scan index file, or null if the scan index is disabled.
+   */
+  protected File getScanIndexFile() {
+    if (this.buildDir == null || !this.configuration.isScanIndexEnabled()) {
+      return null;
+    }
+
+    return new File(this.buildDir, "scan-index.bin");
   }
 
   public void visitFiles(File dir, FileFilter filter, FileVisitor visitor) {
@@ -874,16 +1120,34 @@ public class Enunciate implements Runnable {
     return graph;
   }
 
+  /**
+   * Invokes the modules in the order of their dependencies. The modules are invoked one at a time: they all read the
+   * javac model, and neither the lazy symbol completion of javac nor the caches of its type utilities are thread-safe.
+   *
+   * @param context The context.
+   * @param modules The modules.
+   * @param graph   The module dependency graph.
+   */
   protected void invokeModules(EnunciateContext context, Map<String, ? extends EnunciateModule> modules, Graph<String, DefaultEdge> graph) {
-    Set<String> invoked = new TreeSet<>();
     TopologicalOrderIterator<String, DefaultEdge> graphIt = new TopologicalOrderIterator<>(graph);
     while (graphIt.hasNext()) {
-      String module = graphIt.next();
-      if (!invoked.contains(module)) {
-        modules.get(module).call(context);
-        invoked.add(module);
+      invokeModule(context, modules.get(graphIt.next()));
+    }
+  }
+
+  private void invokeModule(EnunciateContext context, EnunciateModule module) {
+    long start = System.nanoTime();
+    try (EnunciateProfile.Span span = this.profile.start(module.getName(), "call")) {
+      module.call(context);
+      if (module instanceof ApiRegistryProviderModule) {
+        //the module registered its part of the api, so any view of the api that was computed before is incomplete.
+        this.apiRegistry.clear();
+      }
+      if (module instanceof BasicGeneratingModule) {
+        ((BasicGeneratingModule) module).storeBuildManifest();
       }
     }
+    getLogger().info("Module %s completed in %s ms.", module.getName(), (System.nanoTime() - start) / 1000000);
   }
 
   /**
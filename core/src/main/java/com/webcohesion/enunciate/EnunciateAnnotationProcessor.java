@@ -51,6 +51,7 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
   private final Set<String> includedTypes;
   private EnunciateContext context;
   protected boolean processed = false;
+  protected EnunciateProcessingSnapshot snapshot;
 
   public EnunciateAnnotationProcessor(Enunciate enunciate, Set<String> includedTypes) {
     this.enunciate = enunciate;
@@ -75,6 +76,7 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
 
     //construct a context.
     this.context = new EnunciateContext(processingEnvironment, this.enunciate.getLogger(), this.enunciate.getApiRegistry(), this.enunciate.getConfiguration(), this.enunciate.getIncludePatterns(), this.enunciate.getExcludePatterns(), this.enunciate.getClasspath());
+    this.context.setProfile(this.enunciate.getProfile());
 
     //initialize the modules.
     for (EnunciateModule module : this.enunciate.getModules()) {
@@ -94,6 +96,7 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
     if (!roundEnv.processingOver()) { // (heatonra) I still don't understand why this check is needed. But if I don't do the check, the processing happens twice.
 
       //find all the processing elements and set them on the context.
+      EnunciateProfile.Span filterSpan = this.context.getProfile().start(EnunciateProfile.ENGINE, "filter");
       Set<Element> apiElements = new HashSet<Element>();
       Set<Element> localApiElements = new HashSet<Element>();
       for (Element element : roundEnv.getRootElements()) {
@@ -117,10 +120,29 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
 
       applyExcludeFilter(localApiElements);
       this.enunciate.getLogger().debug("Local API Elements: %s", new EnunciateLogger.ListWriter(localApiElements));
+      filterSpan.count("apiElements", apiElements.size()).count("localApiElements", localApiElements.size()).close();
 
       this.context.setRoundEnvironment(new DecoratedRoundEnvironment(roundEnv, this.context.getProcessingEnvironment()));
       this.context.setLocalApiElements(localApiElements);
       this.context.setApiElements(apiElements);
+      this.context.setEnvironmentFingerprint(this.enunciate.computeEnvironmentFingerprint());
+
+      if (this.enunciate.getConfiguration().isIncremental()) {
+        Set<Element> snapshotElements = new HashSet<Element>(localApiElements);
+        snapshotElements.addAll(apiElements);
+        this.snapshot = EnunciateProcessingSnapshot.capture(this.context.getProcessingEnvironment(), snapshotElements, this.context.getEnvironmentFingerprint());
+        EnunciateProcessingSnapshot previousSnapshot = this.enunciate.loadProcessingSnapshot();
+        Set<String> changedTypes = this.snapshot.findChangedTypes(previousSnapshot);
+        if (changedTypes == null) {
+          this.enunciate.getLogger().debug("No usable snapshot of the previous build; all API types are considered changed.");
+        }
+        else {
+          this.enunciate.getLogger().info("%s of %s API types changed since the previous build.", changedTypes.size(), this.snapshot.getSourceHashes().size());
+          this.enunciate.getLogger().debug("Changed API types: %s", new EnunciateLogger.ListWriter(changedTypes));
+          this.context.setChangedTypeReferences(this.snapshot.findReferencedTypes(changedTypes, previousSnapshot));
+        }
+        this.context.setChangedTypeNames(changedTypes);
+      }
 
       //compose the engine.
       Map<String, ? extends EnunciateModule> enabledModules = this.enunciate.findEnabledModules();
@@ -128,6 +150,10 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
       Graph<String, DefaultEdge> graph = this.enunciate.buildModuleGraph(enabledModules);
       this.enunciate.invokeModules(this.context, enabledModules, graph);
 
+      DecoratedProcessingEnvironment env = this.context.getProcessingEnvironment();
+      this.enunciate.getLogger().debug("Decorated elements: %s allocated, %s reused.", env.getDecoratedElementAllocations(), env.getDecoratedElementHits());
+      this.enunciate.getLogger().debug("Well-known types: %s resolved, %s reused; assignability checks: %s computed, %s reused.", env.getKnownTypeResolutions(), env.getKnownTypeHits(), env.getKnownTypeAssignabilityChecks(), env.getKnownTypeAssignabilityHits());
+
       this.processed = true;
     }
 
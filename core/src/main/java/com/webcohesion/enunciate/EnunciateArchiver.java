@@ -0,0 +1,238 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.*;
+
+/**
+ * Writes the zip and jar archives of the artifacts. The entries are written in a deterministic order (the order of the
+ * directories, then the order of the paths within each directory) with a fixed timestamp, so an archive of unchanged
+ * files comes out byte-identical. The files are read (and checksummed) in parallel, ahead of the entry being written.
+ * Files that are already compressed are stored as they are.
+ *
+ * @author Ryan Heaton
+ */
+final class EnunciateArchiver {
+
+  /**
+   * The time of all entries, the earliest date that is safe for all zip tools.
+   */
+  static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+
+  /**
+   * Files bigger than this aren't read into memory ahead of time; they're streamed into the archive.
+   */
+  static final long MAX_BUFFERED_SIZE = 16L * 1024 * 1024;
+
+  private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+    "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif", "webp", "woff", "woff2"
+  ));
+
+  private final EnunciateLogger logger;
+  private final ForkJoinPool pool;
+
+  EnunciateArchiver(EnunciateLogger logger) {
+    this(logger, ForkJoinPool.commonPool());
+  }
+
+  EnunciateArchiver(EnunciateLogger logger, ForkJoinPool pool) {
+    this.logger = logger;
+    this.pool = pool;
+  }
+
+  /**
+   * Lists the files in the specified directories as archive entries, keyed by entry name.
+   *
+   * @param dirs The directories.
+   * @return The entries.
+   */
+  static Map<String, File> listEntries(File... dirs) throws IOException {
+    Map<String, File> entries = new LinkedHashMap<>();
+    for (File dir : dirs) {
+      if (dir == null || !dir.isDirectory()) {
+        continue;
+      }
+
+      Path base = dir.toPath();
+      List<Path> files;
+      try (Stream<Path> walk = Files.walk(base, FileVisitOption.FOLLOW_LINKS)) {
+        files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+      }
+
+      TreeMap<String, File> dirEntries = new TreeMap<>();
+      for (Path file : files) {
+        dirEntries.put(base.relativize(file).toString().replace(File.separatorChar, '/'), file.toFile());
+      }
+
+      for (Map.Entry<String, File> entry : dirEntries.entrySet()) {
+        if (entries.put(entry.getKey(), entry.getValue()) != null) {
+          throw new ZipException("duplicate entry: " + entry.getKey());
+        }
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Writes an archive.
+   *
+   * @param toFile  The archive to write.
+   * @param mf      The manifest of the (jar) archive, or null for a zip archive.
+   * @param entries The files to archive, keyed by entry name.
+   * @return Whether there were any files to archive.
+   */
+  boolean write(File toFile, Manifest mf, Map<String, File> entries) throws IOException {
+    boolean anyFiles = !entries.isEmpty();
+    Map<String, Object> contents = new LinkedHashMap<>();
+    if (mf != null) {
+      ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+      mf.write(manifest);
+      contents.put(JarFile.MANIFEST_NAME, manifest.toByteArray());
+    }
+
+    for (Map.Entry<String, File> entry : entries.entrySet()) {
+      if (contents.put(entry.getKey(), entry.getValue()) != null) {
+        throw new ZipException("duplicate entry: " + entry.getKey());
+      }
+    }
+
+    if (!anyFiles) {
+      contents.put("README.txt", "Empty zip file".getBytes(StandardCharsets.UTF_8));
+    }
+
+    int window = Math.max(2, this.pool.getParallelism() * 4);
+    Iterator<Map.Entry<String, Object>> pending = contents.entrySet().iterator();
+    ArrayDeque<CompletableFuture<ArchiveEntry>> inFlight = new ArrayDeque<>();
+    try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(toFile), 64 * 1024))) {
+      while (pending.hasNext() || !inFlight.isEmpty()) {
+        //keep a bounded number of entries in memory, reading ahead of the one being written.
+        while (pending.hasNext() && inFlight.size() < window) {
+          Map.Entry<String, Object> next = pending.next();
+          inFlight.add(CompletableFuture.supplyAsync(() -> read(next.getKey(), next.getValue()), this.pool));
+        }
+
+        ArchiveEntry entry = join(inFlight.removeFirst());
+        this.logger.debug("Adding entry %s...", entry.name);
+        ZipEntry zipEntry = new ZipEntry(entry.name);
+        zipEntry.setTimeLocal(ENTRY_TIME);
+        if (entry.size == 0 || isCompressed(entry.name)) {
+          zipEntry.setMethod(ZipEntry.STORED);
+          zipEntry.setSize(entry.size);
+          zipEntry.setCompressedSize(entry.size);
+          zipEntry.setCrc(entry.crc);
+        }
+
+        out.putNextEntry(zipEntry);
+        if (entry.data != null) {
+          out.write(entry.data);
+        }
+        else {
+          Files.copy(entry.file.toPath(), out);
+        }
+        out.closeEntry();
+      }
+    }
+    finally {
+      for (CompletableFuture<ArchiveEntry> future : inFlight) {
+        future.cancel(false);
+      }
+    }
+    return anyFiles;
+  }
+
+  private static ArchiveEntry join(CompletableFuture<ArchiveEntry> future) throws IOException {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static ArchiveEntry read(String name, Object content) {
+    try {
+      CRC32 crc = new CRC32();
+      if (content instanceof File && ((File) content).length() > MAX_BUFFERED_SIZE) {
+        File file = (File) content;
+        long size = 0;
+        try (InputStream in = new FileInputStream(file)) {
+          byte[] buffer = new byte[64 * 1024];
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            crc.update(buffer, 0, len);
+            size += len;
+          }
+        }
+        return new ArchiveEntry(name, null, file, size, crc.getValue());
+      }
+
+      byte[] data = content instanceof File ? Files.readAllBytes(((File) content).toPath()) : (byte[]) content;
+      crc.update(data);
+      return new ArchiveEntry(name, data, null, data.length, crc.getValue());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static boolean isCompressed(String name) {
+    int dot = name.lastIndexOf('.');
+    return dot > name.lastIndexOf('/') && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * An entry, read (or, for a big file, checksummed) and ready to be written.
+   */
+  private static final class ArchiveEntry {
+
+    private final String name;
+    private final byte[] data;
+    private final File file;
+    private final long size;
+    private final long crc;
+
+    private ArchiveEntry(String name, byte[] data, File file, long size, long crc) {
+      this.name = name;
+      this.data = data;
+      this.file = file;
+      this.size = size;
+      this.crc = crc;
+    }
+  }
+}
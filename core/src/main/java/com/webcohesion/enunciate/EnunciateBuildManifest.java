@@ -0,0 +1,356 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The build manifest of a generating module, kept in the build directory between builds. For each output (a file or a
+ * directory) the module produced, the manifest records the fingerprint of the inputs it was produced from along with an
+ * inventory of the files that were written (relative path and size). An output is up-to-date when the fingerprint of the
+ * current inputs matches and the files of the inventory are still there, so the check doesn't depend on timestamps and
+ * doesn't need to walk the output tree.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateBuildManifest {
+
+  static final int FORMAT_VERSION = 1;
+
+  private static final Map<String, String> CODE_SOURCE_FINGERPRINTS = new ConcurrentHashMap<>();
+
+  private final File file;
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  private EnunciateBuildManifest(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Loads the build manifest from the specified file. If the file doesn't exist or can't be read, an empty manifest is returned.
+   *
+   * @param file   The manifest file.
+   * @param logger The logger.
+   * @return The build manifest.
+   */
+  public static EnunciateBuildManifest load(File file, EnunciateLogger logger) {
+    EnunciateBuildManifest manifest = new EnunciateBuildManifest(file);
+    if (file.exists()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        if (in.readInt() != FORMAT_VERSION) {
+          return manifest;
+        }
+
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+          String output = in.readUTF();
+          String fingerprint = in.readUTF();
+          int fileCount = in.readInt();
+          Map<String, Long> files = new TreeMap<>();
+          for (int j = 0; j < fileCount; j++) {
+            String path = in.readUTF();
+            files.put(path, in.readLong());
+          }
+          manifest.entries.put(output, new Entry(fingerprint, files));
+        }
+      }
+      catch (IOException | RuntimeException e) {
+        logger.debug("Unable to read build manifest %s (%s).", file, e.getMessage());
+        manifest.entries.clear();
+      }
+    }
+    return manifest;
+  }
+
+  /**
+   * Checks whether the specified output is up-to-date with the specified inputs.
+   *
+   * @param output           The output file or directory.
+   * @param inputFingerprint The fingerprint of the current inputs.
+   * @return null if the output is up-to-date, or the reason why it isn't.
+   */
+  public synchronized String findStaleReason(File output, String inputFingerprint) {
+    Entry entry = this.entries.get(output.getAbsolutePath());
+    if (entry == null) {
+      return "it hasn't been recorded in the build manifest";
+    }
+
+    if (!entry.getFingerprint().equals(inputFingerprint)) {
+      return "its inputs have changed";
+    }
+
+    if (entry.getFiles().isEmpty()) {
+      return "it was recorded without any files";
+    }
+
+    for (Map.Entry<String, Long> recorded : entry.getFiles().entrySet()) {
+      File file = recorded.getKey().isEmpty() ? output : new File(output, recorded.getKey());
+      if (file.length() != recorded.getValue() || !file.isFile()) {
+        return String.format("%s is missing or has changed", file);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Records the specified output as produced from the specified inputs.
+   *
+   * @param output           The output file or directory.
+   * @param inputFingerprint The fingerprint of the inputs.
+   */
+  public synchronized void record(File output, String inputFingerprint) throws IOException {
+    Map<String, Long> files = new TreeMap<>();
+    if (output.isDirectory()) {
+      Path base = output.toPath();
+      try (Stream<Path> walk = Files.walk(base)) {
+        for (Path path : walk.filter(Files::isRegularFile).collect(Collectors.toList())) {
+          files.put(base.relativize(path).toString(), Files.size(path));
+        }
+      }
+    }
+    else if (output.isFile()) {
+      files.put("", output.length());
+    }
+
+    if (files.isEmpty()) {
+      this.entries.remove(output.getAbsolutePath());
+    }
+    else {
+      this.entries.put(output.getAbsolutePath(), new Entry(inputFingerprint, files));
+    }
+  }
+
+  /**
+   * Checks whether the files that were generated into the specified output from the specified input (e.g. an API type)
+   * are up-to-date.
+   *
+   * @param output           The output directory.
+   * @param input            The input.
+   * @param inputFingerprint The fingerprint of everything else the generated files depend on.
+   * @return null if the generated files are up-to-date, or the reason why they aren't.
+   */
+  public synchronized String findStaleReason(File output, String input, String inputFingerprint) {
+    Entry entry = this.entries.get(output.getAbsolutePath() + '#' + input);
+    if (entry == null) {
+      return String.format("no files have been recorded for %s", input);
+    }
+
+    if (!entry.getFingerprint().equals(inputFingerprint)) {
+      return "the module or its environment have changed";
+    }
+
+    for (Map.Entry<String, Long> recorded : entry.getFiles().entrySet()) {
+      File file = new File(output, recorded.getKey());
+      if (file.length() != recorded.getValue() || !file.isFile()) {
+        return String.format("%s is missing or has changed", file);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * The files that were recorded as generated into the specified output from the specified input (e.g. an API type).
+   *
+   * @param output The output directory.
+   * @param input  The input.
+   * @return The recorded files, empty if none were recorded.
+   */
+  public synchronized List<File> findRecordedFiles(File output, String input) {
+    Entry entry = this.entries.get(output.getAbsolutePath() + '#' + input);
+    List<File> files = new ArrayList<>();
+    if (entry != null) {
+      for (String file : entry.getFiles().keySet()) {
+        files.add(new File(output, file));
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Records the files that were generated into the specified output from the specified input (e.g. an API type).
+   *
+   * @param output           The output directory.
+   * @param input            The input.
+   * @param inputFingerprint The fingerprint of everything else the generated files depend on.
+   * @param files            The generated files.
+   */
+  public synchronized void record(File output, String input, String inputFingerprint, Collection<File> files) {
+    Path base = output.toPath();
+    Map<String, Long> recorded = new TreeMap<>();
+    for (File file : files) {
+      recorded.put(base.relativize(file.toPath()).toString(), file.length());
+    }
+    this.entries.put(output.getAbsolutePath() + '#' + input, new Entry(inputFingerprint, recorded));
+  }
+
+  /**
+   * Writes the manifest back to disk.
+   */
+  public synchronized void store() throws IOException {
+    File parent = this.file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    //a unique file in the same directory, so builds sharing the build directory don't write over each other's file.
+    Path tmp = Files.createTempFile(parent.toPath(), this.file.getName(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(this.entries.size());
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeUTF(entry.getValue().getFingerprint());
+          out.writeInt(entry.getValue().getFiles().size());
+          for (Map.Entry<String, Long> file : entry.getValue().getFiles().entrySet()) {
+            out.writeUTF(file.getKey());
+            out.writeLong(file.getValue());
+          }
+        }
+      }
+
+      try {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Computes the fingerprint of the inputs of a generating module.
+   *
+   * @param context The context.
+   * @param module  The class of the module.
+   * @return The fingerprint.
+   */
+  public static String fingerprintInputs(EnunciateContext context, Class<?> module) {
+    return EnunciateProcessingSnapshot.hash(fingerprintModule(context, module), context.getSourceFingerprint());
+  }
+
+  /**
+   * Computes the fingerprint of the inputs of a generating module other than the API sources: the environment and the
+   * module itself.
+   *
+   * @param context The context.
+   * @param module  The class of the module.
+   * @return The fingerprint.
+   */
+  public static String fingerprintModule(EnunciateContext context, Class<?> module) {
+    return EnunciateProcessingSnapshot.hash(context.getEnvironmentFingerprint(), module.getName(), fingerprintCodeSource(module));
+  }
+
+  /**
+   * Computes a fingerprint of the specified input files (or directories), e.g. the templates or stylesheets configured
+   * by the user.
+   *
+   * @param files The files.
+   * @return The fingerprint of the files.
+   */
+  public static String fingerprintFiles(Collection<File> files) {
+    List<String> fingerprints = new ArrayList<>();
+    for (File file : files) {
+      if (file == null) {
+        continue;
+      }
+
+      String fingerprint;
+      if (!file.exists()) {
+        fingerprint = "missing";
+      }
+      else {
+        try {
+          fingerprint = EnunciateScanIndex.fingerprint(file);
+        }
+        catch (IOException e) {
+          fingerprint = file.length() + ":" + file.lastModified();
+        }
+      }
+      fingerprints.add(file.getAbsolutePath() + '=' + fingerprint);
+    }
+    return EnunciateProcessingSnapshot.hash(fingerprints.toArray(new String[0]));
+  }
+
+  /**
+   * Computes a fingerprint of the jar (or directory) a class was loaded from, so that a different version of a module
+   * (and therefore of its templates) invalidates what the module generated.
+   *
+   * @param type The class.
+   * @return The fingerprint of the code source of the class.
+   */
+  static String fingerprintCodeSource(Class<?> type) {
+    CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return "";
+    }
+
+    File location;
+    try {
+      location = new File(codeSource.getLocation().toURI());
+    }
+    catch (URISyntaxException | IllegalArgumentException e) {
+      return codeSource.getLocation().toString();
+    }
+
+    String key = location.getAbsolutePath() + ':' + location.length() + ':' + location.lastModified();
+    return CODE_SOURCE_FINGERPRINTS.computeIfAbsent(key, k -> {
+      try {
+        return EnunciateScanIndex.fingerprint(location);
+      }
+      catch (IOException e) {
+        return k;
+      }
+    });
+  }
+
+  /**
+   * What was recorded for a single output.
+   */
+  static final class Entry {
+
+    private final String fingerprint;
+    private final Map<String, Long> files;
+
+    Entry(String fingerprint, Map<String, Long> files) {
+      this.fingerprint = fingerprint;
+      this.files = Collections.unmodifiableMap(files);
+    }
+
+    String getFingerprint() {
+      return fingerprint;
+    }
+
+    Map<String, Long> getFiles() {
+      return files;
+    }
+  }
+}
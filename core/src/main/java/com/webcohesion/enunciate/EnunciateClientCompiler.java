@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import javax.tools.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles the sources generated by the modules (e.g. the Java client libraries). One file manager is shared by all the
+ * compilations of a build, so the jars of the classpath are opened and indexed once instead of once per module.<br/>
+ * <br/>
+ * That's all that is shared: each compilation compiles all the sources it is given, from disk, and compilations are
+ * serialized because the file manager isn't thread-safe.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateClientCompiler implements Closeable {
+
+  private final EnunciateLogger logger;
+  private JavaCompiler compiler;
+  private StandardJavaFileManager fileManager;
+
+  public EnunciateClientCompiler(EnunciateLogger logger) {
+    this.logger = logger;
+  }
+
+  /**
+   * Compiles the specified sources.
+   *
+   * @param classpath  The classpath.
+   * @param compileDir The directory to compile the classes to.
+   * @param options    The compiler options, other than the classpath and the output directory.
+   * @param sources    The sources to compile.
+   * @return Whether the compilation succeeded.
+   */
+  public synchronized boolean compile(List<File> classpath, File compileDir, List<String> options, List<File> sources) throws IOException {
+    if (this.fileManager == null) {
+      this.compiler = ToolProvider.getSystemJavaCompiler();
+      this.fileManager = this.compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+    }
+
+    compileDir.mkdirs();
+    this.fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+    this.fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(compileDir));
+
+    this.logger.debug("Compiling %s sources to %s.", sources.size(), compileDir);
+    StringWriter output = new StringWriter();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task = this.compiler.getTask(output, this.fileManager, diagnostics, options, null, this.fileManager.getJavaFileObjectsFromFiles(sources));
+    boolean success = task.call();
+
+    if (!output.toString().isEmpty()) {
+      this.logger.info("[javac] %s", output);
+    }
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        this.logger.error("[javac] %s", diagnostic);
+      }
+      else {
+        this.logger.debug("[javac] %s", diagnostic);
+      }
+    }
+    return success;
+  }
+
+  /**
+   * Releases the file manager (and the jars it holds open).
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.fileManager != null) {
+      this.fileManager.close();
+      this.fileManager = null;
+      this.compiler = null;
+    }
+  }
+}
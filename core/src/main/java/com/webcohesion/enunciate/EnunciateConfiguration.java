@@ -47,6 +47,7 @@ public class EnunciateConfiguration {
   private String defaultCopyright = null;
   private License defaultApiLicense = null;
   private List<Contact> defaultContacts = new ArrayList<Contact>();
+  private boolean defaultIncremental = false;
   private final XMLConfiguration source;
   private File base;
   private File configFile;
@@ -385,6 +386,26 @@ public class EnunciateConfiguration {
     return this.inheritJavaDoc;
   }
 
+  public boolean isScanIndexEnabled() {
+    return source.getBoolean("processing[@scanIndex]", true);
+  }
+
+  public boolean isIncremental() {
+    return source.getBoolean("processing[@incremental]", this.defaultIncremental);
+  }
+
+  public void setDefaultIncremental(boolean defaultIncremental) {
+    this.defaultIncremental = defaultIncremental;
+  }
+
+  public int getScanThreads() {
+    return source.getInt("processing[@scanThreads]", Runtime.getRuntime().availableProcessors());
+  }
+
+  public boolean isProfilingEnabled() {
+    return source.getBoolean("processing[@profile]", false);
+  }
+
   public static final class License {
 
     private final String name;
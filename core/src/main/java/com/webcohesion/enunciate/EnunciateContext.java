@@ -20,6 +20,7 @@ import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironmen
 import com.webcohesion.enunciate.javac.decorations.DecoratedRoundEnvironment;
 import com.webcohesion.enunciate.util.AntPatternInclude;
 import com.webcohesion.enunciate.util.AntPatternMatcher;
+import com.webcohesion.enunciate.util.AntPatternSet;
 import com.webcohesion.enunciate.util.StringEqualsInclude;
 
 import javax.lang.model.element.Element;
@@ -48,10 +49,16 @@ public class EnunciateContext {
   private final EnunciateConfiguration configuration;
   private Set<Element> apiElements;
   private Set<Element> localApiElements;
+  private Set<String> changedTypeNames;
+  private Set<String> changedTypeReferences = Collections.emptySet();
+  private String environmentFingerprint;
+  private EnunciateProfile profile = new EnunciateProfile();
+  private String sourceFingerprint;
   private DecoratedRoundEnvironment roundEnvironment;
-  private final Predicate<String> includeFilter;
-  private final Predicate<String> excludeFilter;
-  private final Map<String, List<Predicate<String>>> facetFilter;
+  private final AntPatternSet<String> includeFilter;
+  private final AntPatternSet<String> excludeFilter;
+  private final AntPatternSet<String> facetFilter = new AntPatternSet<>();
+  private final List<Map.Entry<String, Predicate<String>>> facetPredicates = new ArrayList<>();
   private final URLClassLoader resourceClassLoader;
 
   public EnunciateContext(DecoratedProcessingEnvironment processingEnvironment, EnunciateLogger logger, ApiRegistry registry, EnunciateConfiguration configuration, Set<String> includes, Set<String> excludes, List<File> classpath) {
@@ -59,9 +66,9 @@ public class EnunciateContext {
     this.logger = logger;
     this.apiRegistry = registry;
     this.configuration = configuration;
-    this.includeFilter = buildFilter(includes);
-    this.excludeFilter = buildFilter(excludes);
-    this.facetFilter = buildFacetFilter(configuration == null ? null : configuration.getFacetPatterns());
+    this.includeFilter = AntPatternSet.of(includes);
+    this.excludeFilter = AntPatternSet.of(excludes);
+    compileFacetFilter(buildFacetFilter(configuration == null ? null : configuration.getFacetPatterns()));
     URL[] cp = new URL[classpath == null ? 0 : classpath.size()];
     if (classpath != null) {
       for (int i = 0; i < classpath.size(); i++) {
@@ -105,6 +112,92 @@ public class EnunciateContext {
     this.localApiElements = apiElements;
   }
 
+  /**
+   * The names of the API types that have changed since the previous build. Only known when Enunciate runs in incremental
+   * mode and a snapshot of the previous build is available.
+   *
+   * @return The names of the changed API types, or null if every API type has to be considered changed.
+   */
+  public Set<String> getChangedTypeNames() {
+    return changedTypeNames;
+  }
+
+  void setChangedTypeNames(Set<String> changedTypeNames) {
+    this.changedTypeNames = changedTypeNames == null ? null : Collections.unmodifiableSet(changedTypeNames);
+  }
+
+  /**
+   * Whether the specified API type has to be considered changed since the previous build.
+   *
+   * @param type The type.
+   * @return Whether the type has changed.
+   */
+  public boolean isChanged(TypeElement type) {
+    return this.changedTypeNames == null || this.changedTypeNames.contains(type.getQualifiedName().toString());
+  }
+
+  /**
+   * The names of the API types that are referenced by the changed API types (e.g. the supertypes of a changed type).
+   * Output generated for such a type might include information about the types that reference it.
+   *
+   * @return The names of the types referenced by the changed types.
+   */
+  public Set<String> getChangedTypeReferences() {
+    return changedTypeReferences;
+  }
+
+  void setChangedTypeReferences(Set<String> changedTypeReferences) {
+    this.changedTypeReferences = Collections.unmodifiableSet(changedTypeReferences);
+  }
+
+  /**
+   * The timings and counters of the phases of the build.
+   *
+   * @return The profile.
+   */
+  public EnunciateProfile getProfile() {
+    return profile;
+  }
+
+  void setProfile(EnunciateProfile profile) {
+    this.profile = profile;
+  }
+
+  /**
+   * A fingerprint of everything other than the API source files that affects the output: the configuration and the files
+   * it refers to (see {@link com.webcohesion.enunciate.module.BasicGeneratingModule#getInputFiles()}), the
+   * include/exclude patterns, the compiler arguments, the modules and the classpath.
+   *
+   * @return The fingerprint of the environment.
+   */
+  public String getEnvironmentFingerprint() {
+    return environmentFingerprint;
+  }
+
+  void setEnvironmentFingerprint(String environmentFingerprint) {
+    this.environmentFingerprint = environmentFingerprint;
+  }
+
+  /**
+   * A fingerprint of the content of the source files of the API elements. Unlike their timestamps, the fingerprint doesn't
+   * change when a source file is touched without being changed.
+   *
+   * @return The fingerprint of the API sources.
+   */
+  public synchronized String getSourceFingerprint() {
+    if (this.sourceFingerprint == null) {
+      Set<Element> elements = new HashSet<>();
+      if (this.localApiElements != null) {
+        elements.addAll(this.localApiElements);
+      }
+      if (this.apiElements != null) {
+        elements.addAll(this.apiElements);
+      }
+      this.sourceFingerprint = EnunciateProcessingSnapshot.fingerprintSources(this.processingEnvironment, elements);
+    }
+    return this.sourceFingerprint;
+  }
+
   public <P> P getProperty(String key, Class<P> type) {
     return type.cast(getProperty(key));
   }
@@ -114,7 +207,12 @@ public class EnunciateContext {
   }
 
   public void setProperty(String key, Object value) {
-    this.properties.put(key, value);
+    if (value == null) {
+      this.properties.remove(key);
+    }
+    else {
+      this.properties.put(key, value);
+    }
   }
 
   public EnunciateLogger getLogger() {
@@ -175,42 +273,49 @@ public class EnunciateContext {
 
   public Set<String> getConfiguredFacets(String fqn) {
     TreeSet<String> facets = new TreeSet<>();
-    for (Map.Entry<String, List<Predicate<String>>> facetPatterns : this.facetFilter.entrySet()) {
-      for (Predicate<String> predicate : facetPatterns.getValue()) {
-        if (predicate.test(fqn)) {
-          facets.add(facetPatterns.getKey());
-        }
+    this.facetFilter.collectMatches(fqn, facets);
+    for (Map.Entry<String, Predicate<String>> facetPredicate : this.facetPredicates) {
+      if (facetPredicate.getValue().test(fqn)) {
+        facets.add(facetPredicate.getKey());
       }
     }
     return facets;
   }
 
-  private Predicate<String> buildFilter(Set<String> includes) {
-    Predicate<String> includeFilter = fqn -> false;
-    if (includes != null && !includes.isEmpty()) {
-      for (String include : includes) {
-        if (AntPatternMatcher.isValidPattern(include)) {
-          includeFilter = includeFilter.or(new AntPatternInclude(include));
-        }
-        else {
-          includeFilter = includeFilter.or(new StringEqualsInclude(include));
-        }
-      }
-    }
-    return includeFilter;
-  }
-
   protected HashMap<String, List<Predicate<String>>> buildFacetFilter(Map<String, String> facetPatterns) {
     HashMap<String, List<Predicate<String>>> filters = new HashMap<>();
     if (facetPatterns != null) {
       for (Map.Entry<String, String> facetPattern : facetPatterns.entrySet()) {
         List<Predicate<String>> patternMatchers = filters.computeIfAbsent(facetPattern.getValue(), k -> new ArrayList<>());
-        patternMatchers.add(buildFilter(Collections.singleton(facetPattern.getKey())));
+        String pattern = facetPattern.getKey();
+        patternMatchers.add(AntPatternMatcher.isValidPattern(pattern) ? new AntPatternInclude(pattern) : new StringEqualsInclude(pattern));
       }
     }
     return filters;
   }
 
+  /**
+   * Compiles the patterns of the facet filter into a single pattern set. Other predicates (e.g. of a subclass) are
+   * tested one by one.
+   *
+   * @param facetFilter The predicates of each facet.
+   */
+  private void compileFacetFilter(Map<String, List<Predicate<String>>> facetFilter) {
+    for (Map.Entry<String, List<Predicate<String>>> facet : facetFilter.entrySet()) {
+      for (Predicate<String> predicate : facet.getValue()) {
+        if (predicate instanceof AntPatternInclude && AntPatternMatcher.isValidPattern(((AntPatternInclude) predicate).getPattern())) {
+          this.facetFilter.add(((AntPatternInclude) predicate).getPattern(), facet.getKey());
+        }
+        else if (predicate instanceof StringEqualsInclude && !AntPatternMatcher.isValidPattern(((StringEqualsInclude) predicate).getString())) {
+          this.facetFilter.add(((StringEqualsInclude) predicate).getString(), facet.getKey());
+        }
+        else {
+          this.facetPredicates.add(new AbstractMap.SimpleImmutableEntry<>(facet.getKey(), predicate));
+        }
+      }
+    }
+  }
+
   public InputStream getResourceAsStream(String name) {
     return this.resourceClassLoader.getResourceAsStream(name);
   }
@@ -0,0 +1,558 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps Enunciate resident between builds. Each build gets a new engine from the engine factory (the modules keep
+ * per-build state), but the JVM, the loaded module classes, the compiled templates and the classpath scan results stay
+ * warm. Each build still runs javac over all the sources and invokes all the modules; in incremental mode the generating
+ * modules skip the outputs that are up-to-date with the build manifest in the build directory.<br/>
+ * <br/>
+ * Builds are triggered by changes to the watched files and directories, and by clients connecting to a local socket.
+ * The protocol is line-based: the client sends the token of the daemon (see {@link #listen(int, File)}), then a command
+ * (<code>build</code>, <code>ping</code> or <code>stop</code>). For a build, the daemon streams the log of the build it
+ * ran for the client back, each line starting with its level (e.g. <code>[INFO]</code>), and ends with a status line:
+ * <code>BUILD SUCCESS</code> or <code>BUILD FAILURE</code>.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateDaemon implements Closeable {
+
+  static final String SUCCESS = "BUILD SUCCESS";
+  static final String FAILURE = "BUILD FAILURE";
+  static final String UNAUTHORIZED = "unauthorized";
+  static final String TOKEN_FILE_NAME = "daemon.token";
+
+  private final Supplier<Enunciate> engineFactory;
+  private final EnunciateLogger logger;
+  private final List<File> watched = new ArrayList<>();
+  private final EnunciateScanIndex scanIndex = EnunciateScanIndex.inMemory();
+  private long quietPeriod = 200;
+  private volatile boolean running = true;
+  private ServerSocket server;
+  private File tokenFile;
+  private String token;
+  private int builds = 0;
+
+  /**
+   * @param engineFactory Creates and configures the engine for each build.
+   * @param logger        The logger of the daemon (the log of a build requested by a client is also streamed to it).
+   */
+  public EnunciateDaemon(Supplier<Enunciate> engineFactory, EnunciateLogger logger) {
+    this.engineFactory = engineFactory;
+    this.logger = logger;
+  }
+
+  /**
+   * Watch the specified file or directory (recursively) for changes.
+   *
+   * @param file The file or directory.
+   * @return this.
+   */
+  public EnunciateDaemon watch(File file) {
+    this.watched.add(file.getAbsoluteFile());
+    return this;
+  }
+
+  /**
+   * Set how long (in milliseconds) the watched files must be quiet before a build is triggered, so that a burst of
+   * changes (e.g. saving several files, or a VCS checkout) triggers a single build.
+   *
+   * @param quietPeriod The quiet period.
+   */
+  public void setQuietPeriod(long quietPeriod) {
+    this.quietPeriod = quietPeriod;
+  }
+
+  /**
+   * @return The number of builds run so far.
+   */
+  public synchronized int getBuilds() {
+    return builds;
+  }
+
+  /**
+   * Runs a build.
+   *
+   * @return Whether the build succeeded.
+   */
+  public boolean build() {
+    return build(null);
+  }
+
+  /**
+   * Runs a build, streaming its log to the client that requested it.
+   *
+   * @param client The client (null if the build wasn't requested by a client).
+   * @return Whether the build succeeded.
+   */
+  synchronized boolean build(PrintWriter client) {
+    long start = System.nanoTime();
+    this.builds++;
+    EnunciateLogger logger = new StreamingLogger(client);
+    try {
+      Enunciate enunciate = this.engineFactory.get();
+      enunciate.setLogger(logger);
+      enunciate.setSharedScanIndex(this.scanIndex);
+      enunciate.run();
+      logger.info("%s (build %s, %s ms)", SUCCESS, this.builds, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return true;
+    }
+    catch (RuntimeException e) {
+      //errors (e.g. running out of memory) aren't caught: the daemon can't be trusted with another build.
+      logger.error("%s (build %s, %s ms): %s", FAILURE, this.builds, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+      return false;
+    }
+  }
+
+  /**
+   * Watches the files and directories for changes, running a build (after the quiet period) whenever something changes.
+   * Blocks until the daemon is closed or the thread is interrupted.
+   */
+  public void watch() throws IOException, InterruptedException {
+    try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+      Set<Path> files = new HashSet<>();
+      for (File file : this.watched) {
+        if (file.isDirectory()) {
+          register(file.toPath(), watchService);
+        }
+        else if (file.getParentFile() != null) {
+          files.add(file.toPath());
+          file.getParentFile().toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+      }
+
+      this.logger.info("Watching %s for changes.", this.watched);
+      while (this.running) {
+        WatchKey key = watchService.poll(500, TimeUnit.MILLISECONDS);
+        if (key == null) {
+          continue;
+        }
+
+        boolean changed = false;
+        while (key != null) {
+          changed |= collect(key, files, watchService);
+          key.reset();
+          //wait for the changes to settle.
+          key = watchService.poll(this.quietPeriod, TimeUnit.MILLISECONDS);
+        }
+
+        if (changed && this.running) {
+          build();
+        }
+      }
+    }
+    catch (ClosedWatchServiceException e) {
+      //closed.
+    }
+  }
+
+  private boolean collect(WatchKey key, Set<Path> files, WatchService watchService) throws IOException {
+    Path dir = (Path) key.watchable();
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        changed = true;
+        continue;
+      }
+
+      Path path = dir.resolve((Path) event.context());
+      if (this.watched.contains(dir.toFile()) || isUnderWatchedDirectory(path) || files.contains(path)) {
+        this.logger.debug("%s: %s", event.kind().name(), path);
+        changed = true;
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+          register(path, watchService);
+        }
+      }
+    }
+    return changed;
+  }
+
+  private boolean isUnderWatchedDirectory(Path path) {
+    for (File file : this.watched) {
+      if (file.isDirectory() && path.startsWith(file.toPath())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void register(Path dir, WatchService watchService) throws IOException {
+    try (Stream<Path> dirs = Files.walk(dir)) {
+      for (Path subdir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+        subdir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      }
+    }
+  }
+
+  /**
+   * Listens for clients on the specified port of the loopback interface. Each client is served on its own thread.<br/>
+   * <br/>
+   * A random token is written to the specified file, which only its owner can read. Clients must send the token before
+   * their commands, so other local users can't run builds or stop the daemon.
+   *
+   * @param port      The port (0 for any free port).
+   * @param tokenFile The file to write the token to (e.g. in the build directory).
+   * @return The port listened to.
+   */
+  public int listen(int port, File tokenFile) throws IOException {
+    byte[] random = new byte[32];
+    new SecureRandom().nextBytes(random);
+    this.token = HexFormat.of().formatHex(random);
+    writeToken(tokenFile, this.token);
+    this.tokenFile = tokenFile;
+
+    this.server = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(() -> {
+      while (this.running) {
+        try {
+          Socket client = this.server.accept();
+          Thread handler = new Thread(() -> serve(client), "enunciate-daemon-client");
+          handler.setDaemon(true);
+          handler.start();
+        }
+        catch (IOException e) {
+          if (this.running) {
+            this.logger.warn("Unable to accept a connection: %s", e.getMessage());
+          }
+        }
+      }
+    }, "enunciate-daemon");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    this.logger.info("Listening for build requests on %s:%s.", this.server.getInetAddress().getHostAddress(), this.server.getLocalPort());
+    return this.server.getLocalPort();
+  }
+
+  private static void writeToken(File tokenFile, String token) throws IOException {
+    Path path = tokenFile.toPath();
+    if (tokenFile.getParentFile() != null) {
+      tokenFile.getParentFile().mkdirs();
+    }
+    Files.deleteIfExists(path);
+    //create the file with its permissions before writing the token to it.
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    }
+    else {
+      Files.createFile(path);
+      tokenFile.setReadable(false, false);
+      tokenFile.setReadable(true, true);
+      tokenFile.setWritable(false, false);
+      tokenFile.setWritable(true, true);
+    }
+    Files.writeString(path, token, StandardCharsets.UTF_8);
+  }
+
+  private void serve(Socket client) {
+    try (Socket socket = client;
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      //the first line is the token.
+      socket.setSoTimeout(10000);
+      String token = in.readLine();
+      if (token == null || !MessageDigest.isEqual(this.token.getBytes(StandardCharsets.UTF_8), token.trim().getBytes(StandardCharsets.UTF_8))) {
+        this.logger.warn("Rejected a connection without a valid token.");
+        out.println(UNAUTHORIZED);
+        return;
+      }
+      socket.setSoTimeout(0);
+
+      String command;
+      while ((command = in.readLine()) != null) {
+        command = command.trim();
+        if ("build".equals(command)) {
+          boolean success;
+          try {
+            success = build(out);
+          }
+          catch (Error e) {
+            this.logger.error("Stopping the daemon: %s", e);
+            close();
+            throw e;
+          }
+          //the status of the build is the only line that doesn't start with a log level.
+          out.println(success ? SUCCESS : FAILURE);
+        }
+        else if ("ping".equals(command)) {
+          out.println("pong");
+        }
+        else if ("stop".equals(command)) {
+          out.println("stopping");
+          close();
+          return;
+        }
+        else if (!command.isEmpty()) {
+          out.println("unknown command: " + command);
+        }
+      }
+    }
+    catch (IOException e) {
+      this.logger.debug("Connection closed: %s", e.getMessage());
+    }
+  }
+
+  /**
+   * Stops watching and listening.
+   */
+  @Override
+  public void close() throws IOException {
+    this.running = false;
+    if (this.server != null) {
+      this.server.close();
+    }
+    if (this.tokenFile != null) {
+      this.tokenFile.delete();
+    }
+  }
+
+  /**
+   * @return Whether the daemon is still running.
+   */
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Sends a command to a running daemon, copying what the daemon sends back to the specified output.
+   *
+   * @param port      The port the daemon listens to.
+   * @param tokenFile The file the daemon wrote its token to.
+   * @param command   The command.
+   * @param out       Where to copy the response.
+   * @return Whether the command succeeded (for a build, whether the build succeeded).
+   */
+  public static boolean send(int port, File tokenFile, String command, PrintStream out) throws IOException {
+    String token = Files.readString(tokenFile.toPath(), StandardCharsets.UTF_8).trim();
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      writer.println(token);
+      writer.println(command);
+      String line;
+      while ((line = in.readLine()) != null) {
+        out.println(line);
+        if (UNAUTHORIZED.equals(line)) {
+          return false;
+        }
+        else if (!"build".equals(command)) {
+          return !line.startsWith("unknown command");
+        }
+        else if (line.startsWith(SUCCESS)) {
+          return true;
+        }
+        else if (line.startsWith(FAILURE)) {
+          return false;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Runs the daemon (or a client of a running daemon) from the command line:
+   * <pre>
+   * EnunciateDaemon [-config file] [-build dir] [-cp path] [-sourcepath path] [-port n] [-watch] [-debug] sourceDir...
+   * EnunciateDaemon [-build dir] -connect port [build|ping|stop]
+   * </pre>
+   * The builds are incremental unless the configuration says otherwise. A client reads the token of the daemon from
+   * the build directory.
+   *
+   * @param args The arguments.
+   */
+  public static void main(String[] args) throws Exception {
+    File config = null;
+    File buildDir = new File("target/enunciate");
+    List<File> classpath = new ArrayList<>();
+    List<File> sourcepath = new ArrayList<>();
+    List<File> sourceDirs = new ArrayList<>();
+    int port = -1;
+    int connect = -1;
+    String command = "build";
+    boolean watch = false;
+    EnunciateConsoleLogger logger = new EnunciateConsoleLogger();
+
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("-connect".equals(arg)) {
+        connect = Integer.parseInt(args[++i]);
+        if (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+          command = args[++i];
+        }
+      }
+      else if ("-config".equals(arg)) {
+        config = new File(args[++i]);
+      }
+      else if ("-build".equals(arg)) {
+        buildDir = new File(args[++i]);
+      }
+      else if ("-cp".equals(arg) || "-classpath".equals(arg)) {
+        classpath.addAll(toFiles(args[++i]));
+      }
+      else if ("-sourcepath".equals(arg)) {
+        sourcepath.addAll(toFiles(args[++i]));
+      }
+      else if ("-port".equals(arg)) {
+        port = Integer.parseInt(args[++i]);
+      }
+      else if ("-watch".equals(arg)) {
+        watch = true;
+      }
+      else if ("-debug".equals(arg)) {
+        logger.setDebugEnabled(true);
+      }
+      else {
+        sourceDirs.add(new File(arg));
+      }
+    }
+
+    if (connect >= 0) {
+      System.exit(send(connect, new File(buildDir, TOKEN_FILE_NAME), command, System.out) ? 0 : 1);
+    }
+
+    final File configFile = config;
+    final File buildDirectory = buildDir;
+    EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      Enunciate enunciate = new Enunciate();
+      buildDirectory.mkdirs();
+      enunciate.setBuildDir(buildDirectory);
+      if (configFile != null) {
+        enunciate.loadConfiguration(configFile);
+        enunciate.getConfiguration().setBase(configFile.getAbsoluteFile().getParentFile());
+      }
+      //the point of the daemon is to rebuild only what changed.
+      enunciate.getConfiguration().setDefaultIncremental(true);
+      enunciate.setClasspath(new ArrayList<>(classpath));
+      enunciate.setSourcepath(new ArrayList<>(sourcepath));
+      for (File sourceDir : sourceDirs) {
+        enunciate.addSourceDir(sourceDir);
+      }
+      return enunciate.loadDiscoveredModules();
+    }, logger);
+
+    for (File sourceDir : sourceDirs) {
+      daemon.watch(sourceDir);
+    }
+    if (configFile != null) {
+      daemon.watch(configFile);
+    }
+
+    if (port >= 0) {
+      daemon.listen(port, new File(buildDir, TOKEN_FILE_NAME));
+    }
+
+    boolean success = daemon.build();
+    if (watch) {
+      daemon.watch();
+    }
+    else if (port >= 0) {
+      while (daemon.isRunning()) {
+        Thread.sleep(500);
+      }
+    }
+    else {
+      System.exit(success ? 0 : 1);
+    }
+  }
+
+  private static List<File> toFiles(String path) {
+    List<File> files = new ArrayList<>();
+    for (String entry : path.split(File.pathSeparator)) {
+      if (!entry.isEmpty()) {
+        files.add(new File(entry));
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Logs to the daemon logger and streams the messages (at info level and up) to the client that requested the build.
+   * Debug messages are never streamed, and a message is formatted only once, only if a client is streamed to (the
+   * daemon logger formats the messages it logs itself).
+   */
+  private class StreamingLogger implements EnunciateLogger {
+
+    private final PrintWriter client;
+
+    StreamingLogger(PrintWriter client) {
+      this.client = client;
+    }
+
+    @Override
+    public void debug(String message, Object... formatArgs) {
+      logger.debug(message, formatArgs);
+    }
+
+    @Override
+    public void info(String message, Object... formatArgs) {
+      if (this.client == null) {
+        logger.info(message, formatArgs);
+      }
+      else {
+        String formatted = String.format(message, formatArgs);
+        logger.info("%s", formatted);
+        stream("[INFO] ", formatted);
+      }
+    }
+
+    @Override
+    public void warn(String message, Object... formatArgs) {
+      if (this.client == null) {
+        logger.warn(message, formatArgs);
+      }
+      else {
+        String formatted = String.format(message, formatArgs);
+        logger.warn("%s", formatted);
+        stream("[WARNING] ", formatted);
+      }
+    }
+
+    @Override
+    public void error(String message, Object... formatArgs) {
+      if (this.client == null) {
+        logger.error(message, formatArgs);
+      }
+      else {
+        String formatted = String.format(message, formatArgs);
+        logger.error("%s", formatted);
+        stream("[ERROR] ", formatted);
+      }
+    }
+
+    private void stream(String level, String message) {
+      //every line gets the level, so no line of the log can be taken for the status of the build.
+      for (String line : message.split("\\R", -1)) {
+        this.client.println(level + line);
+      }
+    }
+  }
+}
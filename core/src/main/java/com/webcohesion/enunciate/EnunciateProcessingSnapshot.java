@@ -0,0 +1,434 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.SourcePosition;
+
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * A snapshot of the inputs of the annotation processing pass, kept in the build directory between builds for incremental
+ * mode. The snapshot records, for each API type, a hash of the source file that declares it and the names of the types
+ * it references (supertypes, field types, method signatures, type parameter bounds, and the annotations and the classes
+ * named by the annotations, e.g. <code>@XmlSeeAlso</code> or <code>@JsonSubTypes</code>), along with a fingerprint of the rest of the environment
+ * (configuration, classpath, compiler arguments, modules). Comparing two snapshots yields the API types that have to be
+ * considered changed: the types whose source changed plus, transitively, every type that references a changed type.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateProcessingSnapshot {
+
+  static final int FORMAT_VERSION = 2;
+
+  private final String environmentFingerprint;
+  private final Map<String, String> sourceHashes;
+  private final Map<String, Set<String>> dependencies;
+
+  EnunciateProcessingSnapshot(String environmentFingerprint, Map<String, String> sourceHashes, Map<String, Set<String>> dependencies) {
+    this.environmentFingerprint = environmentFingerprint;
+    this.sourceHashes = sourceHashes;
+    this.dependencies = dependencies;
+  }
+
+  public String getEnvironmentFingerprint() {
+    return environmentFingerprint;
+  }
+
+  /**
+   * @return The hash of the declaring source file of each API type, by type name. Types that were loaded from a class
+   * file have an empty hash; changes to them are tracked by the environment fingerprint (the classpath).
+   */
+  public Map<String, String> getSourceHashes() {
+    return sourceHashes;
+  }
+
+  /**
+   * @return The names of the types referenced by each API type, by type name.
+   */
+  public Map<String, Set<String>> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Captures a snapshot of the specified API elements.
+   *
+   * @param env                    The processing environment.
+   * @param apiElements            The API elements.
+   * @param environmentFingerprint The fingerprint of the processing environment.
+   * @return The snapshot.
+   */
+  public static EnunciateProcessingSnapshot capture(DecoratedProcessingEnvironment env, Collection<? extends Element> apiElements, String environmentFingerprint) {
+    Map<String, String> sourceHashes = new TreeMap<>();
+    Map<String, Set<String>> dependencies = new TreeMap<>();
+    Map<URI, String> hashesByUri = new HashMap<>();
+    for (Element apiElement : apiElements) {
+      if (apiElement instanceof TypeElement) {
+        captureType(env, (TypeElement) apiElement, sourceHashes, dependencies, hashesByUri);
+      }
+    }
+    return new EnunciateProcessingSnapshot(environmentFingerprint, sourceHashes, dependencies);
+  }
+
+  private static void captureType(DecoratedProcessingEnvironment env, TypeElement type, Map<String, String> sourceHashes, Map<String, Set<String>> dependencies, Map<URI, String> hashesByUri) {
+    String name = type.getQualifiedName().toString();
+    if (dependencies.containsKey(name)) {
+      return;
+    }
+
+    Set<String> references = new TreeSet<>();
+    dependencies.put(name, references);
+    sourceHashes.put(name, hashSource(env, type, hashesByUri));
+
+    collectReferences(type.getSuperclass(), references, new HashSet<>());
+    for (TypeMirror iface : type.getInterfaces()) {
+      collectReferences(iface, references, new HashSet<>());
+    }
+    collectTypeParameterReferences(type.getTypeParameters(), references);
+    collectAnnotationReferences(type, references);
+
+    for (Element member : type.getEnclosedElements()) {
+      if (member instanceof VariableElement) {
+        collectReferences(member.asType(), references, new HashSet<>());
+        collectAnnotationReferences(member, references);
+      }
+      else if (member instanceof ExecutableElement) {
+        ExecutableElement method = (ExecutableElement) member;
+        collectReferences(method.getReturnType(), references, new HashSet<>());
+        for (VariableElement parameter : method.getParameters()) {
+          collectReferences(parameter.asType(), references, new HashSet<>());
+          collectAnnotationReferences(parameter, references);
+        }
+        for (TypeMirror thrown : method.getThrownTypes()) {
+          collectReferences(thrown, references, new HashSet<>());
+        }
+        collectTypeParameterReferences(method.getTypeParameters(), references);
+        collectAnnotationReferences(method, references);
+      }
+      else if (member instanceof TypeElement) {
+        references.add(((TypeElement) member).getQualifiedName().toString());
+        captureType(env, (TypeElement) member, sourceHashes, dependencies, hashesByUri);
+      }
+    }
+
+    references.remove(name);
+  }
+
+  private static void collectTypeParameterReferences(List<? extends TypeParameterElement> typeParameters, Set<String> references) {
+    for (TypeParameterElement typeParameter : typeParameters) {
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        collectReferences(bound, references, new HashSet<>());
+      }
+    }
+  }
+
+  private static void collectAnnotationReferences(Element element, Set<String> references) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      collectAnnotationReferences(annotation, references);
+    }
+  }
+
+  private static void collectAnnotationReferences(AnnotationMirror annotation, Set<String> references) {
+    collectReferences(annotation.getAnnotationType(), references, new HashSet<>());
+    for (AnnotationValue value : annotation.getElementValues().values()) {
+      collectAnnotationValueReferences(value.getValue(), references);
+    }
+  }
+
+  private static void collectAnnotationValueReferences(Object value, Set<String> references) {
+    if (value instanceof TypeMirror) {
+      //class literals, e.g. @XmlSeeAlso or @JsonSubTypes.
+      collectReferences((TypeMirror) value, references, new HashSet<>());
+    }
+    else if (value instanceof VariableElement) {
+      //enum constants.
+      collectReferences(((VariableElement) value).asType(), references, new HashSet<>());
+    }
+    else if (value instanceof AnnotationMirror) {
+      collectAnnotationReferences((AnnotationMirror) value, references);
+    }
+    else if (value instanceof List) {
+      for (Object item : (List<?>) value) {
+        collectAnnotationValueReferences(item instanceof AnnotationValue ? ((AnnotationValue) item).getValue() : item, references);
+      }
+    }
+  }
+
+  private static void collectReferences(TypeMirror type, Set<String> references, Set<TypeMirror> visiting) {
+    if (type == null || !visiting.add(type)) {
+      return;
+    }
+
+    switch (type.getKind()) {
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        Element element = declared.asElement();
+        if (element instanceof TypeElement) {
+          String name = ((TypeElement) element).getQualifiedName().toString();
+          if (!name.startsWith("java.")) {
+            references.add(name);
+          }
+        }
+        for (TypeMirror arg : declared.getTypeArguments()) {
+          collectReferences(arg, references, visiting);
+        }
+        break;
+      case ARRAY:
+        collectReferences(((ArrayType) type).getComponentType(), references, visiting);
+        break;
+      case WILDCARD:
+        collectReferences(((WildcardType) type).getExtendsBound(), references, visiting);
+        collectReferences(((WildcardType) type).getSuperBound(), references, visiting);
+        break;
+      case TYPEVAR:
+        collectReferences(((TypeVariable) type).getUpperBound(), references, visiting);
+        collectReferences(((TypeVariable) type).getLowerBound(), references, visiting);
+        break;
+      case INTERSECTION:
+        for (TypeMirror bound : ((IntersectionType) type).getBounds()) {
+          collectReferences(bound, references, visiting);
+        }
+        break;
+      default:
+        //primitives, etc. don't reference any other api type.
+    }
+  }
+
+  /**
+   * Computes a fingerprint of the content of the source files of the specified API elements.
+   *
+   * @param env         The processing environment.
+   * @param apiElements The API elements.
+   * @return The fingerprint.
+   */
+  static String fingerprintSources(DecoratedProcessingEnvironment env, Collection<? extends Element> apiElements) {
+    Map<URI, String> hashesByUri = new HashMap<>();
+    TreeSet<String> sources = new TreeSet<>();
+    for (Element apiElement : apiElements) {
+      String name = apiElement instanceof TypeElement ? ((TypeElement) apiElement).getQualifiedName().toString() : String.valueOf(apiElement);
+      sources.add(name + '=' + hashSource(env, apiElement, hashesByUri));
+    }
+    return hash(sources.toArray(new String[0]));
+  }
+
+  private static String hashSource(DecoratedProcessingEnvironment env, Element element, Map<URI, String> hashesByUri) {
+    SourcePosition position = env.findSourcePosition(element);
+    URI uri = position == null || position.getSourceFile() == null ? null : position.getSourceFile().toUri();
+    if (uri == null) {
+      return "";
+    }
+
+    return hashesByUri.computeIfAbsent(uri, u -> {
+      try (InputStream in = u.toURL().openStream()) {
+        return hash(in);
+      }
+      catch (IOException | IllegalArgumentException e) {
+        return "";
+      }
+    });
+  }
+
+  /**
+   * Computes the names of the API types that have to be considered changed since the specified (previous) snapshot.
+   *
+   * @param previous The previous snapshot, or null if there is none.
+   * @return The names of the changed types, or null if everything has to be considered changed.
+   */
+  public Set<String> findChangedTypes(EnunciateProcessingSnapshot previous) {
+    if (previous == null || !this.environmentFingerprint.equals(previous.environmentFingerprint)) {
+      return null;
+    }
+
+    Set<String> changed = new TreeSet<>();
+    for (Map.Entry<String, String> source : this.sourceHashes.entrySet()) {
+      String previousHash = previous.sourceHashes.get(source.getKey());
+      if (previousHash == null || !previousHash.equals(source.getValue())) {
+        changed.add(source.getKey());
+      }
+    }
+
+    //types that went away count as changed, too, so that whatever referenced them is picked up.
+    for (String type : previous.sourceHashes.keySet()) {
+      if (!this.sourceHashes.containsKey(type)) {
+        changed.add(type);
+      }
+    }
+
+    //propagate the changes to the types that (transitively) reference a changed type.
+    Map<String, Set<String>> dependents = new HashMap<>();
+    for (Map.Entry<String, Set<String>> dependency : this.dependencies.entrySet()) {
+      for (String reference : dependency.getValue()) {
+        dependents.computeIfAbsent(reference, k -> new TreeSet<>()).add(dependency.getKey());
+      }
+    }
+
+    Deque<String> queue = new ArrayDeque<>(changed);
+    while (!queue.isEmpty()) {
+      for (String dependent : dependents.getOrDefault(queue.pop(), Collections.emptySet())) {
+        if (changed.add(dependent)) {
+          queue.push(dependent);
+        }
+      }
+    }
+
+    return changed;
+  }
+
+  /**
+   * Finds the names of the types that are referenced by the specified types, in this snapshot or in the previous one.
+   * A type referenced by a changed type (e.g. the supertype of a new subtype) may have to be processed again, too.
+   *
+   * @param types    The names of the types.
+   * @param previous The previous snapshot, or null.
+   * @return The names of the referenced types.
+   */
+  public Set<String> findReferencedTypes(Set<String> types, EnunciateProcessingSnapshot previous) {
+    Set<String> references = new TreeSet<>();
+    for (String type : types) {
+      references.addAll(this.dependencies.getOrDefault(type, Collections.emptySet()));
+      if (previous != null) {
+        references.addAll(previous.dependencies.getOrDefault(type, Collections.emptySet()));
+      }
+    }
+    return references;
+  }
+
+  /**
+   * Loads a snapshot from the specified file.
+   *
+   * @param file   The file.
+   * @param logger The logger.
+   * @return The snapshot, or null if there is no (readable) snapshot.
+   */
+  public static EnunciateProcessingSnapshot load(File file, EnunciateLogger logger) {
+    if (!file.exists()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+
+      String environmentFingerprint = in.readUTF();
+      int typeCount = in.readInt();
+      Map<String, String> sourceHashes = new TreeMap<>();
+      Map<String, Set<String>> dependencies = new TreeMap<>();
+      for (int i = 0; i < typeCount; i++) {
+        String name = in.readUTF();
+        sourceHashes.put(name, in.readUTF());
+        int referenceCount = in.readInt();
+        Set<String> references = new TreeSet<>();
+        for (int j = 0; j < referenceCount; j++) {
+          references.add(in.readUTF());
+        }
+        dependencies.put(name, references);
+      }
+      return new EnunciateProcessingSnapshot(environmentFingerprint, sourceHashes, dependencies);
+    }
+    catch (IOException | RuntimeException e) {
+      logger.debug("Unable to read processing snapshot %s (%s).", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Stores this snapshot to the specified file.
+   *
+   * @param file The file.
+   */
+  public void store(File file) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    //a unique file in the same directory, so builds sharing the build directory don't write over each other's file.
+    Path tmp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(this.environmentFingerprint);
+        out.writeInt(this.dependencies.size());
+        for (Map.Entry<String, Set<String>> dependency : this.dependencies.entrySet()) {
+          out.writeUTF(dependency.getKey());
+          out.writeUTF(this.sourceHashes.getOrDefault(dependency.getKey(), ""));
+          out.writeInt(dependency.getValue().size());
+          for (String reference : dependency.getValue()) {
+            out.writeUTF(reference);
+          }
+        }
+      }
+
+      try {
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  static String hash(InputStream in) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[8 * 1024];
+    int len;
+    while ((len = in.read(buffer)) > 0) {
+      digest.update(buffer, 0, len);
+    }
+    return toHex(digest.digest());
+  }
+
+  static String hash(String... values) {
+    MessageDigest digest = newDigest();
+    for (String value : values) {
+      digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return toHex(digest.digest());
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+}
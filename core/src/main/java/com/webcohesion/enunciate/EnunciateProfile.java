@@ -0,0 +1,245 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import jdk.jfr.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The timings and counters of the phases of a build (classpath scan, annotation processing, each module, template
+ * rendering, client compilation, packaging...), per module. The profile is written to the build directory as JSON and CSV
+ * if profiling is enabled (see {@link EnunciateConfiguration#isProfilingEnabled()}), and each phase is also emitted as a
+ * JFR event (<code>com.webcohesion.enunciate.Phase</code>) that is recorded when a flight recording enables it.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateProfile {
+
+  /**
+   * The "module" of the phases of the engine itself.
+   */
+  public static final String ENGINE = "enunciate";
+
+  private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Starts timing a phase. The phase is recorded when the returned span is closed; a phase that's started several times
+   * (e.g. a template that's rendered for each type) accumulates.
+   *
+   * @param module The module (or {@link #ENGINE}).
+   * @param phase  The phase.
+   * @return The span.
+   */
+  public Span start(String module, String phase) {
+    return new Span(getPhase(module, phase));
+  }
+
+  /**
+   * Adds to a counter of a phase.
+   *
+   * @param module  The module (or {@link #ENGINE}).
+   * @param phase   The phase.
+   * @param counter The counter.
+   * @param amount  The amount to add.
+   */
+  public void count(String module, String phase, String counter, long amount) {
+    getPhase(module, phase).count(counter, amount);
+  }
+
+  private Phase getPhase(String module, String phase) {
+    String m = module == null ? ENGINE : module;
+    return this.phases.computeIfAbsent(m + '\u0000' + phase, k -> new Phase(m, phase, this.sequence.getAndIncrement()));
+  }
+
+  /**
+   * @return The phases, in the order they were first started.
+   */
+  public List<Phase> getPhases() {
+    List<Phase> phases = new ArrayList<>(this.phases.values());
+    phases.sort(Comparator.comparingLong(phase -> phase.order));
+    return phases;
+  }
+
+  /**
+   * Writes the profile as JSON.
+   *
+   * @param file The file.
+   */
+  public void writeJson(File file) throws IOException {
+    try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      out.write("{\n  \"phases\": [");
+      boolean first = true;
+      for (Phase phase : getPhases()) {
+        out.write(first ? "\n" : ",\n");
+        first = false;
+        out.write("    {\"module\": " + quote(phase.module) + ", \"phase\": " + quote(phase.name)
+                    + ", \"invocations\": " + phase.invocations.sum() + ", \"millis\": " + phase.getMillis() + ", \"counters\": {");
+        boolean firstCounter = true;
+        for (Map.Entry<String, Long> counter : phase.getCounters().entrySet()) {
+          out.write((firstCounter ? "" : ", ") + quote(counter.getKey()) + ": " + counter.getValue());
+          firstCounter = false;
+        }
+        out.write("}}");
+      }
+      out.write("\n  ]\n}\n");
+    }
+  }
+
+  /**
+   * Writes the profile as CSV, one row per metric (<code>module,phase,metric,value</code>).
+   *
+   * @param file The file.
+   */
+  public void writeCsv(File file) throws IOException {
+    try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      out.write("module,phase,metric,value\n");
+      for (Phase phase : getPhases()) {
+        String prefix = csv(phase.module) + ',' + csv(phase.name) + ',';
+        out.write(prefix + "invocations," + phase.invocations.sum() + '\n');
+        out.write(prefix + "millis," + phase.getMillis() + '\n');
+        for (Map.Entry<String, Long> counter : phase.getCounters().entrySet()) {
+          out.write(prefix + csv(counter.getKey()) + ',' + counter.getValue() + '\n');
+        }
+      }
+    }
+  }
+
+  private static String csv(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private static String quote(String value) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char ch : value.toCharArray()) {
+      if (ch == '"' || ch == '\\') {
+        quoted.append('\\').append(ch);
+      }
+      else if (ch < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) ch));
+      }
+      else {
+        quoted.append(ch);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  /**
+   * The accumulated timings and counters of a phase of a module.
+   */
+  public static final class Phase {
+
+    private final String module;
+    private final String name;
+    private final long order;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private Phase(String module, String name, long order) {
+      this.module = module;
+      this.name = name;
+      this.order = order;
+    }
+
+    private void count(String counter, long amount) {
+      this.counters.computeIfAbsent(counter, k -> new LongAdder()).add(amount);
+    }
+
+    public String getModule() {
+      return module;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getInvocations() {
+      return invocations.sum();
+    }
+
+    public long getMillis() {
+      return nanos.sum() / 1000000;
+    }
+
+    public Map<String, Long> getCounters() {
+      Map<String, Long> counters = new TreeMap<>();
+      this.counters.forEach((counter, value) -> counters.put(counter, value.sum()));
+      return counters;
+    }
+  }
+
+  /**
+   * A running phase.
+   */
+  public static final class Span implements AutoCloseable {
+
+    private final Phase phase;
+    private final long start = System.nanoTime();
+    private final PhaseEvent event = new PhaseEvent();
+
+    private Span(Phase phase) {
+      this.phase = phase;
+      this.event.begin();
+    }
+
+    /**
+     * Adds to a counter of the phase.
+     *
+     * @param counter The counter.
+     * @param amount  The amount.
+     * @return this.
+     */
+    public Span count(String counter, long amount) {
+      this.phase.count(counter, amount);
+      return this;
+    }
+
+    @Override
+    public void close() {
+      this.phase.nanos.add(System.nanoTime() - this.start);
+      this.phase.invocations.increment();
+      if (this.event.shouldCommit()) {
+        this.event.module = this.phase.module;
+        this.event.phase = this.phase.name;
+        this.event.commit();
+      }
+    }
+  }
+
+  @Name("com.webcohesion.enunciate.Phase")
+  @Label("Enunciate Phase")
+  @Category("Enunciate")
+  @StackTrace(false)
+  static class PhaseEvent extends Event {
+
+    @Label("Module")
+    String module;
+
+    @Label("Phase")
+    String phase;
+  }
+}
@@ -16,17 +16,19 @@
 package com.webcohesion.enunciate;
 
 import com.webcohesion.enunciate.module.EnunciateModule;
+import com.webcohesion.enunciate.module.ScannedType;
 import com.webcohesion.enunciate.module.TypeDetectingModule;
-import com.webcohesion.enunciate.util.AntPatternInclude;
-import com.webcohesion.enunciate.util.AntPatternMatcher;
-import com.webcohesion.enunciate.util.StringEqualsInclude;
+import com.webcohesion.enunciate.util.AntPatternSet;
 import javassist.bytecode.ClassFile;
 import org.jetbrains.annotations.Nullable;
 import org.reflections.scanners.Scanner;
 import org.reflections.vfs.Vfs;
 
+import java.io.*;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.*;
-import java.util.function.Predicate;
 
 /**
  * @author Ryan Heaton
@@ -35,11 +37,13 @@ public class EnunciateReflectionsScanner implements Scanner {
 
   static final String INDEX = EnunciateReflectionsScanner.class.getName();
 
-  private final Predicate<String> includeFilter;
-  private final Predicate<String> excludeFilter;
+  private final AntPatternSet<String> includeFilter;
+  private final AntPatternSet<String> excludeFilter;
   private final List<TypeDetectingModule> detectingModules;
+  private final EnunciateLogger logger;
 
   public EnunciateReflectionsScanner(Enunciate enunciate, List<EnunciateModule> modules) {
+    this.logger = enunciate.getLogger();
     this.detectingModules = new ArrayList<>();
     for (EnunciateModule module : modules) {
       if (module instanceof TypeDetectingModule) {
@@ -47,34 +51,8 @@ public class EnunciateReflectionsScanner implements Scanner {
       }
     }
 
-    Predicate<String> includeFilter = s -> false;
-    Set<String> includes = enunciate.getIncludePatterns();
-    if (includes != null && !includes.isEmpty()) {
-      for (String include : includes) {
-        if (AntPatternMatcher.isValidPattern(include)) {
-          includeFilter = includeFilter.or(new AntPatternInclude(include));
-        }
-        else {
-          includeFilter = includeFilter.or(new StringEqualsInclude(include));
-        }
-      }
-    }
-
-    Predicate<String> excludeFilter = s -> false;
-    Set<String> excludes = enunciate.getExcludePatterns();
-    if (excludes != null && !excludes.isEmpty()) {
-      for (String exclude : excludes) {
-        if (AntPatternMatcher.isValidPattern(exclude)) {
-          excludeFilter = excludeFilter.or(new AntPatternInclude(exclude));
-        }
-        else {
-          excludeFilter = excludeFilter.or(new StringEqualsInclude(exclude));
-        }
-      }
-    }
-
-    this.includeFilter = includeFilter;
-    this.excludeFilter = excludeFilter;
+    this.includeFilter = AntPatternSet.of(enunciate.getIncludePatterns());
+    this.excludeFilter = AntPatternSet.of(enunciate.getExcludePatterns());
   }
 
   @Override
@@ -100,22 +78,26 @@ public class EnunciateReflectionsScanner implements Scanner {
 
   @Override
   public List<Map.Entry<String, String>> scan(ClassFile classFile) {
+    return scan(ScannedType.of(null, classFile));
+  }
+
+  public List<Map.Entry<String, String>> scan(ScannedType type) {
     boolean detected = false;
 
     for (TypeDetectingModule detectingModule : this.detectingModules) {
-      if (detectingModule.internal(classFile)) {
+      if (detectingModule.internal(type)) {
         //internal types should be marked as NOT detected by any module.
         detected = false;
         break;
       }
 
-      if (detectingModule.typeDetected(classFile)) {
+      if (detectingModule.typeDetected(type)) {
         detected = true;
         //do not break: type detecting modules may need to be aware of non-detected types or that are detected by other modules.
       }
     }
 
-    String className = classFile.getName();
+    String className = type.getName();
 
     ArrayList<Map.Entry<String, String>> entries = new ArrayList<>();
     boolean filteredIn = this.includeFilter.test(className);
@@ -131,4 +113,148 @@ public class EnunciateReflectionsScanner implements Scanner {
 
     return entries;
   }
+
+  /**
+   * Scans a single scanpath entry. If a scan index is provided and the entry hasn't changed since it was indexed, the
+   * indexed results are replayed through the type detecting modules instead of reopening the entry.
+   *
+   * @param url   The scanpath entry.
+   * @param index The scan index, or null if there is no index.
+   * @return The scanned entries.
+   */
+  public List<Map.Entry<String, String>> scan(URL url, EnunciateScanIndex index) {
+    File location = index == null ? null : toFile(url);
+    try {
+      if (location != null) {
+        EnunciateScanIndex.Entry indexed = index.find(location);
+        if (indexed != null) {
+          this.logger.debug("Scan of %s loaded from the scan index.", url);
+          return replay(url, indexed);
+        }
+      }
+
+      List<ScannedType> classes = new ArrayList<>();
+      List<String> sourceFiles = new ArrayList<>();
+      List<Map.Entry<String, String>> entries = scanFiles(url, classes, sourceFiles);
+      if (location != null) {
+        index.record(location, classes, sourceFiles);
+      }
+      return entries;
+    }
+    catch (IOException e) {
+      throw new EnunciateException(e);
+    }
+  }
+
+  private List<Map.Entry<String, String>> scanFiles(URL url, List<ScannedType> classes, List<String> sourceFiles) throws IOException {
+    List<Map.Entry<String, String>> entries = new ArrayList<>();
+    Vfs.Dir dir = Vfs.fromURL(url);
+    try {
+      for (Vfs.File file : dir.getFiles()) {
+        String path = file.getRelativePath();
+        if (!acceptsInput(path)) {
+          continue;
+        }
+
+        List<Map.Entry<String, String>> fileEntries = scan(file);
+        if (fileEntries != null) {
+          sourceFiles.add(path);
+          entries.addAll(fileEntries);
+        }
+        else {
+          ClassFile classFile;
+          try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openInputStream()))) {
+            classFile = new ClassFile(in);
+          }
+          catch (IOException | RuntimeException e) {
+            this.logger.debug("Unable to scan %s in %s: %s", path, url, e.getMessage());
+            continue;
+          }
+
+          ScannedType type = ScannedType.of(path, classFile);
+          entries.addAll(scan(type));
+          //index a copy that doesn't hold on to the parsed class file.
+          classes.add(new ScannedType(path, type.getName(), type.getAnnotationNames()));
+        }
+      }
+    }
+    finally {
+      dir.close();
+    }
+    return entries;
+  }
+
+  private List<Map.Entry<String, String>> replay(URL url, EnunciateScanIndex.Entry indexed) {
+    List<Map.Entry<String, String>> entries = new ArrayList<>();
+    for (ScannedType type : indexed.getClasses()) {
+      IndexedFile file = new IndexedFile(url, type.getRelativePath());
+      this.detectingModules.forEach(m -> m.file(file));
+      entries.addAll(scan(type));
+    }
+
+    for (String sourceFile : indexed.getSourceFiles()) {
+      IndexedFile file = new IndexedFile(url, sourceFile);
+      this.detectingModules.forEach(m -> m.file(file));
+      entries.add(entry(sourceFile, sourceFile));
+    }
+    return entries;
+  }
+
+  private static File toFile(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+
+    try {
+      File file = new File(url.toURI());
+      return file.exists() ? file : null;
+    }
+    catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A file on an indexed scanpath entry. The scanpath entry is only opened if the content of the file is requested.
+   */
+  static class IndexedFile implements Vfs.File {
+
+    private final URL root;
+    private final String relativePath;
+
+    IndexedFile(URL root, String relativePath) {
+      this.root = root;
+      this.relativePath = relativePath;
+    }
+
+    @Override
+    public String getName() {
+      return this.relativePath.substring(this.relativePath.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String getRelativePath() {
+      return this.relativePath;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+      return toURL().openStream();
+    }
+
+    URL toURL() throws MalformedURLException {
+      String root = this.root.toExternalForm();
+      if (root.endsWith("/")) {
+        return new URL(this.root, this.relativePath);
+      }
+      else {
+        return new URL("jar:" + root + "!/" + this.relativePath);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return this.root + "!/" + this.relativePath;
+    }
+  }
 }
@@ -0,0 +1,419 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import com.webcohesion.enunciate.module.ScannedType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A persistent index of what was found on each scanpath entry, kept in the build directory between builds. Entries are
+ * keyed by a fingerprint of their content (a content hash for jars, a hash of the file names, sizes and timestamps for
+ * directories) so that unchanged scanpath entries never need to be reopened. An index can be layered over a shared
+ * in-memory index (e.g. one shared by all the modules of a multi-module build) so the scanpath entries that were already
+ * scanned for another build in the same JVM aren't scanned again.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateScanIndex {
+
+  /**
+   * The version of the index format. Bump it whenever the format or the semantics of what is recorded change.
+   */
+  static final int FORMAT_VERSION = 2;
+
+  private final File file;
+  private final EnunciateScanIndex shared;
+  private final Map<String, Entry> entriesByLocation = new ConcurrentHashMap<>();
+  private final Map<String, Entry> entriesByFingerprint = new ConcurrentHashMap<>();
+  private final Set<String> referencedLocations = ConcurrentHashMap.newKeySet();
+  private final Map<String, String> computedFingerprints = new ConcurrentHashMap<>();
+
+  private EnunciateScanIndex(File file, EnunciateScanIndex shared) {
+    this.file = file;
+    this.shared = shared;
+  }
+
+  /**
+   * Creates an index that is kept in memory only, to be shared by several builds.
+   *
+   * @return The index.
+   */
+  public static EnunciateScanIndex inMemory() {
+    return new EnunciateScanIndex(null, null);
+  }
+
+  /**
+   * Loads the scan index from the specified file. If the file doesn't exist or can't be read, an empty index is returned.
+   *
+   * @param file   The index file.
+   * @param logger The logger.
+   * @return The scan index.
+   */
+  public static EnunciateScanIndex load(File file, EnunciateLogger logger) {
+    return load(file, logger, null);
+  }
+
+  /**
+   * Loads the scan index from the specified file, layered over a shared index. If the file doesn't exist or can't be
+   * read, an empty index (over the shared index) is returned.
+   *
+   * @param file   The index file.
+   * @param logger The logger.
+   * @param shared The shared index, or null if there is none.
+   * @return The scan index.
+   */
+  public static EnunciateScanIndex load(File file, EnunciateLogger logger, EnunciateScanIndex shared) {
+    EnunciateScanIndex index = new EnunciateScanIndex(file, shared);
+    if (file.exists()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+        if (in.readInt() != FORMAT_VERSION) {
+          logger.debug("Scan index %s is out of date and will be rebuilt.", file);
+          return index;
+        }
+
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+          strings[i] = readString(in, file.length());
+        }
+
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+          String location = strings[in.readInt()];
+          long size = in.readLong();
+          long lastModified = in.readLong();
+          String fingerprint = strings[in.readInt()];
+
+          int classCount = in.readInt();
+          List<ScannedType> classes = new ArrayList<>(classCount);
+          for (int j = 0; j < classCount; j++) {
+            String path = strings[in.readInt()];
+            String name = strings[in.readInt()];
+            String[] annotations = new String[in.readInt()];
+            for (int k = 0; k < annotations.length; k++) {
+              annotations[k] = strings[in.readInt()];
+            }
+            classes.add(new ScannedType(path, name, new LinkedHashSet<>(Arrays.asList(annotations))));
+          }
+
+          int sourceCount = in.readInt();
+          List<String> sourceFiles = new ArrayList<>(sourceCount);
+          for (int j = 0; j < sourceCount; j++) {
+            sourceFiles.add(strings[in.readInt()]);
+          }
+
+          index.add(new Entry(location, size, lastModified, fingerprint, classes, sourceFiles));
+        }
+      }
+      catch (IOException | RuntimeException e) {
+        logger.debug("Unable to read scan index %s (%s). The index will be rebuilt.", file, e.getMessage());
+        index.entriesByLocation.clear();
+        index.entriesByFingerprint.clear();
+      }
+    }
+    return index;
+  }
+
+  private void add(Entry entry) {
+    this.entriesByLocation.put(entry.getLocation(), entry);
+    this.entriesByFingerprint.put(entry.getFingerprint(), entry);
+  }
+
+  /**
+   * Finds the up-to-date index entry for the specified scanpath entry.
+   *
+   * @param location The jar or directory on the scanpath.
+   * @return The index entry, or null if the scanpath entry isn't indexed or has changed since it was indexed.
+   */
+  public Entry find(File location) throws IOException {
+    String path = location.getAbsolutePath();
+    this.referencedLocations.add(path);
+
+    Entry entry = findUntouched(path, location);
+    if (entry == null && this.shared != null) {
+      entry = this.shared.findUntouched(path, location);
+      if (entry != null) {
+        add(entry);
+      }
+    }
+
+    if (entry != null) {
+      //jar hasn't been touched since it was indexed; no need to hash it.
+      return entry;
+    }
+
+    String fingerprint = fingerprint(location);
+    this.computedFingerprints.put(path, fingerprint);
+    entry = this.entriesByFingerprint.get(fingerprint);
+    if (entry == null && this.shared != null) {
+      entry = this.shared.entriesByFingerprint.get(fingerprint);
+    }
+
+    if (entry != null) {
+      entry = new Entry(path, location.length(), location.lastModified(), entry.getFingerprint(), entry.getClasses(), entry.getSourceFiles());
+      add(entry);
+      if (this.shared != null) {
+        this.shared.add(entry);
+      }
+    }
+    return entry;
+  }
+
+  private Entry findUntouched(String path, File location) {
+    Entry entry = this.entriesByLocation.get(path);
+    if (entry != null && location.isFile() && entry.getSize() == location.length() && entry.getLastModified() == location.lastModified()) {
+      return entry;
+    }
+    return null;
+  }
+
+  /**
+   * Records the results of a scan of a scanpath entry.
+   *
+   * @param location    The jar or directory on the scanpath.
+   * @param classes     The classes found.
+   * @param sourceFiles The java source files found.
+   * @return The index entry.
+   */
+  public Entry record(File location, List<ScannedType> classes, List<String> sourceFiles) throws IOException {
+    String path = location.getAbsolutePath();
+    this.referencedLocations.add(path);
+    String fingerprint = this.computedFingerprints.remove(path);
+    if (fingerprint == null) {
+      fingerprint = fingerprint(location);
+    }
+    Entry entry = new Entry(path, location.length(), location.lastModified(), fingerprint, classes, sourceFiles);
+    add(entry);
+    if (this.shared != null) {
+      this.shared.add(entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Writes the index back to disk. Only the entries that were referenced since the index was loaded are kept. An
+   * in-memory index isn't written.
+   */
+  public void store() throws IOException {
+    if (this.file == null) {
+      return;
+    }
+
+    List<Entry> entries = this.entriesByLocation.values().stream()
+      .filter(entry -> this.referencedLocations.contains(entry.getLocation()))
+      .sorted(Comparator.comparing(Entry::getLocation))
+      .collect(Collectors.toList());
+
+    //strings (class names, annotation names) repeat a lot, so they're written once to a table and referenced by index.
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      intern(strings, entry.getLocation());
+      intern(strings, entry.getFingerprint());
+      for (ScannedType scannedType : entry.getClasses()) {
+        intern(strings, scannedType.getRelativePath());
+        intern(strings, scannedType.getName());
+        scannedType.getAnnotationNames().forEach(annotation -> intern(strings, annotation));
+      }
+      entry.getSourceFiles().forEach(sourceFile -> intern(strings, sourceFile));
+    }
+
+    File parent = this.file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    //a unique file in the same directory, so builds sharing the build directory don't write over each other's file.
+    Path tmp = Files.createTempFile(parent.toPath(), this.file.getName(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+        writeEntries(out, strings, entries);
+      }
+
+      try {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void writeEntries(DataOutputStream out, Map<String, Integer> strings, Collection<Entry> entries) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(strings.size());
+    for (String string : strings.keySet()) {
+      writeString(out, string);
+    }
+
+    out.writeInt(entries.size());
+    for (Entry entry : entries) {
+      out.writeInt(strings.get(entry.getLocation()));
+      out.writeLong(entry.getSize());
+      out.writeLong(entry.getLastModified());
+      out.writeInt(strings.get(entry.getFingerprint()));
+      out.writeInt(entry.getClasses().size());
+      for (ScannedType scannedType : entry.getClasses()) {
+        out.writeInt(strings.get(scannedType.getRelativePath()));
+        out.writeInt(strings.get(scannedType.getName()));
+        out.writeInt(scannedType.getAnnotationNames().size());
+        for (String annotation : scannedType.getAnnotationNames()) {
+          out.writeInt(strings.get(annotation));
+        }
+      }
+      out.writeInt(entry.getSourceFiles().size());
+      for (String sourceFile : entry.getSourceFiles()) {
+        out.writeInt(strings.get(sourceFile));
+      }
+    }
+  }
+
+  //length-prefixed UTF-8: unlike writeUTF, not limited to 64K bytes per string.
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in, long maxLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > maxLength) {
+      throw new IOException("Invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void intern(Map<String, Integer> strings, String value) {
+    strings.putIfAbsent(value, strings.size());
+  }
+
+  /**
+   * Computes the fingerprint of a scanpath entry: a hash of the content of a jar, or a hash of the relative paths,
+   * sizes and timestamps of the files in a directory.
+   *
+   * @param location The scanpath entry.
+   * @return The fingerprint.
+   */
+  static String fingerprint(File location) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    if (location.isDirectory()) {
+      Path base = location.toPath();
+      List<Path> files;
+      try (Stream<Path> walk = Files.walk(base)) {
+        files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+
+      for (Path file : files) {
+        File f = file.toFile();
+        digest.update(base.relativize(file).toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        digest.update(longBytes(f.length()));
+        digest.update(longBytes(f.lastModified()));
+      }
+    }
+    else {
+      byte[] buffer = new byte[64 * 1024];
+      try (InputStream in = new FileInputStream(location)) {
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+          digest.update(buffer, 0, len);
+        }
+      }
+    }
+
+    StringBuilder fingerprint = new StringBuilder(location.isDirectory() ? "d:" : "f:");
+    for (byte b : digest.digest()) {
+      fingerprint.append(String.format("%02x", b));
+    }
+    return fingerprint.toString();
+  }
+
+  private static byte[] longBytes(long value) {
+    byte[] bytes = new byte[8];
+    for (int i = 7; i >= 0; i--) {
+      bytes[i] = (byte) (value & 0xff);
+      value >>= 8;
+    }
+    return bytes;
+  }
+
+  /**
+   * What was found on a single scanpath entry.
+   */
+  public static final class Entry {
+
+    private final String location;
+    private final long size;
+    private final long lastModified;
+    private final String fingerprint;
+    private final List<ScannedType> classes;
+    private final List<String> sourceFiles;
+
+    Entry(String location, long size, long lastModified, String fingerprint, List<ScannedType> classes, List<String> sourceFiles) {
+      this.location = location;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.fingerprint = fingerprint;
+      this.classes = Collections.unmodifiableList(classes);
+      this.sourceFiles = Collections.unmodifiableList(sourceFiles);
+    }
+
+    public String getLocation() {
+      return location;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    public List<ScannedType> getClasses() {
+      return classes;
+    }
+
+    public List<String> getSourceFiles() {
+      return sourceFiles;
+    }
+  }
+}
@@ -7,10 +7,7 @@ import com.webcohesion.enunciate.api.services.ServiceApi;
 import com.webcohesion.enunciate.module.ApiRegistryProviderModule;
 import com.webcohesion.enunciate.module.EnunciateModule;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 
 /**
  * @author Ryan Heaton
@@ -18,13 +15,40 @@ import java.util.TreeSet;
 public class AggregatedApiRegistry implements ApiRegistry {
 
   private final Enunciate enunciate;
+  private final ApiRegistrationCache<List<ServiceApi>> serviceApis = new ApiRegistrationCache<>();
+  private final ApiRegistrationCache<List<ResourceApi>> resourceApis = new ApiRegistrationCache<>();
+  private final ApiRegistrationCache<Set<Syntax>> syntaxes = new ApiRegistrationCache<>();
 
   public AggregatedApiRegistry(Enunciate enunciate) {
     this.enunciate = enunciate;
   }
 
+  /**
+   * Clears the cached views of the API. The views are computed the first time they're asked for, so they're cleared each
+   * time a module that provides them has been invoked.
+   */
+  public void clear() {
+    this.serviceApis.clear();
+    this.resourceApis.clear();
+    this.syntaxes.clear();
+  }
+
   @Override
   public List<ServiceApi> getServiceApis(ApiRegistrationContext context) {
+    return this.serviceApis.get(context, this::loadServiceApis);
+  }
+
+  @Override
+  public List<ResourceApi> getResourceApis(ApiRegistrationContext context) {
+    return this.resourceApis.get(context, this::loadResourceApis);
+  }
+
+  @Override
+  public Set<Syntax> getSyntaxes(ApiRegistrationContext context) {
+    return this.syntaxes.get(context, this::loadSyntaxes);
+  }
+
+  protected List<ServiceApi> loadServiceApis(ApiRegistrationContext context) {
     ArrayList<ServiceApi> serviceApis = new ArrayList<ServiceApi>();
     List<EnunciateModule> modules = enunciate.getModules();
     for (EnunciateModule module : modules) {
@@ -32,11 +56,10 @@ public class AggregatedApiRegistry implements ApiRegistry {
         serviceApis.addAll(((ApiRegistryProviderModule) module).getApiRegistry().getServiceApis(context));
       }
     }
-    return serviceApis;
+    return Collections.unmodifiableList(serviceApis);
   }
 
-  @Override
-  public List<ResourceApi> getResourceApis(ApiRegistrationContext context) {
+  protected List<ResourceApi> loadResourceApis(ApiRegistrationContext context) {
     ArrayList<ResourceApi> resourceApis = new ArrayList<ResourceApi>();
     List<EnunciateModule> modules = enunciate.getModules();
     for (EnunciateModule module : modules) {
@@ -44,11 +67,10 @@ public class AggregatedApiRegistry implements ApiRegistry {
         resourceApis.addAll(((ApiRegistryProviderModule) module).getApiRegistry().getResourceApis(context));
       }
     }
-    return resourceApis;
+    return Collections.unmodifiableList(resourceApis);
   }
 
-  @Override
-  public Set<Syntax> getSyntaxes(ApiRegistrationContext context) {
+  protected Set<Syntax> loadSyntaxes(ApiRegistrationContext context) {
     Set<Syntax> syntaxes = new TreeSet<Syntax>();
     List<EnunciateModule> modules = enunciate.getModules();
     for (EnunciateModule module : modules) {
@@ -56,7 +78,7 @@ public class AggregatedApiRegistry implements ApiRegistry {
         syntaxes.addAll(((ApiRegistryProviderModule) module).getApiRegistry().getSyntaxes(context));
       }
     }
-    return syntaxes;
+    return Collections.unmodifiableSet(syntaxes);
   }
 
   @Override
@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.api;
+
+import com.webcohesion.enunciate.facets.FacetFilter;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches a view of the API (e.g. the resource groups or the syntaxes) per registration context. The views of the API
+ * only depend on the tag handler and the facet filter of the registration context, so registration contexts with the same
+ * tag handler and an equal facet filter share the same view. The cache is safe to use from concurrently running modules;
+ * the cached views should be immutable. The cache has to be cleared whenever something is registered that the views
+ * depend on; a view that was being computed while the cache was cleared is returned but not kept.
+ *
+ * @author Ryan Heaton
+ */
+public class ApiRegistrationCache<V> {
+
+  private final Map<Key, V> views = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Get the view for the specified registration context, computing it if it hasn't been computed yet.
+   *
+   * @param registrationContext The registration context.
+   * @param view                Computes the view.
+   * @return The view.
+   */
+  public V get(ApiRegistrationContext registrationContext, Function<ApiRegistrationContext, V> view) {
+    Key key = new Key(registrationContext);
+    V value = this.views.get(key);
+    if (value == null) {
+      //computed outside of the map because computing a view might need other views.
+      long generation = this.generation.get();
+      value = view.apply(registrationContext);
+      synchronized (this.generation) {
+        if (this.generation.get() == generation) {
+          V existing = this.views.putIfAbsent(key, value);
+          if (existing != null) {
+            value = existing;
+          }
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Clears the cached views.
+   */
+  public void clear() {
+    synchronized (this.generation) {
+      this.generation.incrementAndGet();
+      this.views.clear();
+    }
+  }
+
+  private static final class Key {
+
+    private final JavaDocTagHandler tagHandler;
+    private final FacetFilter facetFilter;
+
+    private Key(ApiRegistrationContext registrationContext) {
+      this.tagHandler = registrationContext.getTagHandler();
+      this.facetFilter = registrationContext.getFacetFilter();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+
+      Key other = (Key) o;
+      //tag handlers may hold on to their registration context, so they're compared by identity.
+      return this.tagHandler == other.tagHandler
+        && (this.facetFilter == null ? other.facetFilter == null : this.facetFilter.equals(other.facetFilter));
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(this.tagHandler) + (this.facetFilter == null ? 0 : this.facetFilter.hashCode());
+    }
+  }
+}
@@ -60,13 +60,18 @@ public class ClientLibraryArtifact extends BaseArtifact implements ArtifactBundl
     if (enunciate == null) {
       throw new NullPointerException();
     }
-    File dir = (file.exists() && file.isDirectory()) ? file : enunciate.createTempDir();
-    for (FileArtifact artifact : artifacts) {
-      enunciate.copyFile(artifact.getFile(), new File(dir, artifact.getFile().getName()));
+    if (file.exists() && file.isDirectory()) {
+      for (FileArtifact artifact : artifacts) {
+        enunciate.copyFile(artifact.getFile(), new File(file, artifact.getFile().getName()));
+      }
     }
-
-    if (!file.exists() || !file.isDirectory()) {
-      enunciate.zip(file, dir);
+    else {
+      //zipped up straight from where the artifacts are.
+      File[] files = new File[artifacts.size()];
+      for (int i = 0; i < files.length; i++) {
+        files[i] = artifacts.get(i).getFile();
+      }
+      enunciate.zipFiles(file, files);
       size = file.length();
     }
   }
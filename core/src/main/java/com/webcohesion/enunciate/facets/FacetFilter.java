@@ -64,4 +64,26 @@ public class FacetFilter {
     return accept;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FacetFilter)) {
+      return false;
+    }
+
+    FacetFilter other = (FacetFilter) o;
+    return facets(this.includes).equals(facets(other.includes)) && facets(this.excludes).equals(facets(other.excludes));
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * facets(this.includes).hashCode() + facets(this.excludes).hashCode();
+  }
+
+  private static Set<String> facets(Set<String> facets) {
+    return facets == null ? Collections.<String>emptySet() : facets;
+  }
+
 }
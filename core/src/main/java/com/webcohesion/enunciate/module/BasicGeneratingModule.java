@@ -15,14 +15,28 @@
  */
 package com.webcohesion.enunciate.module;
 
+import com.webcohesion.enunciate.EnunciateBuildManifest;
+import com.webcohesion.enunciate.EnunciateContext;
+import com.webcohesion.enunciate.EnunciateProfile;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.SourcePosition;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.jar.Attributes;
@@ -33,13 +47,70 @@ import java.util.jar.Manifest;
  */
 public abstract class BasicGeneratingModule extends BasicEnunicateModule {
 
+  private EnunciateBuildManifest buildManifest;
+  private String inputFingerprint;
+  private String moduleFingerprint;
+  private final Set<File> staleOutputs = new LinkedHashSet<>();
+
+  @Override
+  public void init(EnunciateContext context) {
+    super.init(context);
+    this.buildManifest = null;
+    this.inputFingerprint = null;
+    this.moduleFingerprint = null;
+    this.staleOutputs.clear();
+  }
+
+  /**
+   * The files other than the API sources that the output of this module is generated from, as configured by the user
+   * (e.g. templates, stylesheets or documentation bases). Their content is part of the fingerprint of the environment,
+   * so changing one of them makes the outputs stale.
+   *
+   * @return The input files.
+   */
+  public List<File> getInputFiles() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Whether the specified output (file or directory) is up-to-date with the sources. The output is up-to-date if it was
+   * recorded in the build manifest of this module from the same inputs (API sources, configuration, classpath and module
+   * version) and the files that were recorded for it are still there. Outputs that aren't up-to-date are recorded when
+   * the module is done (see {@link #storeBuildManifest()}).
+   *
+   * @param destFile The output.
+   * @return Whether the output is up-to-date.
+   */
+  public boolean isUpToDateWithSources(File destFile) {
+    if (this.enunciate.getBuildDir() == null) {
+      //no place to keep a build manifest.
+      return isUpToDateWithSourceTimestamps(destFile);
+    }
+
+    if ((destFile == null) || (!destFile.exists())) {
+      debug("%s is NOT up-to-date because it doesn't exist.", destFile);
+      this.staleOutputs.add(destFile);
+      return false;
+    }
+
+    String staleReason = getBuildManifest().findStaleReason(destFile, getInputFingerprint());
+    if (staleReason != null) {
+      debug("%s is NOT up-to-date because %s.", destFile, staleReason);
+      this.staleOutputs.add(destFile);
+      return false;
+    }
+
+    debug("%s is up-to-date because it was generated from the same inputs.", destFile);
+    return true;
+  }
+
   /**
    * Whether all files in the specified directory are newer than all the source files.
    *
    * @param destDir The directory.
    * @return Whether the destination directory is up-to-date.
    */
-  public boolean isUpToDateWithSources(File destDir) {
+  public boolean isUpToDateWithSourceTimestamps(File destDir) {
     Set<Element> apiElements = this.context.getApiElements();
     DecoratedProcessingEnvironment env = this.context.getProcessingEnvironment();
     long newestSourceTimestamp = 0;
@@ -56,6 +127,189 @@ public abstract class BasicGeneratingModule extends BasicEnunicateModule {
     return isUpToDate(newestSourceTimestamp, destDir);
   }
 
+  /**
+   * Whether the files that were generated into the specified output directory for the specified API type in a previous
+   * build are still up-to-date. Only known in incremental mode: the type and the types it's related to haven't changed,
+   * neither have the module and its environment, and the files recorded for the type are still there.
+   *
+   * @param destDir The output directory.
+   * @param type    The API type.
+   * @return Whether the files generated for the type are up-to-date.
+   */
+  protected boolean isUpToDateWithType(File destDir, TypeElement type) {
+    if (this.enunciate.getBuildDir() == null || this.context.isChanged(type)) {
+      return false;
+    }
+
+    String typeName = type.getQualifiedName().toString();
+    if (this.context.getChangedTypeReferences().contains(typeName)) {
+      return false;
+    }
+
+    String staleReason = getBuildManifest().findStaleReason(destDir, typeName, getModuleFingerprint());
+    if (staleReason != null) {
+      debug("Files generated for %s are NOT up-to-date because %s.", typeName, staleReason);
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Records the files that were generated into the specified output directory for the specified API type.
+   *
+   * @param destDir The output directory.
+   * @param type    The API type.
+   * @param files   The generated files.
+   */
+  protected void recordGeneratedFiles(File destDir, TypeElement type, Collection<File> files) {
+    if (this.enunciate.getBuildDir() != null) {
+      getBuildManifest().record(destDir, type.getQualifiedName().toString(), getModuleFingerprint(), files);
+    }
+  }
+
+  /**
+   * The files that were recorded as generated into the specified output directory for the specified API type, e.g. by a
+   * previous build in which the type didn't change.
+   *
+   * @param destDir The output directory.
+   * @param type    The API type.
+   * @return The recorded files.
+   */
+  protected List<File> findGeneratedFiles(File destDir, TypeElement type) {
+    if (this.enunciate.getBuildDir() == null) {
+      return Collections.emptyList();
+    }
+    return getBuildManifest().findRecordedFiles(destDir, type.getQualifiedName().toString());
+  }
+
+  /**
+   * Deletes the files in the specified output directory that weren't generated by this build, such as the files that
+   * a previous build generated for API types that have since been removed, so they don't get compiled or packaged.
+   * Directories left empty are deleted too.
+   *
+   * @param dir            The output directory.
+   * @param generatedFiles The files that were generated (or kept up-to-date) by this build.
+   */
+  protected void deleteStaleFiles(File dir, Collection<File> generatedFiles) {
+    Set<Path> generated = new HashSet<>();
+    for (File file : generatedFiles) {
+      generated.add(file.toPath().toAbsolutePath().normalize());
+    }
+    deleteStaleFiles(dir, generated);
+  }
+
+  private void deleteStaleFiles(File dir, Set<Path> generated) {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          deleteStaleFiles(file, generated);
+          String[] remaining = file.list();
+          if (remaining != null && remaining.length == 0) {
+            file.delete();
+          }
+        }
+        else if (!generated.contains(file.toPath().toAbsolutePath().normalize())) {
+          debug("Deleting %s: it wasn't generated by this build.", file);
+          file.delete();
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the contents of the specified output directory, e.g. before compiling all the sources again, so that nothing
+   * remains of the outputs of a previous build (such as the classes of types that were since removed).
+   *
+   * @param dir The output directory.
+   */
+  protected void clearDirectory(File dir) {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          clearDirectory(file);
+        }
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * Records the outputs that were (re)generated by this module in its build manifest. Invoked by the engine after the
+   * module has been successfully invoked.
+   */
+  public void storeBuildManifest() {
+    if (this.staleOutputs.isEmpty() || this.enunciate.getBuildDir() == null) {
+      return;
+    }
+
+    EnunciateBuildManifest manifest = getBuildManifest();
+    try {
+      for (File output : this.staleOutputs) {
+        if (output != null) {
+          manifest.record(output, getInputFingerprint());
+        }
+      }
+      manifest.store();
+    }
+    catch (IOException e) {
+      warn("Unable to write the build manifest of module %s: %s", getName(), e.getMessage());
+    }
+    this.staleOutputs.clear();
+  }
+
+  /**
+   * Processes the specified template, recording the rendering in the build profile of this module.
+   *
+   * @param template The template.
+   * @param model    The root model.
+   * @param out      Where to write the (unhandled) output of the template.
+   */
+  protected void processTemplate(Template template, Object model, Writer out) throws IOException, TemplateException {
+    CountingWriter counting = new CountingWriter(out);
+    try (EnunciateProfile.Span span = this.enunciate.getProfile().start(getName(), "render")) {
+      template.process(model, counting);
+      span.count("templates", 1).count("unhandledChars", counting.count);
+    }
+  }
+
+  protected EnunciateBuildManifest getBuildManifest() {
+    if (this.buildManifest == null) {
+      this.buildManifest = EnunciateBuildManifest.load(getBuildManifestFile(), this.enunciate.getLogger());
+    }
+    return this.buildManifest;
+  }
+
+  protected File getBuildManifestFile() {
+    return new File(this.enunciate.getBuildDir(), getName() + "-build-manifest.bin");
+  }
+
+  /**
+   * The fingerprint of the inputs of this module.
+   *
+   * @return The fingerprint of the inputs of this module.
+   */
+  protected String getInputFingerprint() {
+    if (this.inputFingerprint == null) {
+      this.inputFingerprint = EnunciateBuildManifest.fingerprintInputs(this.context, getClass());
+    }
+    return this.inputFingerprint;
+  }
+
+  /**
+   * The fingerprint of the inputs of this module other than the API sources.
+   *
+   * @return The fingerprint of the inputs of this module other than the API sources.
+   */
+  protected String getModuleFingerprint() {
+    if (this.moduleFingerprint == null) {
+      this.moduleFingerprint = EnunciateBuildManifest.fingerprintModule(this.context, getClass());
+    }
+    return this.moduleFingerprint;
+  }
+
   public long findSourceTimestamp(DecoratedProcessingEnvironment env, Element apiElement) {
     SourcePosition sp = env.findSourcePosition(apiElement);
     URI uri = sp == null ? null : sp.getPath() == null ? null : sp.getPath().getCompilationUnit() == null ? null : sp.getPath().getCompilationUnit().getSourceFile() == null ? null : sp.getPath().getCompilationUnit().getSourceFile().toUri();
@@ -163,4 +417,31 @@ public abstract class BasicGeneratingModule extends BasicEnunicateModule {
     }
     return mf;
   }
+
+  private static final class CountingWriter extends FilterWriter {
+
+    private long count = 0;
+
+    private CountingWriter(Writer out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      super.write(c);
+      this.count++;
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+      super.write(chars, off, len);
+      this.count += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      super.write(str, off, len);
+      this.count += len;
+    }
+  }
 }
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.module;
+
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A class found on the scanpath, with its class-level annotations decoded once and shared by all the
+ * {@link TypeDetectingModule}s. The name and the annotations are fixed when the instance is created. The class file of a
+ * type loaded from the scan index is built lazily, and threads that race for it may each build an equivalent one. Instances
+ * can therefore be shared between scanning threads.
+ *
+ * @author Ryan Heaton
+ */
+public final class ScannedType {
+
+  private final String relativePath;
+  private final String name;
+  private final Set<String> annotationNames;
+  private volatile ClassFile classFile;
+
+  public ScannedType(String relativePath, String name, Set<String> annotationNames) {
+    this(relativePath, name, annotationNames, null);
+  }
+
+  private ScannedType(String relativePath, String name, Set<String> annotationNames, ClassFile classFile) {
+    this.relativePath = relativePath;
+    this.name = name;
+    this.annotationNames = Collections.unmodifiableSet(annotationNames);
+    this.classFile = classFile;
+  }
+
+  /**
+   * Creates a view of the specified class file.
+   *
+   * @param relativePath The path of the class file relative to the root of the scanpath entry.
+   * @param classFile    The class file.
+   * @return The view.
+   */
+  public static ScannedType of(String relativePath, ClassFile classFile) {
+    Set<String> annotationNames = new LinkedHashSet<>();
+    for (Object attribute : classFile.getAttributes()) {
+      if (attribute instanceof AnnotationsAttribute) {
+        for (Annotation annotation : ((AnnotationsAttribute) attribute).getAnnotations()) {
+          annotationNames.add(annotation.getTypeName());
+        }
+      }
+    }
+    return new ScannedType(relativePath, classFile.getName(), annotationNames, classFile);
+  }
+
+  /**
+   * @return The path of the class file relative to the root of the scanpath entry.
+   */
+  public String getRelativePath() {
+    return relativePath;
+  }
+
+  /**
+   * @return The fully-qualified (binary) name of the class.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The names of the class-level annotations, both runtime-visible and runtime-invisible.
+   */
+  public Set<String> getAnnotationNames() {
+    return annotationNames;
+  }
+
+  public boolean isAnnotatedWith(String annotationName) {
+    return this.annotationNames.contains(annotationName);
+  }
+
+  /**
+   * The class file. If this type was loaded from the scan index, the class file is rebuilt from what was recorded and
+   * carries only the name and the class-level annotations.
+   *
+   * @return The class file.
+   */
+  public ClassFile getClassFile() {
+    ClassFile classFile = this.classFile;
+    if (classFile == null) {
+      classFile = new ClassFile(false, this.name, null);
+      if (!this.annotationNames.isEmpty()) {
+        ConstPool constPool = classFile.getConstPool();
+        AnnotationsAttribute annotations = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+        for (String annotation : this.annotationNames) {
+          annotations.addAnnotation(new Annotation(annotation, constPool));
+        }
+        classFile.addAttribute(annotations);
+      }
+      this.classFile = classFile;
+    }
+    return classFile;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
@@ -15,14 +15,23 @@
  */
 package com.webcohesion.enunciate.module;
 
-import javassist.bytecode.AnnotationsAttribute;
 import javassist.bytecode.ClassFile;
-import javassist.bytecode.annotation.Annotation;
 import org.reflections.vfs.Vfs;
 
 import java.util.stream.Stream;
 
 /**
+ * A module that detects API types while the classpath is scanned.<br/>
+ * <br/>
+ * Thread-safety: the jars and directories of the scanpath are scanned concurrently, so the detection callbacks may be
+ * invoked for different classes from several threads at once. Implementations must be thread-safe, and any state they
+ * derive from the callbacks must not depend on the order in which classes are visited (e.g. flags that are only ever
+ * raised, kept in volatile fields).<br/>
+ * <br/>
+ * Scan results are kept in a scan index between builds. For jars and directories that haven't changed, the
+ * {@link ScannedType} passed to the callbacks is loaded from the index, and its class file only carries the class name and
+ * the class-level annotations.
+ *
  * @author Ryan Heaton
  */
 public interface TypeDetectingModule extends EnunciateModule {
@@ -31,12 +40,30 @@ public interface TypeDetectingModule extends EnunciateModule {
 
   boolean typeDetected(ClassFile classFile);
 
+  /**
+   * Whether the specified type is internal to a library this module supports (and therefore not an API type).
+   *
+   * @param type The scanned type.
+   * @return Whether the type is internal.
+   */
+  default boolean internal(ScannedType type) {
+    return internal(type.getClassFile());
+  }
+
+  /**
+   * Whether the specified type is detected as an API type by this module.
+   *
+   * @param type The scanned type.
+   * @return Whether the type is detected.
+   */
+  default boolean typeDetected(ScannedType type) {
+    return typeDetected(type.getClassFile());
+  }
+
   default void file(Vfs.File file) {}
-  
+
   default Stream<String> annotationNames(ClassFile classFile) {
-    return classFile.getAttributes().stream().filter(ai -> ai instanceof AnnotationsAttribute)
-       .flatMap(ai -> Stream.of(((AnnotationsAttribute) ai).getAnnotations()))
-       .map(Annotation::getTypeName);
+    return ScannedType.of(null, classFile).getAnnotationNames().stream();
   }
 
 }
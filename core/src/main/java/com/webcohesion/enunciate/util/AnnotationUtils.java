@@ -15,6 +15,7 @@
  */
 package com.webcohesion.enunciate.util;
 
+import com.webcohesion.enunciate.javac.decorations.AnnotationIndex;
 import com.webcohesion.enunciate.javac.decorations.adaptors.ElementAdaptor;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
 import com.webcohesion.enunciate.javac.javadoc.JavaDoc;
@@ -52,6 +53,11 @@ public class AnnotationUtils {
       return Collections.emptyList();
     }
 
+    AnnotationIndex index = el instanceof DecoratedElement ? ((DecoratedElement<?>) el).getAnnotationIndex() : null;
+    if (index != null) {
+      return index.getAnnotations(clazz, includeMetaAnnotations);
+    }
+
     ArrayList<A> allAnnotations = new ArrayList<A>();
     A annotation = includeMetaAnnotations ? getMetaAnnotation(clazz, el) : el.getAnnotation(clazz);
     if (annotation != null) {
@@ -73,11 +79,10 @@ public class AnnotationUtils {
 
   @Nullable
   public static <A extends Annotation> A getMetaAnnotation(Class<A> type, Element el) {
-    return getMetaAnnotation(type, el, 0);
+    AnnotationIndex index = el instanceof DecoratedElement ? ((DecoratedElement<?>) el).getAnnotationIndex() : null;
+    return index != null ? index.getMetaAnnotation(type) : getMetaAnnotation(type, el, 0);
   }
 
-  private static final int MAX_DEPTH = 2;
-
   @Nullable
   private static <A extends Annotation> A getMetaAnnotation(Class<A> type, Element el, int depth) {
     A result = el.getAnnotation(type);
@@ -92,7 +97,7 @@ public class AnnotationUtils {
         if (result != null) {
           return result;
         }
-        if (depth < MAX_DEPTH) {
+        if (depth < AnnotationIndex.MAX_META_DEPTH) {
           result = getMetaAnnotation(type, annotationElement, depth + 1);
           if (result != null) {
             return result;
@@ -28,6 +28,10 @@ public final class AntPatternInclude implements Predicate<String> {
     this.pattern = pattern;
   }
 
+  public String getPattern() {
+    return pattern;
+  }
+
   @Override
   public boolean test(String input) {
     return AntPatternMatcher.INSTANCE.match(this.pattern, input);
@@ -0,0 +1,383 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A set of Ant-style patterns (with '.' as the path separator, see {@link AntPatternMatcher}), each associated with a value.
+ * The patterns are compiled once into a trie over their segments, and the names that aren't patterns are kept in a hash
+ * table, so a path is tested against all the patterns of the set in a single pass over its segments, without allocating.
+ *
+ * @author Ryan Heaton
+ */
+public final class AntPatternSet<V> implements Predicate<String> {
+
+  private static final char SEPARATOR = '.';
+
+  private final Map<String, List<V>> names = new HashMap<>();
+  private final Node<V> root = new Node<>();
+  private final List<Map.Entry<String, V>> patterns = new ArrayList<>();
+  //patterns with empty segments aren't compiled, but matched with the ant pattern matcher.
+  private final List<Map.Entry<String, V>> irregularPatterns = new ArrayList<>();
+
+  /**
+   * Compiles the specified patterns (or names) into a pattern set, each pattern associated with itself.
+   *
+   * @param patterns The patterns.
+   * @return The pattern set.
+   */
+  public static AntPatternSet<String> of(Collection<String> patterns) {
+    AntPatternSet<String> set = new AntPatternSet<>();
+    if (patterns != null) {
+      for (String pattern : patterns) {
+        set.add(pattern, pattern);
+      }
+    }
+    return set;
+  }
+
+  /**
+   * Adds a pattern (or a name) to this set.
+   *
+   * @param pattern The pattern.
+   * @param value   The value associated with the pattern.
+   * @return this.
+   */
+  public AntPatternSet<V> add(String pattern, V value) {
+    if (!AntPatternMatcher.isValidPattern(pattern)) {
+      this.names.computeIfAbsent(pattern, k -> new ArrayList<>(1)).add(value);
+    }
+    else {
+      this.patterns.add(new AbstractMap.SimpleImmutableEntry<>(pattern, value));
+      if (isRegular(pattern)) {
+        Node<V> node = this.root;
+        int start = 0;
+        while (start <= pattern.length()) {
+          int end = segmentEnd(pattern, start);
+          node = node.child(pattern.substring(start, end));
+          start = end + 1;
+        }
+        node.values.add(value);
+      }
+      else {
+        this.irregularPatterns.add(new AbstractMap.SimpleImmutableEntry<>(pattern, value));
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Whether this set is empty.
+   *
+   * @return Whether this set is empty.
+   */
+  public boolean isEmpty() {
+    return this.names.isEmpty() && this.patterns.isEmpty();
+  }
+
+  /**
+   * Whether the specified path matches any of the patterns of this set.
+   *
+   * @param path The path.
+   * @return Whether the path matches any of the patterns of this set.
+   */
+  @Override
+  public boolean test(String path) {
+    return match(path, null);
+  }
+
+  /**
+   * Collects the values of the patterns the specified path matches. A value may be collected more than once.
+   *
+   * @param path    The path.
+   * @param matches The collection to add the values to.
+   * @return Whether the path matches any of the patterns of this set.
+   */
+  public boolean collectMatches(String path, Collection<? super V> matches) {
+    return match(path, matches);
+  }
+
+  private boolean match(String path, Collection<? super V> matches) {
+    if (path == null) {
+      return false;
+    }
+
+    boolean matched = false;
+    List<V> named = this.names.get(path);
+    if (named != null) {
+      if (matches == null) {
+        return true;
+      }
+      matches.addAll(named);
+      matched = true;
+    }
+
+    if (this.patterns.isEmpty()) {
+      return matched;
+    }
+
+    List<Map.Entry<String, V>> uncompiled = this.irregularPatterns;
+    if (isRegular(path)) {
+      if (this.root.match(path, 0, matches)) {
+        if (matches == null) {
+          return true;
+        }
+        matched = true;
+      }
+    }
+    else {
+      uncompiled = this.patterns;
+    }
+
+    for (int i = 0; i < uncompiled.size(); i++) {
+      Map.Entry<String, V> pattern = uncompiled.get(i);
+      if (AntPatternMatcher.INSTANCE.match(pattern.getKey(), path)) {
+        if (matches == null) {
+          return true;
+        }
+        matches.add(pattern.getValue());
+        matched = true;
+      }
+    }
+
+    return matched;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (String name : this.names.keySet()) {
+      builder.append(builder.length() == 0 ? "" : " ").append('+').append(name);
+    }
+    for (Map.Entry<String, V> pattern : this.patterns) {
+      builder.append(builder.length() == 0 ? "" : " ").append('+').append(pattern.getKey());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Whether the specified path (or pattern) has no empty segments.
+   */
+  private static boolean isRegular(String path) {
+    return !path.isEmpty()
+      && path.charAt(0) != SEPARATOR
+      && path.charAt(path.length() - 1) != SEPARATOR
+      && path.indexOf("..") < 0;
+  }
+
+  private static int segmentEnd(String path, int start) {
+    int end = path.indexOf(SEPARATOR, start);
+    return end < 0 ? path.length() : end;
+  }
+
+  /**
+   * Whether the segment of the path between the specified indexes matches the specified segment pattern, in which '*'
+   * means zero or more characters and '?' means exactly one character.
+   */
+  static boolean matchSegment(String pattern, String path, int start, int end) {
+    int p = 0;
+    int s = start;
+    int star = -1;
+    int mark = start;
+    while (s < end) {
+      char ch = p < pattern.length() ? pattern.charAt(p) : 0;
+      if (ch == '*') {
+        star = p++;
+        mark = s;
+      }
+      else if (p < pattern.length() && (ch == '?' || ch == path.charAt(s))) {
+        p++;
+        s++;
+      }
+      else if (star >= 0) {
+        //backtrack: let the last star consume one more character.
+        p = star + 1;
+        s = ++mark;
+      }
+      else {
+        return false;
+      }
+    }
+
+    while (p < pattern.length() && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == pattern.length();
+  }
+
+  /**
+   * A node of the pattern trie: the patterns that share the same leading segments.
+   */
+  private static final class Node<V> {
+
+    //literal segments, in an open-addressing hash table so that they can be looked up by a region of the path.
+    private String[] literals = new String[0];
+    private Node<V>[] literalNodes = newNodes(0);
+    private int literalCount = 0;
+    private final List<String> wildcards = new ArrayList<>();
+    private final List<Node<V>> wildcardNodes = new ArrayList<>();
+    private Node<V> anySegments;
+    private final List<V> values = new ArrayList<>(1);
+
+    Node<V> child(String segment) {
+      if ("**".equals(segment)) {
+        if (this.anySegments == null) {
+          this.anySegments = new Node<>();
+        }
+        return this.anySegments;
+      }
+
+      if (AntPatternMatcher.isValidPattern(segment)) {
+        int index = this.wildcards.indexOf(segment);
+        if (index < 0) {
+          this.wildcards.add(segment);
+          this.wildcardNodes.add(new Node<>());
+          index = this.wildcards.size() - 1;
+        }
+        return this.wildcardNodes.get(index);
+      }
+
+      Node<V> node = findLiteral(segment, 0, segment.length());
+      if (node == null) {
+        if ((this.literalCount + 1) * 2 > this.literals.length) {
+          rehash(Math.max(4, this.literals.length * 2));
+        }
+        node = new Node<>();
+        putLiteral(segment, node);
+      }
+      return node;
+    }
+
+    /**
+     * Matches the path from the specified index (the start of the next segment, or past the end of the path if all the
+     * segments have been matched) against the patterns of this node.
+     */
+    boolean match(String path, int start, Collection<? super V> matches) {
+      boolean matched = false;
+      if (start > path.length()) {
+        if (!this.values.isEmpty()) {
+          if (matches == null) {
+            return true;
+          }
+          matches.addAll(this.values);
+          matched = true;
+        }
+        //'**' matches zero segments.
+        return (this.anySegments != null && this.anySegments.match(path, start, matches)) || matched;
+      }
+
+      int end = segmentEnd(path, start);
+      Node<V> literal = findLiteral(path, start, end);
+      if (literal != null && literal.match(path, end + 1, matches)) {
+        if (matches == null) {
+          return true;
+        }
+        matched = true;
+      }
+
+      for (int i = 0; i < this.wildcards.size(); i++) {
+        if (matchSegment(this.wildcards.get(i), path, start, end) && this.wildcardNodes.get(i).match(path, end + 1, matches)) {
+          if (matches == null) {
+            return true;
+          }
+          matched = true;
+        }
+      }
+
+      if (this.anySegments != null) {
+        //'**' matches zero or more segments.
+        int next = start;
+        while (true) {
+          if (this.anySegments.match(path, next, matches)) {
+            if (matches == null) {
+              return true;
+            }
+            matched = true;
+          }
+
+          if (next > path.length()) {
+            break;
+          }
+          next = segmentEnd(path, next) + 1;
+        }
+      }
+
+      return matched;
+    }
+
+    private Node<V> findLiteral(String path, int start, int end) {
+      if (this.literalCount == 0) {
+        return null;
+      }
+
+      int length = end - start;
+      int mask = this.literals.length - 1;
+      for (int i = spread(hash(path, start, end)) & mask; this.literals[i] != null; i = (i + 1) & mask) {
+        String literal = this.literals[i];
+        if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+          return this.literalNodes[i];
+        }
+      }
+      return null;
+    }
+
+    private void putLiteral(String segment, Node<V> node) {
+      int mask = this.literals.length - 1;
+      int i = spread(segment.hashCode()) & mask;
+      while (this.literals[i] != null) {
+        i = (i + 1) & mask;
+      }
+      this.literals[i] = segment;
+      this.literalNodes[i] = node;
+      this.literalCount++;
+    }
+
+    private void rehash(int capacity) {
+      String[] literals = this.literals;
+      Node<V>[] literalNodes = this.literalNodes;
+      this.literals = new String[capacity];
+      this.literalNodes = newNodes(capacity);
+      this.literalCount = 0;
+      for (int i = 0; i < literals.length; i++) {
+        if (literals[i] != null) {
+          putLiteral(literals[i], literalNodes[i]);
+        }
+      }
+    }
+
+    /**
+     * The same hash as {@link String#hashCode()}, for a region of a string.
+     */
+    private static int hash(String path, int start, int end) {
+      int hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + path.charAt(i);
+      }
+      return hash;
+    }
+
+    private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newNodes(int capacity) {
+      return (Node<V>[]) new Node[capacity];
+    }
+  }
+}
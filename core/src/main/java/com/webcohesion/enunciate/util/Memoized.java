@@ -7,7 +7,8 @@ import java.util.function.Supplier;
 
 public class Memoized<R> implements Supplier<R> {
 
-  private final Supplier<R> supplier;
+  private Supplier<R> supplier;
+  private volatile boolean computed;
   private R value;
 
   public Memoized(Supplier<R> supplier) {
@@ -16,8 +17,15 @@ public class Memoized<R> implements Supplier<R> {
 
   @Override
   public R get() {
-    if (this.value == null) {
-      this.value = this.supplier.get();
+    if (!this.computed) {
+      synchronized (this) {
+        if (!this.computed) {
+          this.value = this.supplier.get();
+          //the value is published by the volatile write; the supplier isn't needed anymore.
+          this.supplier = null;
+          this.computed = true;
+        }
+      }
     }
     return this.value;
   }
@@ -28,6 +28,10 @@ public final class StringEqualsInclude implements Predicate<String> {
     this.string = string;
   }
 
+  public String getString() {
+    return string;
+  }
+
   @Override
   public boolean test(String input) {
     return input.equals(this.string);
@@ -22,16 +22,25 @@ import freemarker.template.utility.DeepUnwrap;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 /**
+ * Directive that writes its body to a file. A file whose content wouldn't change isn't rewritten, so it keeps its
+ * timestamp.
+ *
  * @author Ryan Heaton
  */
 public class FileDirective implements TemplateDirectiveModel {
 
   private final File outputDir;
   private final EnunciateLogger logger;
+  private final List<File> generatedFiles = new ArrayList<>();
 
   public FileDirective(File outputDir, EnunciateLogger logger) {
     this.outputDir = outputDir;
@@ -73,9 +82,32 @@ public class FileDirective implements TemplateDirectiveModel {
       output.getParentFile().mkdirs();
     }
 
-    PrintWriter writer = new PrintWriter(output, charset);
-    this.logger.debug("Writing %s...", output);
+    StringWriter writer = new StringWriter();
     body.render(writer);
-    writer.close();
+    byte[] content = writer.toString().getBytes(Charset.forName(charset));
+    if (output.isFile() && output.length() == content.length && Arrays.equals(Files.readAllBytes(output.toPath()), content)) {
+      this.logger.debug("%s is unchanged.", output);
+    }
+    else {
+      this.logger.debug("Writing %s...", output);
+      Files.write(output.toPath(), content);
+    }
+
+    synchronized (this.generatedFiles) {
+      this.generatedFiles.add(output);
+    }
+  }
+
+  /**
+   * The files that were generated (written or found unchanged) since the last time this method was invoked.
+   *
+   * @return The generated files.
+   */
+  public List<File> takeGeneratedFiles() {
+    synchronized (this.generatedFiles) {
+      List<File> files = new ArrayList<>(this.generatedFiles);
+      this.generatedFiles.clear();
+      return files;
+    }
   }
 }
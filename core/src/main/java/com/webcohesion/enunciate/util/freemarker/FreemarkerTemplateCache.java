@@ -0,0 +1,206 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util.freemarker;
+
+import com.webcohesion.enunciate.EnunciateLogger;
+import freemarker.cache.CacheStorageWithGetSize;
+import freemarker.cache.MruCacheStorage;
+import freemarker.cache.URLTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.Template;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the FreeMarker configurations used by the generating modules. Each module (and therefore each object wrapper)
+ * gets one configuration that is created the first time it's asked for and shared from then on, so the compiled
+ * templates are kept in the configuration's (bounded) template cache instead of being re-read and re-parsed for each
+ * template invocation. Configurations are never changed after they're created, so they can be used from several threads.
+ * The configuration is associated with the module class itself (see {@link ClassValue}), so it doesn't keep the class
+ * loader of the module from being collected.
+ *
+ * @author Ryan Heaton
+ */
+public class FreemarkerTemplateCache {
+
+  /**
+   * The number of compiled templates each configuration keeps strongly referenced.
+   */
+  static final int MAX_STRONG_TEMPLATES = 64;
+
+  /**
+   * The number of compiled templates each configuration keeps softly referenced.
+   */
+  static final int MAX_SOFT_TEMPLATES = 256;
+
+  private static final FreemarkerTemplateCache INSTANCE = new FreemarkerTemplateCache();
+
+  private final ClassValue<ConfigurationHolder> configurations = new ClassValue<ConfigurationHolder>() {
+    @Override
+    protected ConfigurationHolder computeValue(Class<?> type) {
+      return new ConfigurationHolder();
+    }
+  };
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public static FreemarkerTemplateCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the configuration for the specified module.
+   *
+   * @param module        The class of the module.
+   * @param objectWrapper Supplies the object wrapper for the module; only invoked when the configuration is created.
+   * @return The configuration.
+   */
+  public Configuration getConfiguration(Class<?> module, Supplier<? extends ObjectWrapper> objectWrapper) {
+    return this.configurations.get(module).get(this.generation.get(), objectWrapper);
+  }
+
+  /**
+   * Get the (compiled) template at the specified URL for the specified module.
+   *
+   * @param module        The class of the module.
+   * @param objectWrapper Supplies the object wrapper for the module; only invoked when the configuration is created.
+   * @param templateURL   The URL of the template.
+   * @param logger        The logger.
+   * @return The template.
+   */
+  public Template getTemplate(Class<?> module, Supplier<? extends ObjectWrapper> objectWrapper, URL templateURL, EnunciateLogger logger) throws IOException {
+    long missesBefore = this.misses.get();
+    Template template = getConfiguration(module, objectWrapper).getTemplate(templateURL.toString());
+    if (this.misses.get() != missesBefore) {
+      logger.debug("Compiled template %s (template cache hits: %s, misses: %s).", templateURL, this.hits.get(), this.misses.get());
+    }
+    return template;
+  }
+
+  /**
+   * @return The number of template lookups that were served from the template cache.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return The number of template lookups that had to read and compile the template.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Clears the cached configurations and their templates.
+   */
+  public void clear() {
+    this.generation.incrementAndGet();
+  }
+
+  protected Configuration createConfiguration(ObjectWrapper objectWrapper) {
+    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
+    configuration.setLocale(new Locale("en", "US"));
+
+    configuration.setTemplateLoader(new URLTemplateLoader() {
+      protected URL getURL(String name) {
+        try {
+          return new URL(name);
+        }
+        catch (MalformedURLException e) {
+          return null;
+        }
+      }
+    });
+
+    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
+      throw templateException;
+    });
+
+    configuration.setLocalizedLookup(false);
+    configuration.setDefaultEncoding("UTF-8");
+    configuration.setURLEscapingCharset("UTF-8");
+    configuration.setCacheStorage(new CountingCacheStorage(new MruCacheStorage(MAX_STRONG_TEMPLATES, MAX_SOFT_TEMPLATES)));
+    if (objectWrapper != null) {
+      configuration.setObjectWrapper(objectWrapper);
+    }
+    return configuration;
+  }
+
+  /**
+   * The configuration of a module, created for the current generation of the cache.
+   */
+  private class ConfigurationHolder {
+
+    private Configuration configuration;
+    private long generation;
+
+    private synchronized Configuration get(long generation, Supplier<? extends ObjectWrapper> objectWrapper) {
+      if (this.configuration == null || this.generation != generation) {
+        this.configuration = createConfiguration(objectWrapper == null ? null : objectWrapper.get());
+        this.generation = generation;
+      }
+      return this.configuration;
+    }
+  }
+
+  /**
+   * Cache storage that counts the hits and misses of the template cache. FreeMarker synchronizes the access to cache
+   * storage that isn't concurrent, so the delegate doesn't need to be thread-safe.
+   */
+  private class CountingCacheStorage implements CacheStorageWithGetSize {
+
+    private final MruCacheStorage delegate;
+
+    private CountingCacheStorage(MruCacheStorage delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object get(Object key) {
+      Object value = this.delegate.get(key);
+      (value == null ? misses : hits).incrementAndGet();
+      return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+      this.delegate.put(key, value);
+    }
+
+    @Override
+    public void remove(Object key) {
+      this.delegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+      this.delegate.clear();
+    }
+
+    @Override
+    public int getSize() {
+      return this.delegate.getSize();
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateArchiverTest {
+
+  @Test
+  public void testArchivesAreReproducible() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-archive").toFile();
+    try {
+      archivesAreReproducible(dir);
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  private void archivesAreReproducible(File dir) throws Exception {
+    File src = new File(dir, "src");
+    new File(src, "pkg/sub").mkdirs();
+    Files.writeString(new File(src, "pkg/B.java").toPath(), "class B {}\n".repeat(100));
+    Files.writeString(new File(src, "pkg/sub/A.java").toPath(), "class A {}");
+    Files.write(new File(src, "lib.jar").toPath(), new byte[]{1, 2, 3});
+    Files.write(new File(src, "empty.txt").toPath(), new byte[0]);
+
+    Manifest mf = new Manifest();
+    mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    EnunciateArchiver archiver = new EnunciateArchiver(new EnunciateConsoleLogger());
+    File first = new File(dir, "first.jar");
+    assertTrue(archiver.write(first, mf, EnunciateArchiver.listEntries(src)));
+
+    try (JarFile jar = new JarFile(first)) {
+      List<String> names = new ArrayList<>();
+      Collections.list(jar.entries()).forEach(entry -> names.add(entry.getName()));
+      assertEquals(List.of(JarFile.MANIFEST_NAME, "empty.txt", "lib.jar", "pkg/B.java", "pkg/sub/A.java"), names);
+      assertEquals("1.0", jar.getManifest().getMainAttributes().get(Attributes.Name.MANIFEST_VERSION));
+      assertEquals(ZipEntry.DEFLATED, jar.getEntry("pkg/B.java").getMethod());
+      assertEquals(ZipEntry.STORED, jar.getEntry("lib.jar").getMethod());
+      assertEquals("class B {}\n".repeat(100), new String(jar.getInputStream(jar.getEntry("pkg/B.java")).readAllBytes()));
+      assertEquals(0, jar.getInputStream(jar.getEntry("empty.txt")).readAllBytes().length);
+    }
+
+    //touching the files doesn't change the archive.
+    for (String path : List.of("pkg/B.java", "pkg/sub/A.java", "lib.jar")) {
+      assertTrue(new File(src, path).setLastModified(System.currentTimeMillis() - 60000));
+    }
+    File second = new File(dir, "second.jar");
+    archiver.write(second, mf, EnunciateArchiver.listEntries(src));
+    assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+  }
+
+  @Test
+  public void testEmptyArchive() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-archive").toFile();
+    try {
+      File zip = new File(dir, "empty.zip");
+      assertFalse(new EnunciateArchiver(new EnunciateConsoleLogger()).write(zip, null, EnunciateArchiver.listEntries(new File(dir, "none"))));
+      try (ZipFile zipFile = new ZipFile(zip)) {
+        assertEquals(1, zipFile.size());
+        assertNotNull(zipFile.getEntry("README.txt"));
+      }
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testStreamedEntries() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-archive").toFile();
+    try {
+      //files too big to be read ahead are streamed into the archive.
+      File src = new File(dir, "src");
+      assertTrue(src.mkdirs());
+      byte[] big = new byte[(int) EnunciateArchiver.MAX_BUFFERED_SIZE + 1];
+      for (int i = 0; i < big.length; i++) {
+        big[i] = (byte) (i % 7);
+      }
+      Files.write(new File(src, "big.txt").toPath(), big);
+      Files.write(new File(src, "big.zip").toPath(), big);
+      Files.writeString(new File(src, "small.txt").toPath(), "small");
+
+      EnunciateArchiver archiver = new EnunciateArchiver(new EnunciateConsoleLogger());
+      File first = new File(dir, "first.zip");
+      assertTrue(archiver.write(first, null, EnunciateArchiver.listEntries(src)));
+      try (ZipFile zip = new ZipFile(first)) {
+        assertEquals(3, zip.size());
+        assertEquals(ZipEntry.DEFLATED, zip.getEntry("big.txt").getMethod());
+        assertTrue(zip.getEntry("big.txt").getCompressedSize() < big.length);
+        assertEquals(ZipEntry.STORED, zip.getEntry("big.zip").getMethod());
+        assertArrayEquals(big, zip.getInputStream(zip.getEntry("big.txt")).readAllBytes());
+        assertArrayEquals(big, zip.getInputStream(zip.getEntry("big.zip")).readAllBytes());
+        assertEquals("small", new String(zip.getInputStream(zip.getEntry("small.txt")).readAllBytes()));
+      }
+
+      File second = new File(dir, "second.zip");
+      archiver.write(second, null, EnunciateArchiver.listEntries(src));
+      assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+}
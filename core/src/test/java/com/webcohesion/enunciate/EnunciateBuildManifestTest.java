@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateBuildManifestTest {
+
+  @Test
+  public void testFindStaleReason() throws Exception {
+    File buildDir = Files.createTempDirectory("enunciate-manifest").toFile();
+    File manifestFile = new File(buildDir, "test-build-manifest.bin");
+    File outputDir = new File(buildDir, "src");
+    File output = new File(new File(outputDir, "pkg"), "Type.java");
+    output.getParentFile().mkdirs();
+    Files.writeString(output.toPath(), "class Type {}");
+
+    EnunciateBuildManifest manifest = EnunciateBuildManifest.load(manifestFile, new EnunciateConsoleLogger());
+    assertNotNull(manifest.findStaleReason(outputDir, "inputs"));
+    manifest.record(outputDir, "inputs");
+    manifest.store();
+    manifest.store();
+
+    //replaced in place, without leaving temporary files behind.
+    assertEquals(new TreeSet<>(Arrays.asList("src", "test-build-manifest.bin")), new TreeSet<>(Arrays.asList(buildDir.list())));
+
+    manifest = EnunciateBuildManifest.load(manifestFile, new EnunciateConsoleLogger());
+    assertNull(manifest.findStaleReason(outputDir, "inputs"));
+    assertNotNull(manifest.findStaleReason(outputDir, "other-inputs"));
+
+    //touching an output doesn't make it stale.
+    assertTrue(output.setLastModified(output.lastModified() - 60000));
+    assertNull(manifest.findStaleReason(outputDir, "inputs"));
+
+    Files.writeString(output.toPath(), "class Type { int changed; }");
+    assertNotNull(manifest.findStaleReason(outputDir, "inputs"));
+
+    assertTrue(output.delete());
+    assertNotNull(manifest.findStaleReason(outputDir, "inputs"));
+  }
+
+  @Test
+  public void testFingerprintFiles() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-inputs").toFile();
+    File template = new File(dir, "docs.fmt");
+    Files.writeString(template.toPath(), "<#-- v1 -->");
+    File css = new File(dir, "style.css");
+
+    String fingerprint = EnunciateBuildManifest.fingerprintFiles(Arrays.asList(template, css));
+    assertEquals(fingerprint, EnunciateBuildManifest.fingerprintFiles(Arrays.asList(template, css)));
+    assertNotEquals(fingerprint, EnunciateBuildManifest.fingerprintFiles(Collections.singletonList(template)));
+
+    //same size and timestamp, different content.
+    long lastModified = template.lastModified();
+    Files.writeString(template.toPath(), "<#-- v2 -->");
+    assertTrue(template.setLastModified(lastModified));
+    String changed = EnunciateBuildManifest.fingerprintFiles(Arrays.asList(template, css));
+    assertNotEquals(fingerprint, changed);
+
+    Files.writeString(css.toPath(), "body {}");
+    assertNotEquals(changed, EnunciateBuildManifest.fingerprintFiles(Arrays.asList(template, css)));
+  }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateClientCompilerTest {
+
+  @Test
+  public void testCompileTwiceWithTheSameFileManager() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-compiler").toFile();
+    File sourceDir1 = new File(dir, "src1/pkg");
+    assertTrue(sourceDir1.mkdirs());
+    File a = new File(sourceDir1, "A.java");
+    Files.writeString(a.toPath(), "package pkg; public class A { public String name() { return \"a\"; } }");
+    File sourceDir2 = new File(dir, "src2/pkg");
+    assertTrue(sourceDir2.mkdirs());
+    File b = new File(sourceDir2, "B.java");
+    Files.writeString(b.toPath(), "package pkg; public class B { public String name() { return new A().name(); } }");
+
+    File classes1 = new File(dir, "classes1");
+    File classes2 = new File(dir, "classes2");
+    List<String> options = List.of("-encoding", "UTF-8", "-nowarn");
+    try (EnunciateClientCompiler compiler = new EnunciateClientCompiler(new EnunciateConsoleLogger())) {
+      assertTrue(compiler.compile(Collections.emptyList(), classes1, options, List.of(a)));
+      assertTrue(new File(classes1, "pkg/A.class").exists());
+
+      //the second compilation sees the classpath and output directory it's given, not the ones of the first.
+      assertTrue(compiler.compile(List.of(classes1), classes2, options, List.of(b)));
+      assertTrue(new File(classes2, "pkg/B.class").exists());
+      assertFalse(new File(classes2, "pkg/A.class").exists());
+
+      //without the classes of the first compilation on the classpath, B doesn't compile.
+      assertFalse(compiler.compile(Collections.emptyList(), new File(dir, "classes3"), options, List.of(b)));
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateContextTest {
+
+  @Test
+  public void testConfiguredFacets() {
+    EnunciateContext context = new EnunciateContext(null, null, null, null, null, null, null) {
+      @Override
+      protected HashMap<String, List<Predicate<String>>> buildFacetFilter(Map<String, String> facetPatterns) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("com.example.**", "example");
+        patterns.put("com.example.Admin", "admin");
+        HashMap<String, List<Predicate<String>>> filter = super.buildFacetFilter(patterns);
+        filter.computeIfAbsent("internal", k -> new ArrayList<>()).add(fqn -> fqn.endsWith("Impl"));
+        return filter;
+      }
+    };
+
+    assertEquals(new TreeSet<>(Arrays.asList("admin", "example")), context.getConfiguredFacets("com.example.Admin"));
+    assertEquals(new TreeSet<>(Arrays.asList("example", "internal")), context.getConfiguredFacets("com.example.UserImpl"));
+    assertEquals(Collections.singleton("internal"), context.getConfiguredFacets("org.other.ServiceImpl"));
+    assertEquals(Collections.emptySet(), context.getConfiguredFacets("org.other.Service"));
+  }
+
+}
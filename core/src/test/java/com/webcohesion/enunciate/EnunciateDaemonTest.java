@@ -0,0 +1,221 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateDaemonTest {
+
+  @Test
+  public void testBuildOnRequest() throws Exception {
+    AtomicInteger engines = new AtomicInteger();
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      engines.incrementAndGet();
+      return new Enunciate();
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertTrue(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(out, true)));
+      assertTrue(out.toString().contains(EnunciateDaemon.SUCCESS));
+      assertTrue(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(out, true)));
+      assertEquals(2, engines.get());
+      assertTrue(EnunciateDaemon.send(port, tokenFile, "ping", new PrintStream(out, true)));
+      assertFalse(EnunciateDaemon.send(port, tokenFile, "dance", new PrintStream(out, true)));
+    }
+  }
+
+  @Test
+  public void testStatusLine() throws Exception {
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> new Enunciate() {
+      @Override
+      public void run() {
+        getLogger().info("%s\n%s", "the last BUILD SUCCESS was yesterday", EnunciateDaemon.SUCCESS);
+        throw new EnunciateException("broken");
+      }
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertFalse(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(out, true)));
+      assertTrue(out.toString().contains("[INFO] " + EnunciateDaemon.SUCCESS));
+    }
+  }
+
+  @Test
+  public void testErrorStopsTheDaemon() throws Exception {
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      throw new Error("fatal");
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertFalse(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(out, true)));
+      assertFalse(daemon.isRunning());
+    }
+  }
+
+  @Test
+  public void testInvalidToken() throws Exception {
+    AtomicInteger engines = new AtomicInteger();
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      engines.incrementAndGet();
+      return new Enunciate();
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+      if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile.toPath())));
+      }
+
+      File wrongTokenFile = newTokenFile();
+      Files.writeString(wrongTokenFile.toPath(), "wrong");
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertFalse(EnunciateDaemon.send(port, wrongTokenFile, "ping", new PrintStream(out, true)));
+      assertFalse(EnunciateDaemon.send(port, wrongTokenFile, "build", new PrintStream(out, true)));
+      assertFalse(EnunciateDaemon.send(port, wrongTokenFile, "stop", new PrintStream(out, true)));
+      assertEquals(0, engines.get());
+      assertTrue(daemon.isRunning());
+    }
+  }
+
+  @Test
+  public void testBuildLogGoesToItsClient() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean first = new AtomicBoolean(true);
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      if (first.getAndSet(false)) {
+        started.countDown();
+        try {
+          release.await(20, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        throw new EnunciateException("first build broken");
+      }
+      return new Enunciate();
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+
+      ByteArrayOutputStream firstOut = new ByteArrayOutputStream();
+      AtomicBoolean firstResult = new AtomicBoolean(true);
+      Thread firstClient = new Thread(() -> {
+        try {
+          firstResult.set(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(firstOut, true)));
+        }
+        catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      firstClient.start();
+      assertTrue(started.await(20, TimeUnit.SECONDS));
+
+      //the second client connects while the first build is running.
+      ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+      AtomicBoolean secondResult = new AtomicBoolean(false);
+      Thread secondClient = new Thread(() -> {
+        try {
+          secondResult.set(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(secondOut, true)));
+        }
+        catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      secondClient.start();
+      Thread.sleep(200);
+      release.countDown();
+      firstClient.join(20000);
+      secondClient.join(20000);
+
+      assertFalse(firstResult.get());
+      assertTrue(firstOut.toString().contains("first build broken"));
+      assertTrue(secondResult.get());
+      assertFalse(secondOut.toString().contains("first build broken"));
+    }
+  }
+
+  @Test
+  public void testFailedBuild() throws Exception {
+    try (EnunciateDaemon daemon = new EnunciateDaemon(() -> {
+      throw new EnunciateException("broken");
+    }, new EnunciateConsoleLogger())) {
+      File tokenFile = newTokenFile();
+      int port = daemon.listen(0, tokenFile);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertFalse(EnunciateDaemon.send(port, tokenFile, "build", new PrintStream(out, true)));
+      assertTrue(out.toString().contains("broken"));
+    }
+  }
+
+  @Test
+  public void testBuildOnChange() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-daemon").toFile();
+    EnunciateDaemon daemon = new EnunciateDaemon(Enunciate::new, new EnunciateConsoleLogger());
+    daemon.setQuietPeriod(50);
+    daemon.watch(dir);
+    Thread watcher = new Thread(() -> {
+      try {
+        daemon.watch();
+      }
+      catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    watcher.start();
+    try {
+      //give the watcher time to register.
+      Thread.sleep(500);
+      File subdir = new File(dir, "pkg");
+      assertTrue(subdir.mkdirs());
+      Files.writeString(new File(subdir, "Type.java").toPath(), "class Type {}");
+
+      long deadline = System.currentTimeMillis() + 20000;
+      while (daemon.getBuilds() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      assertTrue(daemon.getBuilds() > 0);
+    }
+    finally {
+      daemon.close();
+      watcher.join(5000);
+    }
+  }
+
+  private static File newTokenFile() throws Exception {
+    return new File(Files.createTempDirectory("enunciate-daemon").toFile(), EnunciateDaemon.TOKEN_FILE_NAME);
+  }
+
+}
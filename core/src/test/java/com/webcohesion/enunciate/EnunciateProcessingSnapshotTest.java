@@ -0,0 +1,148 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.*;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateProcessingSnapshotTest {
+
+  @Test
+  public void testFindChangedTypes() throws Exception {
+    EnunciateProcessingSnapshot previous = snapshot("env", "a", "1", "b", "2", "c", "3", "d", "4");
+    previous.getDependencies().get("b").add("a"); //b references a
+    previous.getDependencies().get("c").add("b"); //c references b
+
+    EnunciateProcessingSnapshot current = snapshot("env", "a", "1", "b", "2", "c", "3", "d", "4");
+    current.getDependencies().get("b").add("a");
+    current.getDependencies().get("c").add("b");
+    assertEquals(Collections.emptySet(), current.findChangedTypes(previous));
+
+    current.getSourceHashes().put("a", "1a");
+    assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c")), current.findChangedTypes(previous));
+
+    current = snapshot("other-env", "a", "1", "b", "2", "c", "3", "d", "4");
+    assertNull(current.findChangedTypes(previous));
+    assertNull(current.findChangedTypes(null));
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    EnunciateProcessingSnapshot snapshot = snapshot("env", "a", "1", "b", "2");
+    snapshot.getDependencies().get("b").add("a");
+    File dir = Files.createTempDirectory("EnunciateProcessingSnapshotTest").toFile();
+    File file = new File(dir, "snapshot.bin");
+    snapshot.store(file);
+    snapshot.store(file);
+
+    //replaced in place, without leaving temporary files behind.
+    assertArrayEquals(new String[]{"snapshot.bin"}, dir.list());
+
+    EnunciateProcessingSnapshot loaded = EnunciateProcessingSnapshot.load(file, new EnunciateConsoleLogger());
+    assertNotNull(loaded);
+    assertEquals("env", loaded.getEnvironmentFingerprint());
+    assertEquals(snapshot.getSourceHashes(), loaded.getSourceHashes());
+    assertEquals(snapshot.getDependencies(), loaded.getDependencies());
+  }
+
+  @Test
+  public void testCaptureReferences() throws Exception {
+    String source = "package p;\n"
+      + "@interface SeeAlso { Class<?>[] value(); }\n"
+      + "@interface Sub { Class<?> value(); }\n"
+      + "@interface Subs { Sub[] value(); }\n"
+      + "@interface Colored { Color value(); }\n"
+      + "enum Color { RED }\n"
+      + "@SeeAlso({Dog.class}) class Animal { }\n"
+      + "class Dog extends Animal { }\n"
+      + "@Subs({@Sub(Cat.class)}) class Pet { }\n"
+      + "class Cat { }\n"
+      + "@Colored(Color.RED) class Car { }\n"
+      + "class Toy { }\n"
+      + "class Ball { }\n"
+      + "class Box<T extends Toy & Comparable<T>> { <S extends Ball> void put(S s) { } }\n";
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///p/Types.java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+
+    CapturingProcessor processor = new CapturingProcessor();
+    JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null, Arrays.asList("-proc:only"), null, Collections.singletonList(file));
+    task.setProcessors(Collections.singletonList(processor));
+    assertTrue(task.call());
+
+    Map<String, Set<String>> dependencies = processor.snapshot.getDependencies();
+    assertTrue(dependencies.get("p.Animal").containsAll(Arrays.asList("p.Dog", "p.SeeAlso")));
+    assertTrue(dependencies.get("p.Pet").containsAll(Arrays.asList("p.Cat", "p.Sub", "p.Subs")));
+    assertTrue(dependencies.get("p.Car").contains("p.Color"));
+    assertTrue(dependencies.get("p.Box").containsAll(Arrays.asList("p.Toy", "p.Ball")));
+
+    EnunciateProcessingSnapshot current = new EnunciateProcessingSnapshot("env", new TreeMap<>(processor.snapshot.getSourceHashes()), dependencies);
+    current.getSourceHashes().put("p.Cat", "changed");
+    assertTrue(current.findChangedTypes(processor.snapshot).contains("p.Pet"));
+  }
+
+  @SupportedAnnotationTypes("*")
+  private static class CapturingProcessor extends AbstractProcessor {
+
+    private EnunciateProcessingSnapshot snapshot;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (this.snapshot == null) {
+        DecoratedProcessingEnvironment env = new DecoratedProcessingEnvironment(this.processingEnv, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        this.snapshot = EnunciateProcessingSnapshot.capture(env, roundEnv.getRootElements(), "env");
+      }
+      return false;
+    }
+  }
+
+  private static EnunciateProcessingSnapshot snapshot(String env, String... typesAndHashes) {
+    Map<String, String> hashes = new TreeMap<>();
+    Map<String, Set<String>> dependencies = new TreeMap<>();
+    for (int i = 0; i < typesAndHashes.length; i += 2) {
+      hashes.put(typesAndHashes[i], typesAndHashes[i + 1]);
+      dependencies.put(typesAndHashes[i], new TreeSet<>());
+    }
+    return new EnunciateProcessingSnapshot(env, hashes, dependencies);
+  }
+}
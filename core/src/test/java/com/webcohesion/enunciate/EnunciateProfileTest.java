@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateProfileTest {
+
+  @Test
+  public void testProfile() throws Exception {
+    EnunciateProfile profile = new EnunciateProfile();
+    try (EnunciateProfile.Span span = profile.start(EnunciateProfile.ENGINE, "scan")) {
+      span.count("entries", 3);
+    }
+    for (int i = 0; i < 2; i++) {
+      try (EnunciateProfile.Span span = profile.start("docs", "render")) {
+        span.count("templates", 1).count("chars", 100);
+      }
+    }
+    profile.count("docs", "call", "files", 7);
+    profile.count("docs", "render \"a,b\"", "files", 1);
+
+    List<EnunciateProfile.Phase> phases = profile.getPhases();
+    assertEquals(4, phases.size());
+    assertEquals("scan", phases.get(0).getName());
+    assertEquals("render", phases.get(1).getName());
+    assertEquals(2, phases.get(1).getInvocations());
+    assertEquals(Long.valueOf(200), phases.get(1).getCounters().get("chars"));
+
+    File dir = Files.createTempDirectory("enunciate-profile").toFile();
+    File json = new File(dir, "profile.json");
+    File csv = new File(dir, "profile.csv");
+    profile.writeJson(json);
+    profile.writeCsv(csv);
+    String jsonText = Files.readString(json.toPath());
+    assertTrue(jsonText.contains("{\"module\": \"docs\", \"phase\": \"render\", \"invocations\": 2, \"millis\": "));
+    assertTrue(jsonText.contains("\"counters\": {\"chars\": 200, \"templates\": 2}"));
+    List<String> rows = Files.readAllLines(csv.toPath());
+    assertEquals("module,phase,metric,value", rows.get(0));
+    assertTrue(rows.contains("enunciate,scan,entries,3"));
+    assertTrue(rows.contains("docs,call,files,7"));
+    assertTrue(rows.contains("docs,\"render \"\"a,b\"\"\",files,1"));
+  }
+
+}
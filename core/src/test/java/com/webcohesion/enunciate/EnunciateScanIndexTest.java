@@ -0,0 +1,84 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import com.webcohesion.enunciate.module.ScannedType;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateScanIndexTest {
+
+  @Test
+  public void testSharedIndex() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-scan-index").toFile();
+    File jar = new File(dir, "lib.jar");
+    Files.write(jar.toPath(), new byte[]{1, 2, 3});
+    File copy = new File(dir, "copy.jar");
+    Files.write(copy.toPath(), new byte[]{1, 2, 3});
+
+    EnunciateScanIndex shared = EnunciateScanIndex.inMemory();
+    EnunciateScanIndex first = EnunciateScanIndex.load(new File(dir, "first/scan-index.bin"), new EnunciateConsoleLogger(), shared);
+    assertNull(first.find(jar));
+    first.record(jar, Collections.singletonList(new ScannedType("pkg/Type.class", "pkg.Type", Collections.<String>emptySet())), Collections.<String>emptyList());
+
+    //another module finds what the first one scanned, by location or by content.
+    EnunciateScanIndex second = EnunciateScanIndex.load(new File(dir, "second/scan-index.bin"), new EnunciateConsoleLogger(), shared);
+    assertEquals("pkg.Type", second.find(jar).getClasses().get(0).getName());
+    assertEquals(copy.getAbsolutePath(), second.find(copy).getLocation());
+
+    //the shared index is never written, and the per-module index keeps what it referenced.
+    shared.store();
+    second.store();
+    EnunciateScanIndex reloaded = EnunciateScanIndex.load(new File(dir, "second/scan-index.bin"), new EnunciateConsoleLogger());
+    assertNotNull(reloaded.find(jar));
+    assertNotNull(reloaded.find(copy));
+  }
+
+  @Test
+  public void testStoreLongStrings() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-scan-index").toFile();
+    File jar = new File(dir, "lib.jar");
+    Files.write(jar.toPath(), new byte[]{1, 2, 3});
+
+    //longer than the 64K bytes that writeUTF can handle, and not all ASCII.
+    String annotation = "pkg.\u00e9" + "A".repeat(70000);
+    File indexFile = new File(dir, "scan-index.bin");
+    EnunciateScanIndex index = EnunciateScanIndex.load(indexFile, new EnunciateConsoleLogger());
+    index.record(jar, Collections.singletonList(new ScannedType("pkg/Type.class", "pkg.Type", Collections.singleton(annotation))), Collections.singletonList("pkg/Type.java"));
+    index.store();
+    index.store();
+
+    //no temporary files are left behind.
+    assertArrayEquals(new String[]{"lib.jar", "scan-index.bin"}, new TreeSet<>(Arrays.asList(dir.list())).toArray());
+
+    EnunciateScanIndex.Entry entry = EnunciateScanIndex.load(indexFile, new EnunciateConsoleLogger()).find(jar);
+    assertNotNull(entry);
+    assertEquals(Collections.singleton(annotation), entry.getClasses().get(0).getAnnotationNames());
+    assertEquals(Collections.singletonList("pkg/Type.java"), entry.getSourceFiles());
+  }
+
+}
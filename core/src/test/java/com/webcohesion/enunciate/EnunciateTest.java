@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -123,6 +124,31 @@ public class EnunciateTest {
     assertFalse(scannedEntries.isEmpty());
   }
 
+  @Test
+  public void testClasspathScanIndex() throws Exception {
+    List<URL> classpath = buildTestClasspath();
+    File buildDir = createTempDir();
+    Enunciate enunciate = new Enunciate().setBuildDir(buildDir);
+    enunciate.setModules(Collections.singletonList(new TestModule("test", new ArrayList<>())));
+    Set<String> scannedEntries = enunciate.loadApiReflections(classpath).getStore().get(EnunciateReflectionsScanner.INDEX).keySet();
+    assertEquals(4, scannedEntries.size());
+    assertTrue(new File(buildDir, "scan-index.bin").exists());
+
+    //clobber the first jar, keeping its size and timestamp, to make sure it isn't reopened.
+    File jar1 = new File(classpath.get(0).toURI());
+    long lastModified = jar1.lastModified();
+    byte[] garbage = new byte[(int) jar1.length()];
+    try (OutputStream out = new FileOutputStream(jar1)) {
+      out.write(garbage);
+    }
+    assertTrue(jar1.setLastModified(lastModified));
+
+    enunciate = new Enunciate().setBuildDir(buildDir);
+    enunciate.setModules(Collections.singletonList(new TestModule("test", new ArrayList<>())));
+    Set<String> rescannedEntries = enunciate.loadApiReflections(classpath).getStore().get(EnunciateReflectionsScanner.INDEX).keySet();
+    assertEquals(scannedEntries, rescannedEntries);
+  }
+
   private List<URL> buildTestClasspath() throws Exception {
     JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
 
@@ -206,6 +232,33 @@ public class EnunciateTest {
     }
   }
 
+  @Test
+  public void testEnvironmentFingerprintOfClasspathDirectories() throws Exception {
+    File classes = createTempDir();
+    File pkg = new File(classes, "a/b");
+    assertTrue(pkg.mkdirs());
+    File compiled = new File(pkg, "C.class");
+    File nested = new File(pkg, "C$Inner.class");
+    File other = new File(pkg, "D.class");
+    Files.write(compiled.toPath(), new byte[]{1});
+    Files.write(nested.toPath(), new byte[]{1});
+    Files.write(other.toPath(), new byte[]{1});
+
+    Enunciate enunciate = new Enunciate();
+    enunciate.setClasspath(Collections.singletonList(classes));
+    enunciate.addSourceFile(new File(createTempDir(), "a/b/C.java"));
+    String fingerprint = enunciate.computeEnvironmentFingerprint();
+
+    //the classes of the sources of the build are tracked through the sources.
+    Files.write(compiled.toPath(), new byte[]{1, 2});
+    Files.write(nested.toPath(), new byte[]{1, 2});
+    assertEquals(fingerprint, enunciate.computeEnvironmentFingerprint());
+
+    //other classes in the directory are part of the environment.
+    Files.write(other.toPath(), new byte[]{1, 2});
+    assertFalse(fingerprint.equals(enunciate.computeEnvironmentFingerprint()));
+  }
+
   private File createTempDir() throws IOException {
     final double random = Math.random() * 10000; //this random name is applied to avoid an "access denied" error on windows.
     final File tempDir = File.createTempFile("EnunciateTest" + (int) random, "");
@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.api;
+
+import com.webcohesion.enunciate.facets.FacetFilter;
+import com.webcohesion.enunciate.javac.javadoc.DefaultJavaDocTagHandler;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class ApiRegistrationCacheTest {
+
+  @Test
+  public void testViewsSharedByEquivalentContexts() {
+    AtomicInteger loads = new AtomicInteger();
+    ApiRegistrationCache<Integer> cache = new ApiRegistrationCache<>();
+
+    JavaDocTagHandler handler = DefaultJavaDocTagHandler.INSTANCE;
+    Integer first = cache.get(context(handler, new FacetFilter(new TreeSet<>(Collections.singleton("a")), null)), c -> loads.incrementAndGet());
+    Integer second = cache.get(context(handler, new FacetFilter(new TreeSet<>(Collections.singleton("a")), Collections.<String>emptySet())), c -> loads.incrementAndGet());
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+
+    cache.get(context(handler, new FacetFilter(Collections.singleton("b"), null)), c -> loads.incrementAndGet());
+    assertEquals(2, loads.get());
+
+    JavaDocTagHandler otherHandler = new DefaultJavaDocTagHandler();
+    cache.get(context(otherHandler, new FacetFilter(Collections.singleton("a"), null)), c -> loads.incrementAndGet());
+    assertEquals(3, loads.get());
+
+    cache.clear();
+    cache.get(context(handler, new FacetFilter(Collections.singleton("a"), null)), c -> loads.incrementAndGet());
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  public void testViewComputedDuringClearIsNotKept() {
+    AtomicInteger loads = new AtomicInteger();
+    ApiRegistrationCache<Integer> cache = new ApiRegistrationCache<>();
+    ApiRegistrationContext context = context(DefaultJavaDocTagHandler.INSTANCE, new FacetFilter(null, null));
+
+    //e.g. a provider registers while the view is being computed.
+    cache.get(context, c -> {
+      cache.clear();
+      return loads.incrementAndGet();
+    });
+    assertEquals(Integer.valueOf(2), cache.get(context, c -> loads.incrementAndGet()));
+    assertEquals(Integer.valueOf(2), cache.get(context, c -> loads.incrementAndGet()));
+  }
+
+  private static ApiRegistrationContext context(JavaDocTagHandler handler, FacetFilter filter) {
+    return new ApiRegistrationContext() {
+      @Override
+      public JavaDocTagHandler getTagHandler() {
+        return handler;
+      }
+
+      @Override
+      public FacetFilter getFacetFilter() {
+        return filter;
+      }
+    };
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class AntPatternSetTest {
+
+  private static final List<String> PATTERNS = Arrays.asList(
+    "com.acme.Person", "com.acme.*", "com.acme.**", "com.**.Person", "**.api.*", "**", "*", "com.*.api.**.Dto?",
+    "com.ac?e.P*n", "**.**.Person", "*.acme", "com.acme.**.*Service", "org.**.**.x", ".com.*", "com.*.", "com..*"
+  );
+
+  private static final List<String> PATHS = Arrays.asList(
+    "com.acme.Person", "com.acme", "com", "com.acme.api.Person", "com.acme.api.v1.DtoA", "com.other.api.DtoB",
+    "com.other.api.v1.v2.DtoC", "org.x", "org.a.b.x", "com.ace.Pn", "com.acme.internal.PersonService", "Person",
+    "net.acme", "com.acme.", ".com.acme", "com..acme", ""
+  );
+
+  @Test
+  public void testSamePatternSemanticsAsAntPatternMatcher() {
+    for (String pattern : PATTERNS) {
+      AntPatternSet<String> set = AntPatternSet.of(Arrays.asList(pattern));
+      for (String path : PATHS) {
+        assertEquals(pattern + " vs " + path, AntPatternMatcher.INSTANCE.match(pattern, path), set.test(path));
+      }
+    }
+  }
+
+  @Test
+  public void testCollectMatches() {
+    AntPatternSet<String> set = new AntPatternSet<>();
+    for (int i = 0; i < PATTERNS.size(); i++) {
+      set.add(PATTERNS.get(i), "facet" + i);
+    }
+    set.add("com.acme.Person", "exact");
+
+    for (String path : PATHS) {
+      Set<String> expected = new TreeSet<>();
+      for (int i = 0; i < PATTERNS.size(); i++) {
+        if (AntPatternMatcher.INSTANCE.match(PATTERNS.get(i), path)) {
+          expected.add("facet" + i);
+        }
+      }
+      if ("com.acme.Person".equals(path)) {
+        expected.add("exact");
+      }
+
+      Set<String> actual = new TreeSet<>();
+      assertEquals(path, !expected.isEmpty(), set.collectMatches(path, actual));
+      assertEquals(path, expected, actual);
+    }
+  }
+
+  @Test
+  public void testManyLiteralSegments() {
+    AntPatternSet<String> set = new AntPatternSet<>();
+    for (int i = 0; i < 100; i++) {
+      set.add("com.acme.module" + i + ".**", "facet" + i);
+    }
+
+    Set<String> facets = new TreeSet<>();
+    set.collectMatches("com.acme.module42.Person", facets);
+    assertEquals(new TreeSet<>(Arrays.asList("facet42")), facets);
+    assertFalse(set.test("com.acme.module100.Person"));
+    assertFalse(set.test(null));
+  }
+}
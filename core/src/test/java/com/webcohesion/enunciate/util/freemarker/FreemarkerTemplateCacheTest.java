@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util.freemarker;
+
+import com.webcohesion.enunciate.EnunciateConsoleLogger;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.Template;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class FreemarkerTemplateCacheTest {
+
+  private static final String TEMPLATE = "${greeting}:<#list items as item> ${item}</#list> (${items?size})";
+
+  @Test
+  public void testCachedTemplatesRenderLikeUncachedOnes() throws Exception {
+    File dir = Files.createTempDirectory("enunciate-freemarker").toFile();
+    try {
+      File file = new File(dir, "test.fmt");
+      Files.write(file.toPath(), TEMPLATE.getBytes(StandardCharsets.UTF_8));
+      URL url = file.toURI().toURL();
+
+      FreemarkerTemplateCache cache = new FreemarkerTemplateCache();
+      EnunciateConsoleLogger logger = new EnunciateConsoleLogger();
+      Template plain = cache.getTemplate(PlainModule.class, PlainWrapper::new, url, logger);
+      Template shouting = cache.getTemplate(ShoutingModule.class, ShoutingWrapper::new, url, logger);
+
+      //each module has its own configuration (and object wrapper).
+      assertNotSame(plain.getConfiguration(), shouting.getConfiguration());
+      assertEquals("hello: a b (2)", render(plain));
+      assertEquals("HELLO: A B (2)", render(shouting));
+      assertEquals(render(uncached(PlainWrapper::new)), render(plain));
+      assertEquals(render(uncached(ShoutingWrapper::new)), render(shouting));
+
+      //the compiled templates are reused, and still render the same.
+      long hits = cache.getHits();
+      assertSame(plain, cache.getTemplate(PlainModule.class, PlainWrapper::new, url, logger));
+      assertSame(shouting, cache.getTemplate(ShoutingModule.class, ShoutingWrapper::new, url, logger));
+      assertEquals(hits + 2, cache.getHits());
+      assertEquals("hello: a b (2)", render(plain));
+      assertEquals("HELLO: A B (2)", render(shouting));
+
+      //clearing the cache creates new configurations.
+      cache.clear();
+      Template recompiled = cache.getTemplate(ShoutingModule.class, ShoutingWrapper::new, url, logger);
+      assertNotSame(shouting.getConfiguration(), recompiled.getConfiguration());
+      assertEquals("HELLO: A B (2)", render(recompiled));
+    }
+    finally {
+      for (File file : dir.listFiles()) {
+        file.delete();
+      }
+      dir.delete();
+    }
+  }
+
+  private static Template uncached(Supplier<? extends ObjectWrapper> objectWrapper) throws Exception {
+    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
+    configuration.setObjectWrapper(objectWrapper.get());
+    return new Template("test.fmt", new StringReader(TEMPLATE), configuration);
+  }
+
+  private static String render(Template template) throws Exception {
+    Map<String, Object> model = new HashMap<String, Object>();
+    model.put("greeting", "hello");
+    model.put("items", Arrays.asList("a", "b"));
+    StringWriter out = new StringWriter();
+    template.process(model, out);
+    return out.toString();
+  }
+
+  private static class PlainModule {
+  }
+
+  private static class ShoutingModule {
+  }
+
+  private static class PlainWrapper extends DefaultObjectWrapper {
+
+    private PlainWrapper() {
+      super(FreemarkerUtil.VERSION);
+    }
+  }
+
+  private static class ShoutingWrapper extends DefaultObjectWrapper {
+
+    private ShoutingWrapper() {
+      super(FreemarkerUtil.VERSION);
+    }
+
+    @Override
+    public TemplateModel wrap(Object obj) throws TemplateModelException {
+      return super.wrap(obj instanceof String ? ((String) obj).toUpperCase() : obj);
+    }
+  }
+}
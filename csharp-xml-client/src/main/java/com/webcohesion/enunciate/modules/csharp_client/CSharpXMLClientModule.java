@@ -48,10 +48,8 @@ import com.webcohesion.enunciate.modules.jaxws.model.WebMethod;
 import com.webcohesion.enunciate.modules.jaxws.model.WebParam;
 import com.webcohesion.enunciate.util.freemarker.ClientPackageForMethod;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -59,7 +57,6 @@ import org.apache.commons.configuration2.HierarchicalConfiguration;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import java.io.*;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 
@@ -613,30 +610,9 @@ public class CSharpXMLClientModule extends BasicGeneratingModule implements ApiF
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new CSharpXMLClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), CSharpXMLClientObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }
@@ -30,9 +30,7 @@ import com.webcohesion.enunciate.artifacts.FileArtifact;
 import com.webcohesion.enunciate.facets.FacetFilter;
 import com.webcohesion.enunciate.module.*;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -170,6 +168,33 @@ public class DocsModule extends BasicGeneratingModule implements ApiRegistryAwar
     return base == null ? null : resolveFile(base);
   }
 
+  @Override
+  public List<File> getInputFiles() {
+    List<File> inputFiles = new ArrayList<>();
+    inputFiles.add(getFreemarkerTemplateFile());
+    inputFiles.add(getBase());
+    String css = getCss();
+    if (css != null && !isAbsoluteUri(css)) {
+      inputFiles.add(resolveFile(css));
+    }
+    for (ExplicitDownloadConfig download : getExplicitDownloads()) {
+      if (download.getArtifact() == null && download.getFile() != null) {
+        inputFiles.add(resolveFile(download.getFile()));
+      }
+    }
+    inputFiles.removeIf(Objects::isNull);
+    return inputFiles;
+  }
+
+  private static boolean isAbsoluteUri(String value) {
+    try {
+      return URI.create(value).isAbsolute();
+    }
+    catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
   /**
    * The subdirectory in the web application where the documentation will be put.
    *
@@ -365,30 +390,9 @@ public class DocsModule extends BasicGeneratingModule implements ApiRegistryAwar
    */
   public void processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setURLEscapingCharset("UTF-8");
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), null, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     debug("Freemarker processing output:\n%s", unhandledOutput);
   }
 
@@ -406,13 +410,8 @@ public class DocsModule extends BasicGeneratingModule implements ApiRegistryAwar
           this.enunciate.copyResource(discoveredCss, new File(new File(outputDir, "css"), "enunciate.css"));
         }
         else if (configuredCss != null) {
-          try {
-            if (URI.create(configuredCss).isAbsolute()) {
-              return configuredCss;
-            }
-          }
-          catch (IllegalArgumentException e) {
-            //fall through...
+          if (isAbsoluteUri(configuredCss)) {
+            return configuredCss;
           }
 
           this.enunciate.copyFile(resolveFile(configuredCss), new File(new File(outputDir, "css"), "enunciate.css"));
@@ -36,10 +36,8 @@ import com.webcohesion.enunciate.modules.jaxrs.JaxrsModule;
 import com.webcohesion.enunciate.util.AntPatternMatcher;
 import com.webcohesion.enunciate.util.freemarker.ClientPackageForMethod;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -47,7 +45,6 @@ import org.apache.commons.configuration2.HierarchicalConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 
@@ -140,7 +137,8 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
     model.put("classnameFor", classnameFor);
     model.put("simpleNameFor", new SimpleNameForMethod(classnameFor, jsonContext));
     model.put("isAccessorOfTypeLong", new IsAccessorOfTypeLongMethod());
-    model.put("file", new FileDirective(sourceDir, this.enunciate.getLogger()));
+    FileDirective fileDirective = new FileDirective(sourceDir, this.enunciate.getLogger());
+    model.put("file", fileDirective);
     model.put("generatedCodeLicense", this.enunciate.getConfiguration().readGeneratedCodeLicenseFile());
 
     Set<String> facetIncludes = new TreeSet<>(this.enunciate.getConfiguration().getFacetIncludes());
@@ -159,13 +157,28 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
       try {
         debug("Generating the GWT JSON Overlay...");
 
+        int unchanged = 0;
+        List<File> generatedFiles = new ArrayList<>();
         for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
           if (!typeDefinition.isSimple() && facetFilter.accept(typeDefinition)) {
+            if (isUpToDateWithType(sourceDir, typeDefinition)) {
+              unchanged++;
+              generatedFiles.addAll(findGeneratedFiles(sourceDir, typeDefinition));
+              continue;
+            }
+
             model.put("type", typeDefinition);
             URL template = typeDefinition.isEnum() ? getTemplateURL("gwt-enum-type.fmt") : getTemplateURL("gwt-type.fmt");
             processTemplate(template, model);
+            List<File> typeFiles = fileDirective.takeGeneratedFiles();
+            recordGeneratedFiles(sourceDir, typeDefinition, typeFiles);
+            generatedFiles.addAll(typeFiles);
           }
         }
+        debug("Kept the overlay classes of %s unchanged types.", unchanged);
+
+        //the overlays of types that were removed (or are now excluded) would otherwise be packaged.
+        deleteStaleFiles(sourceDir, generatedFiles);
       }
       catch (IOException | TemplateException e) {
         throw new EnunciateException(e);
@@ -192,30 +205,9 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new GWTJSONOverlayObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), GWTJSONOverlayObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }
@@ -16,31 +16,28 @@
 package com.webcohesion.enunciate.modules.idl;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.StringWriter;
+import java.io.Reader;
 import java.io.Writer;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 
 import com.webcohesion.enunciate.Enunciate;
+import com.webcohesion.enunciate.EnunciateProfile;
 import com.webcohesion.enunciate.api.InterfaceDescriptionFile;
 import com.webcohesion.enunciate.artifacts.FileArtifact;
 import com.webcohesion.enunciate.facets.FacetFilter;
 import com.webcohesion.enunciate.modules.jaxb.util.PrefixMethod;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
 import freemarker.core.Environment;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 
 /**
  * @author Ryan Heaton
@@ -52,7 +49,8 @@ public abstract class BaseXMLInterfaceDescriptionFile implements InterfaceDescri
   protected final FacetFilter facetFilter;
   protected final Map<String, String> namespacePrefixes;
   protected final String filename;
-  private String contents;
+  private File file;
+  private boolean written;
 
   public BaseXMLInterfaceDescriptionFile(Enunciate enunciate, String artifactId, String filename, Map<String, String> namespacePrefixes, FacetFilter facetFilter) {
     this.enunciate = enunciate;
@@ -64,34 +62,52 @@ public abstract class BaseXMLInterfaceDescriptionFile implements InterfaceDescri
 
   @Override
   public String getHref() {
-    if (contents == null) {
+    if (!written) {
       throw new IllegalStateException(String.format("%s hasn't been written yet.", filename));
     }
 
     return filename;
   }
 
+  /**
+   * Writes the file to the specified directory. The IDL is rendered straight to the file the first time it's written;
+   * after that, it's copied from there instead of being rendered again (or being held in memory).
+   *
+   * @param directory The directory.
+   */
   @Override
   public void writeTo(File directory) throws IOException {
     File file = new File(directory, this.filename);
-    OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
-    writeTo(writer);
-    writer.flush();
-    writer.close();
+    if (isRendered()) {
+      Files.copy(this.file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    else {
+      try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+        processTemplate(getTemplateURL(), createModel(), writer);
+      }
+      this.file = file;
+    }
     this.enunciate.addArtifact(new FileArtifact("idl", this.artifactId, file));
   }
 
   protected void writeTo(Writer writer) throws IOException {
-    if (this.contents != null) {
-      writer.write(this.contents);
-    } else {
-      Map<String, Object> model = createModel();
-      URL template = getTemplateURL();
-      String idl = processTemplate(template, model);
-      writer.write(idl);
+    if (isRendered()) {
+      try (Reader reader = Files.newBufferedReader(this.file.toPath(), StandardCharsets.UTF_8)) {
+        reader.transferTo(writer);
+      }
+    }
+    else {
+      processTemplate(getTemplateURL(), createModel(), writer);
     }
   }
 
+  /**
+   * @return Whether the IDL has been rendered to a file that can be copied.
+   */
+  private boolean isRendered() {
+    return this.file != null && this.file.isFile();
+  }
+
   protected Map<String, Object> createModel() {
     Map<String, Object> model = new HashMap<String, Object>();
     model.put("prefix", new PrefixMethod(namespacePrefixes));
@@ -105,42 +121,55 @@ public abstract class BaseXMLInterfaceDescriptionFile implements InterfaceDescri
    * Processes the specified template with the given model.
    *
    * @param model       The root model.
+   * @param output      The output.
    */
-  protected String processTemplate(URL templateURL, Map<String, Object> model) throws IOException {
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        } catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
+  protected void processTemplate(URL templateURL, Map<String, Object> model, Writer output) throws IOException {
+    //the configuration (and hence the compiled template) is shared, but the object wrapper has the prefixes of this build.
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), null, templateURL, this.enunciate.getLogger());
+    IDLObjectWrapper objectWrapper = new IDLObjectWrapper(this.namespacePrefixes);
+    CharCountingWriter counter = new CharCountingWriter(output);
+
+    try (EnunciateProfile.Span span = this.enunciate.getProfile().start("idl", "render")) {
+      Environment environment = template.createProcessingEnvironment(model, counter, objectWrapper);
+      environment.setObjectWrapper(objectWrapper);
+      environment.process();
+      counter.flush();
+      span.count("templates", 1).count("chars", counter.count);
+    } catch (TemplateException e) {
+      throw new RuntimeException(e);
+    }
 
-    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
-      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
-        throw templateException;
-      }
-    });
+    this.written = true;
+  }
 
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new IDLObjectWrapper(this.namespacePrefixes));
-    Template template = configuration.getTemplate(templateURL.toString());
-    StringWriter output = new StringWriter();
+  /**
+   * Counts the characters that are rendered, for the profile.
+   */
+  private static class CharCountingWriter extends FilterWriter {
 
-    try {
-      template.process(model, output);
-    } catch (TemplateException e) {
-      throw new RuntimeException(e);
+    private long count;
+
+    private CharCountingWriter(Writer out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      super.write(c);
+      this.count++;
     }
 
-    String idl = output.toString();
-    this.contents = idl;
-    return idl;
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      super.write(cbuf, off, len);
+      this.count += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      super.write(str, off, len);
+      this.count += len;
+    }
   }
 
 }
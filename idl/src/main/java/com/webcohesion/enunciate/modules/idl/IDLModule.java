@@ -110,6 +110,22 @@ public class IDLModule extends BasicGeneratingModule implements ApiFeatureProvid
     return configs;
   }
 
+  @Override
+  public List<File> getInputFiles() {
+    List<File> inputFiles = new ArrayList<>();
+    for (SchemaConfig schemaConfig : getSchemaConfigs().values()) {
+      if (schemaConfig.getUseFile() != null) {
+        inputFiles.add(schemaConfig.getUseFile());
+      }
+    }
+    for (WsdlConfig wsdlConfig : getWsdlConfigs().values()) {
+      if (wsdlConfig.getUseFile() != null) {
+        inputFiles.add(wsdlConfig.getUseFile());
+      }
+    }
+    return inputFiles;
+  }
+
   public Map<String, WsdlConfig> getWsdlConfigs() {
     HashMap<String, WsdlConfig> configs = new HashMap<>();
     List<HierarchicalConfiguration> wsdls = this.config.configurationsAt("wsdl");
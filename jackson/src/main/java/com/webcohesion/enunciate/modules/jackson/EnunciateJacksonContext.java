@@ -22,6 +22,8 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.webcohesion.enunciate.CompletionFailureException;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.EnunciateException;
+import com.webcohesion.enunciate.api.ApiRegistrationCache;
+import com.webcohesion.enunciate.api.ApiRegistrationContext;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
 import com.webcohesion.enunciate.javac.decorations.element.PropertyElement;
@@ -43,6 +45,7 @@ import com.webcohesion.enunciate.modules.jackson.model.types.SpeciallyFormattedK
 import com.webcohesion.enunciate.modules.jackson.model.util.JacksonUtil;
 import com.webcohesion.enunciate.modules.jackson.model.util.MapType;
 import com.webcohesion.enunciate.util.AnnotationUtils;
+import com.webcohesion.enunciate.util.Memoized;
 import com.webcohesion.enunciate.util.OneTimeLogMessage;
 import com.webcohesion.enunciate.util.TypeHintUtils;
 import jakarta.activation.DataHandler;
@@ -60,6 +63,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -86,6 +90,7 @@ public class EnunciateJacksonContext extends EnunciateModuleContext {
   private final boolean propertiesAlphabetical;
   private final String beanValidationGroups;
   private final Map<String, String> jsonFormats;
+  private final ApiRegistrationCache<Map<String, Memoized<String>>> exampleBodies = new ApiRegistrationCache<>();
 
   public EnunciateJacksonContext(EnunciateContext context, boolean honorJaxb, boolean honorGson, KnownJsonType explicitDateTime, boolean collapseTypeHierarchy, Map<String, String> mixins, Map<String, String> examples, AccessorVisibilityChecker visibility, boolean disableExamples, boolean wrapRootValue, String propertyNamingStrategy, boolean propertiesAlphabetical, String beanValidationGroups, Map<String, String> jsonFormats) {
     super(context);
@@ -131,6 +136,17 @@ public class EnunciateJacksonContext extends EnunciateModuleContext {
     return disableExamples;
   }
 
+  /**
+   * The bodies of the examples for the specified registration context, keyed by the name of the type of the example and
+   * its containers. Examples are requested for each method that references the type, so each body is written once.
+   *
+   * @param registrationContext The registration context.
+   * @return The bodies of the examples.
+   */
+  public Map<String, Memoized<String>> getExampleBodies(ApiRegistrationContext registrationContext) {
+    return this.exampleBodies.get(registrationContext, c -> new ConcurrentHashMap<>());
+  }
+
   public boolean isWrapRootValue() {
     return wrapRootValue;
   }
@@ -45,8 +45,8 @@ import java.util.*;
 public class JacksonModule extends BasicProviderModule implements TypeDetectingModule, MediaTypeDefinitionModule, ApiRegistryProviderModule, ApiFeatureProviderModule {
 
   private DataTypeDetectionStrategy defaultDataTypeDetectionStrategy;
-  private boolean jacksonDetected = false;
-  private boolean jaxbSupportDetected = false;
+  private volatile boolean jacksonDetected = false;
+  private volatile boolean jaxbSupportDetected = false;
   private EnunciateJacksonContext jacksonContext;
 
   @Override
@@ -293,17 +293,35 @@ public class JacksonModule extends BasicProviderModule implements TypeDetectingM
 
   @Override
   public boolean internal(ClassFile classFile) {
-    String classname = classFile.getName();
-    this.jacksonDetected |= com.fasterxml.jackson.databind.ObjectMapper.class.getName().equals(classname);
-    this.jacksonDetected |= tools.jackson.databind.ObjectMapper.class.getName().equals(classname);
-    this.jaxbSupportDetected |= "com.fasterxml.jackson.module.jakarta.xmlbind.JakartaXmlBindAnnotationIntrospector".equals(classname);
-    this.jaxbSupportDetected |= "tools.jackson.module.jakarta.xmlbind.JakartaXmlBindAnnotationIntrospector".equals(classname);
+    return internal(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean internal(ScannedType type) {
+    String classname = type.getName();
+    //these flags are only ever raised (never lowered), so concurrent scanning threads can't lose an update.
+    if (com.fasterxml.jackson.databind.ObjectMapper.class.getName().equals(classname) || tools.jackson.databind.ObjectMapper.class.getName().equals(classname)) {
+      this.jacksonDetected = true;
+    }
+    if ("com.fasterxml.jackson.module.jakarta.xmlbind.JakartaXmlBindAnnotationIntrospector".equals(classname) || "tools.jackson.module.jakarta.xmlbind.JakartaXmlBindAnnotationIntrospector".equals(classname)) {
+      this.jaxbSupportDetected = true;
+    }
     return classname.startsWith("com.fasterxml.jackson");
   }
 
   @Override
   public boolean typeDetected(ClassFile classFile) {
-    return annotationNames(classFile).anyMatch(this::isJacksonSerializationAnnotation);
+    return typeDetected(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean typeDetected(ScannedType type) {
+    for (String annotation : type.getAnnotationNames()) {
+      if (isJacksonSerializationAnnotation(annotation)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   boolean isJacksonSerializationAnnotation(String fqn) {
@@ -39,6 +39,7 @@ import com.webcohesion.enunciate.metadata.DocumentationExample;
 import com.webcohesion.enunciate.modules.jackson.model.*;
 import com.webcohesion.enunciate.modules.jackson.model.types.*;
 import com.webcohesion.enunciate.util.ExampleUtils;
+import com.webcohesion.enunciate.util.Memoized;
 import com.webcohesion.enunciate.util.TypeHintUtils;
 
 import javax.annotation.Nonnull;
@@ -73,6 +74,15 @@ public class DataTypeExampleImpl extends ExampleImpl {
 
   @Override
   public String getBody() {
+    StringBuilder key = new StringBuilder(this.type.getQualifiedName());
+    for (DataTypeReference.ContainerType container : this.containers) {
+      key.append('#').append(container.name());
+    }
+    //the body is written outside of the map so the writes of other examples aren't blocked.
+    return this.type.getContext().getExampleBodies(this.registrationContext).computeIfAbsent(key.toString(), k -> new Memoized<>(this::writeBody)).get();
+  }
+
+  private String writeBody() {
     ObjectNode node = JsonNodeFactory.instance.objectNode();
 
     Context context = new Context();
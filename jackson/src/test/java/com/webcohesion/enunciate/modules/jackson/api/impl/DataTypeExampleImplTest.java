@@ -0,0 +1,126 @@
+package com.webcohesion.enunciate.modules.jackson.api.impl;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import com.webcohesion.enunciate.EnunciateContext;
+import com.webcohesion.enunciate.EnunciateLogger;
+import com.webcohesion.enunciate.api.ApiRegistrationContext;
+import com.webcohesion.enunciate.api.ApiRegistry;
+import com.webcohesion.enunciate.api.datatype.DataTypeReference;
+import com.webcohesion.enunciate.facets.FacetFilter;
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.javadoc.DefaultJavaDocTagHandler;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
+import com.webcohesion.enunciate.modules.jackson.EnunciateJacksonContext;
+import com.webcohesion.enunciate.modules.jackson.model.AccessorVisibilityChecker;
+import com.webcohesion.enunciate.modules.jackson.model.ObjectTypeDefinition;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DataTypeExampleImplTest {
+
+    private static final List<List<DataTypeReference.ContainerType>> CONTAINERS = Arrays.asList(
+            Collections.<DataTypeReference.ContainerType>emptyList(),
+            Collections.singletonList(DataTypeReference.ContainerType.list),
+            Collections.singletonList(DataTypeReference.ContainerType.map),
+            Arrays.asList(DataTypeReference.ContainerType.list, DataTypeReference.ContainerType.map),
+            Arrays.asList(DataTypeReference.ContainerType.map, DataTypeReference.ContainerType.list)
+    );
+
+    @Test
+    public void memoizedBodiesAreTheWrittenBodies() {
+        String source = """
+            package test;
+            public class Person {
+              public String getName() { return null; }
+              public int getAge() { return 0; }
+              public java.util.List<String> getNicknames() { return null; }
+            }
+            """;
+        runExampleTest(source, (type, context) -> {
+            //the first example of each context writes the body; the same examples of another context are written again.
+            ApiRegistrationContext first = registrationContext(new FacetFilter(null, null));
+            ApiRegistrationContext second = registrationContext(new FacetFilter(null, Collections.singleton("internal")));
+            List<String> written = new ArrayList<>();
+            for (List<DataTypeReference.ContainerType> containers : CONTAINERS) {
+                written.add(new DataTypeExampleImpl(type, containers, first).getBody());
+            }
+            for (int i = CONTAINERS.size() - 1; i >= 0; i--) {
+                assertEquals(written.get(i), new DataTypeExampleImpl(type, CONTAINERS.get(i), second).getBody());
+            }
+
+            //each type and container chain has its own body.
+            assertEquals(CONTAINERS.size(), new HashSet<>(written).size());
+            assertTrue(written.get(0).contains("\"name\""));
+            assertTrue(written.get(1).startsWith("["));
+
+            //after that, the written body is reused.
+            for (int i = 0; i < CONTAINERS.size(); i++) {
+                assertSame(written.get(i), new DataTypeExampleImpl(type, new ArrayList<>(CONTAINERS.get(i)), first).getBody());
+            }
+            assertEquals(CONTAINERS.size(), context.getExampleBodies(first).size());
+        });
+    }
+
+    private static ApiRegistrationContext registrationContext(FacetFilter facetFilter) {
+        return new ApiRegistrationContext() {
+            @Override
+            public JavaDocTagHandler getTagHandler() {
+                return DefaultJavaDocTagHandler.INSTANCE;
+            }
+
+            @Override
+            public FacetFilter getFacetFilter() {
+                return facetFilter;
+            }
+        };
+    }
+
+    private void runExampleTest(String source, ExampleAssertion assertion) {
+        JavaFileObject file = JavaFileObjects.forSourceString("test.Person", source);
+
+        class ExampleTestProcessor extends AbstractProcessor {
+            private boolean tested = false;
+            @Override
+            public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                if (tested) return false;
+                DecoratedProcessingEnvironment env = new DecoratedProcessingEnvironment(processingEnv, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+                EnunciateContext enunciateContext = new EnunciateContext(env, Mockito.mock(EnunciateLogger.class), Mockito.mock(ApiRegistry.class), null, null, null, null);
+                EnunciateJacksonContext jacksonContext = new EnunciateJacksonContext(enunciateContext, false, false, null, false, Collections.emptyMap(), Collections.emptyMap(), AccessorVisibilityChecker.DEFAULT_CHECKER, false, false, null, false, null, Collections.emptyMap());
+                ObjectTypeDefinition type = new ObjectTypeDefinition(env.getElementUtils().getTypeElement("test.Person"), jacksonContext);
+                tested = true;
+                assertion.accept(type, jacksonContext);
+                return false;
+            }
+            @Override
+            public Set<String> getSupportedAnnotationTypes() { return Set.of("*"); }
+            @Override
+            public SourceVersion getSupportedSourceVersion() { return SourceVersion.latestSupported(); }
+        }
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new ExampleTestProcessor())
+                .compile(file);
+        assertEquals(Compilation.Status.SUCCESS, compilation.status());
+    }
+
+    @FunctionalInterface
+    private interface ExampleAssertion {
+        void accept(ObjectTypeDefinition type, EnunciateJacksonContext context);
+    }
+}
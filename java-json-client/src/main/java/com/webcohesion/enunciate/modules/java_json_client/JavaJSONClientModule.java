@@ -18,6 +18,7 @@ package com.webcohesion.enunciate.modules.java_json_client;
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.EnunciateException;
+import com.webcohesion.enunciate.EnunciateProfile;
 import com.webcohesion.enunciate.api.DefaultRegistrationContext;
 import com.webcohesion.enunciate.api.resources.MediaTypeDescriptor;
 import com.webcohesion.enunciate.api.resources.Method;
@@ -38,22 +39,19 @@ import com.webcohesion.enunciate.modules.jackson.model.util.JacksonCodeErrors;
 import com.webcohesion.enunciate.modules.jaxrs.JaxrsModule;
 import com.webcohesion.enunciate.util.AntPatternMatcher;
 import com.webcohesion.enunciate.util.freemarker.*;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 
 import javax.lang.model.element.TypeElement;
-import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
-import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.*;
 
 /**
@@ -145,7 +143,8 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
     model.put("packageFor", new ClientPackageForMethod(conversions, this.context));
     model.put("classnameFor", new ClientClassnameForMethod(conversions, jsonContext));
     model.put("simpleNameFor", new SimpleNameForMethod(new ClientClassnameForMethod(conversions, jsonContext, true), jsonContext));
-    model.put("file", new FileDirective(sourceDir, this.enunciate.getLogger()));
+    FileDirective fileDirective = new FileDirective(sourceDir, this.enunciate.getLogger());
+    model.put("file", fileDirective);
     model.put("generatedCodeLicense", this.enunciate.getConfiguration().readGeneratedCodeLicenseFile());
     model.put("annotationValue", new AnnotationValueMethod());
     model.put("wrapRootValue", this.jacksonModule.isWrapRootValue());
@@ -166,18 +165,33 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
       try {
         debug("Generating the Java client classes...");
 
+        int unchanged = 0;
+        List<File> generatedFiles = new ArrayList<>();
         for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
           if (facetFilter.accept(typeDefinition)) {
-            if (useServerSide(typeDefinition, matcher)) {
-              copyServerSideType(sourceDir, typeDefinition);
+            List<File> typeFiles;
+            if (isUpToDateWithType(sourceDir, typeDefinition)) {
+              unchanged++;
+              typeFiles = findGeneratedFiles(sourceDir, typeDefinition);
+            }
+            else if (useServerSide(typeDefinition, matcher)) {
+              typeFiles = List.of(copyServerSideType(sourceDir, typeDefinition));
+              recordGeneratedFiles(sourceDir, typeDefinition, typeFiles);
             }
             else {
               model.put("type", typeDefinition);
               URL template = typeDefinition.isEnum() ? getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
               processTemplate(template, model);
+              typeFiles = fileDirective.takeGeneratedFiles();
+              recordGeneratedFiles(sourceDir, typeDefinition, typeFiles);
             }
+            generatedFiles.addAll(typeFiles);
           }
         }
+        debug("Kept the client classes of %s unchanged types.", unchanged);
+
+        //the sources of types that were removed (or are now excluded) would otherwise be compiled into the client.
+        deleteStaleFiles(sourceDir, generatedFiles);
       }
       catch (IOException | TemplateException e) {
         throw new EnunciateException(e);
@@ -192,15 +206,22 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
     return sourceDir;
   }
 
-  protected void copyServerSideType(File sourceDir, TypeElement type) throws IOException {
+  protected File copyServerSideType(File sourceDir, TypeElement type) throws IOException {
     SourcePosition source = this.context.getProcessingEnvironment().findSourcePosition(type);
     JavaFileObject sourceFile = source.getSourceFile();
     File destFile = getServerSideDestFile(sourceDir, sourceFile, type);
+    String content = sourceFile.getCharContent(false).toString();
+    if (destFile.isFile() && content.equals(Files.readString(destFile.toPath(), Charset.defaultCharset()))) {
+      debug("Server-side java type %s is unchanged.", destFile);
+      return destFile;
+    }
+
     FileWriter writer = new FileWriter(destFile);
     debug("Writing server-side java type to %s.", destFile);
-    writer.write(sourceFile.getCharContent(false).toString());
+    writer.write(content);
     writer.flush();
     writer.close();
+    return destFile;
   }
 
   protected File getSourceDir() {
@@ -215,30 +236,9 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new JavaJSONClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), JavaJSONClientObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }
@@ -282,13 +282,20 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
     //Compile the java files.
     if (!isDisableCompile()) {
       if (!isUpToDateWithSources(compileDir)) {
+        //compile all the sources again: the classes of unchanged sources may depend on the signatures of changed ones.
+        clearDirectory(compileDir);
         List<File> sources = findJavaFiles(sourceDir);
         if (sources != null && !sources.isEmpty()) {
-          String classpath = this.enunciate.writeClasspath(enunciate.getClasspath());
-          JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-          List<String> options = Arrays.asList("-source", getJavacSource(), "-target", getJavacTarget(), "-encoding", "UTF-8", "-cp", classpath, "-d", compileDir.getAbsolutePath(), "-nowarn");
-          JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, compiler.getStandardFileManager(null, null, null).getJavaFileObjectsFromFiles(sources));
-          if (!task.call()) {
+          List<String> options = Arrays.asList("-source", getJavacSource(), "-target", getJavacTarget(), "-encoding", "UTF-8", "-nowarn");
+          boolean compiled;
+          try (EnunciateProfile.Span span = this.enunciate.getProfile().start(getName(), "compile").count("sources", sources.size())) {
+            compiled = this.enunciate.getClientCompiler().compile(enunciate.getClasspath(), compileDir, options, sources);
+          }
+          catch (IOException e) {
+            throw new EnunciateException(e);
+          }
+
+          if (!compiled) {
             throw new EnunciateException("Compile failed of Java JSON client-side classes.");
           }
         }
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.modules.java_json_client;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+
+import com.webcohesion.enunciate.Enunciate;
+import com.webcohesion.enunciate.EnunciateConsoleLogger;
+import com.webcohesion.enunciate.module.EnunciateModule;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class IncrementalRebuildTest {
+
+  private static final String CONFIG = "<enunciate slug=\"rebuild\">"
+    + "<processing incremental=\"true\"/>"
+    + "<modules><jackson datatype-detection=\"local\"/><jaxrs disabled=\"true\"/></modules>"
+    + "</enunciate>";
+
+  @Test
+  public void testRemovedTypeIsRemovedFromTheClient() throws Exception {
+    File sources = Files.createTempDirectory("enunciate-rebuild-src").toFile();
+    File buildDir = Files.createTempDirectory("enunciate-rebuild-build").toFile();
+    File pkg = new File(sources, "p");
+    assertTrue(pkg.mkdirs());
+    File kept = new File(pkg, "Kept.java");
+    File removed = new File(pkg, "Removed.java");
+    Files.writeString(kept.toPath(), "package p; @com.fasterxml.jackson.annotation.JsonTypeName(\"kept\") public class Kept { public String getName() { return null; } public void setName(String name) { } }");
+    Files.writeString(removed.toPath(), "package p; @com.fasterxml.jackson.annotation.JsonTypeName(\"removed\") public class Removed { public int getCount() { return 0; } public void setCount(int count) { } }");
+
+    try {
+      File clientSources = new File(new File(buildDir, "java-json-client"), "src");
+      build(buildDir, kept, removed);
+      assertTrue(new File(clientSources, "p/Kept.java").isFile());
+      assertTrue(new File(clientSources, "p/Removed.java").isFile());
+      assertTrue(jarEntries(buildDir).contains("p/Removed.class"));
+
+      assertTrue(removed.delete());
+      build(buildDir, kept);
+      assertTrue(new File(clientSources, "p/Kept.java").isFile());
+      assertFalse(new File(clientSources, "p/Removed.java").exists());
+      List<String> entries = jarEntries(buildDir);
+      assertTrue(entries.contains("p/Kept.class"));
+      assertFalse(entries.contains("p/Removed.class"));
+      assertFalse(entries.contains("p/Removed.java"));
+    }
+    finally {
+      delete(sources);
+      delete(buildDir);
+    }
+  }
+
+  private void build(File buildDir, File... sources) throws Exception {
+    Enunciate enunciate = new Enunciate();
+    enunciate.setLogger(new EnunciateConsoleLogger());
+    enunciate.setBuildDir(buildDir);
+    enunciate.setSourceFiles(new TreeSet<>(Arrays.asList(sources)));
+    enunciate.loadConfiguration(new StringReader(CONFIG));
+
+    List<File> classpath = new ArrayList<>();
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      classpath.add(new File(entry));
+    }
+    enunciate.setClasspath(classpath);
+    for (EnunciateModule module : ServiceLoader.load(EnunciateModule.class)) {
+      enunciate.addModule(module);
+    }
+    enunciate.run();
+  }
+
+  private List<String> jarEntries(File buildDir) throws Exception {
+    List<String> entries = new ArrayList<>();
+    try (JarFile jar = new JarFile(new File(buildDir, "java-json-client/build/rebuild-json-client.jar"))) {
+      jar.stream().forEach(entry -> entries.add(entry.getName()));
+    }
+    return entries;
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+}
@@ -18,6 +18,7 @@ package com.webcohesion.enunciate.modules.java_xml_client;
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.EnunciateException;
+import com.webcohesion.enunciate.EnunciateProfile;
 import com.webcohesion.enunciate.api.DefaultRegistrationContext;
 import com.webcohesion.enunciate.api.resources.MediaTypeDescriptor;
 import com.webcohesion.enunciate.api.resources.Method;
@@ -44,23 +45,20 @@ import com.webcohesion.enunciate.modules.jaxws.WsdlInfo;
 import com.webcohesion.enunciate.modules.jaxws.model.*;
 import com.webcohesion.enunciate.util.AntPatternMatcher;
 import com.webcohesion.enunciate.util.freemarker.*;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
-import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
-import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.*;
 
 /**
@@ -154,7 +152,8 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
     model.put("packageFor", new ClientPackageForMethod(conversions, this.context));
     model.put("classnameFor", new ClientClassnameForMethod(conversions, jaxbContext));
     model.put("simpleNameFor", new SimpleNameForMethod(new ClientClassnameForMethod(conversions, jaxbContext, true)));
-    model.put("file", new FileDirective(sourceDir, this.enunciate.getLogger()));
+    FileDirective fileDirective = new FileDirective(sourceDir, this.enunciate.getLogger());
+    model.put("file", fileDirective);
     model.put("generatedCodeLicense", this.enunciate.getConfiguration().readGeneratedCodeLicenseFile());
     model.put("annotationValue", new AnnotationValueMethod());
 
@@ -171,6 +170,7 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
       try {
         debug("Generating the Java client classes...");
 
+        List<File> generatedFiles = new ArrayList<>();
         HashMap<String, WebFault> allFaults = new HashMap<>();
         AntPatternMatcher matcher = new AntPatternMatcher();
         matcher.setPathSeparator(".");
@@ -238,7 +238,7 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
 
           for (WebFault webFault : allFaults.values()) {
             if (useServerSide(webFault, matcher)) {
-              copyServerSideType(sourceDir, webFault);
+              generatedFiles.add(copyServerSideType(sourceDir, webFault));
             }
             else {
               TypeElement superFault = (TypeElement) ((DeclaredType)webFault.getSuperclass()).asElement();
@@ -255,18 +255,29 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
           }
         }
 
+        int unchanged = 0;
+        generatedFiles.addAll(fileDirective.takeGeneratedFiles());
         for (SchemaInfo schemaInfo : this.jaxbModule.getJaxbContext().getSchemas().values()) {
           for (TypeDefinition typeDefinition : schemaInfo.getTypeDefinitions()) {
             if (facetFilter.accept(typeDefinition)) {
-              if (useServerSide(typeDefinition, matcher)) {
-                copyServerSideType(sourceDir, typeDefinition);
+              List<File> typeFiles;
+              if (isUpToDateWithType(sourceDir, typeDefinition)) {
+                unchanged++;
+                typeFiles = findGeneratedFiles(sourceDir, typeDefinition);
+              }
+              else if (useServerSide(typeDefinition, matcher)) {
+                typeFiles = List.of(copyServerSideType(sourceDir, typeDefinition));
+                recordGeneratedFiles(sourceDir, typeDefinition, typeFiles);
               }
               else {
                 model.put("rootEl", this.jaxbModule.getJaxbContext().findElementDeclaration(typeDefinition));
                 model.put("type", typeDefinition);
                 URL template = typeDefinition.isEnum() ? typeDefinition instanceof QNameEnumTypeDefinition ? getTemplateURL("client-qname-enum-type.fmt") : getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
                 processTemplate(template, model);
+                typeFiles = fileDirective.takeGeneratedFiles();
+                recordGeneratedFiles(sourceDir, typeDefinition, typeFiles);
               }
+              generatedFiles.addAll(typeFiles);
             }
           }
 
@@ -274,7 +285,12 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
             model.put("registry", registry);
             processTemplate(getTemplateURL("client-registry.fmt"), model);
           }
+          generatedFiles.addAll(fileDirective.takeGeneratedFiles());
         }
+        debug("Kept the client classes of %s unchanged types.", unchanged);
+
+        //the sources of types that were removed (or are now excluded) would otherwise be compiled into the client.
+        deleteStaleFiles(sourceDir, generatedFiles);
       }
       catch (IOException | TemplateException e) {
         throw new EnunciateException(e);
@@ -289,15 +305,22 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
     return sourceDir;
   }
 
-  protected void copyServerSideType(File sourceDir, TypeElement type) throws IOException {
+  protected File copyServerSideType(File sourceDir, TypeElement type) throws IOException {
     SourcePosition source = this.context.getProcessingEnvironment().findSourcePosition(type);
     JavaFileObject sourceFile = source.getSourceFile();
     File destFile = getServerSideDestFile(sourceDir, sourceFile, type);
+    String content = sourceFile.getCharContent(false).toString();
+    if (destFile.isFile() && content.equals(Files.readString(destFile.toPath(), Charset.defaultCharset()))) {
+      debug("Server-side java type %s is unchanged.", destFile);
+      return destFile;
+    }
+
     FileWriter writer = new FileWriter(destFile);
     debug("Writing server-side java type to %s.", destFile);
-    writer.write(sourceFile.getCharContent(false).toString());
+    writer.write(content);
     writer.flush();
     writer.close();
+    return destFile;
   }
 
   protected File getSourceDir() {
@@ -312,30 +335,9 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new JavaXMLClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), JavaXMLClientObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }
@@ -392,13 +394,20 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
     //Compile the java files.
     if (!isDisableCompile()) {
       if (!isUpToDateWithSources(compileDir)) {
+        //compile all the sources again: the classes of unchanged sources may depend on the signatures of changed ones.
+        clearDirectory(compileDir);
         List<File> sources = findJavaFiles(sourceDir);
         if (sources != null && !sources.isEmpty()) {
-          String classpath = this.enunciate.writeClasspath(enunciate.getClasspath());
-          JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-          List<String> options = Arrays.asList("-source", getJavacSource(), "-target", getJavacTarget(), "-encoding", "UTF-8", "-cp", classpath, "-d", compileDir.getAbsolutePath(), "-nowarn");
-          JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, compiler.getStandardFileManager(null, null, null).getJavaFileObjectsFromFiles(sources));
-          if (!task.call()) {
+          List<String> options = Arrays.asList("-source", getJavacSource(), "-target", getJavacTarget(), "-encoding", "UTF-8", "-nowarn");
+          boolean compiled;
+          try (EnunciateProfile.Span span = this.enunciate.getProfile().start(getName(), "compile").count("sources", sources.size())) {
+            compiled = this.enunciate.getClientCompiler().compile(enunciate.getClasspath(), compileDir, options, sources);
+          }
+          catch (IOException e) {
+            throw new EnunciateException(e);
+          }
+
+          if (!compiled) {
             throw new EnunciateException("Compile failed of Java client-side classes.");
           }
         }
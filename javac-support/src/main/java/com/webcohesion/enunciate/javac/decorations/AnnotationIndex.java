@@ -0,0 +1,229 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations;
+
+import com.webcohesion.enunciate.javac.decorations.adaptors.ElementAdaptor;
+import com.webcohesion.enunciate.javac.decorations.element.*;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The annotations of an (undecorated) element, resolved once per processing environment: the annotations of the element
+ * itself, its meta-annotations (the annotations on its annotations), and the annotations it inherits from its enclosing
+ * elements and superclasses. Annotations are immutable, so the instances are shared by every lookup instead of being
+ * synthesized again by the compiler for each one.
+ *
+ * @author Ryan Heaton
+ * @see DecoratedProcessingEnvironment#getAnnotationIndex(Element)
+ */
+public final class AnnotationIndex {
+
+  /**
+   * How deep to look for meta-annotations.
+   */
+  public static final int MAX_META_DEPTH = 2;
+
+  private static final Set<Class<?>> DECORATIONS = new HashSet<>(Arrays.asList(DecoratedElement.class, DecoratedTypeElement.class, DecoratedExecutableElement.class, DecoratedVariableElement.class, DecoratedPackageElement.class, DecoratedTypeParameterElement.class));
+
+  /**
+   * Whether a decorated element resolves its annotations the same way as the element it decorates, i.e. it doesn't
+   * add or merge annotations (like a property does with its accessors), so it can share the index of its delegate.
+   */
+  private static final ClassValue<Boolean> TRANSPARENT = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      try {
+        if (!declaredByDecoration(type.getMethod("getAnnotation", Class.class))
+          || !declaredByDecoration(type.getMethod("getAnnotationMirrors"))
+          || !declaredByDecoration(type.getMethod("getEnclosingElement"))) {
+          return false;
+        }
+        return !TypeElement.class.isAssignableFrom(type) || declaredByDecoration(type.getMethod("getSuperclass"));
+      }
+      catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+
+    private boolean declaredByDecoration(Method method) {
+      return DECORATIONS.contains(method.getDeclaringClass());
+    }
+  };
+
+  private final Element element;
+  private final DecoratedProcessingEnvironment env;
+  private final Map<Class<?>, Optional<Annotation>> annotations = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Optional<Annotation>> metaAnnotations = new ConcurrentHashMap<>();
+  private final Map<Class<?>, List<Annotation>> scopedAnnotations = new ConcurrentHashMap<>();
+  private final Map<Class<?>, List<Annotation>> scopedMetaAnnotations = new ConcurrentHashMap<>();
+  private volatile List<Element> annotationTypes;
+
+  AnnotationIndex(Element element, DecoratedProcessingEnvironment env) {
+    this.element = element;
+    this.env = env;
+  }
+
+  /**
+   * The element whose index is shared by the specified element: the element itself, or the element it decorates if
+   * the decoration doesn't change how annotations are resolved.
+   *
+   * @param element The element.
+   * @return The indexed element, or null if the annotations of the element can't be indexed.
+   */
+  static Element indexedElement(Element element) {
+    while (element instanceof DecoratedElement) {
+      if (!TRANSPARENT.get(element.getClass())) {
+        return null;
+      }
+      element = ((DecoratedElement<?>) element).getDelegate();
+    }
+
+    //adaptors are synthesized by the modules and don't have a stable identity.
+    return element == null || element instanceof ElementAdaptor ? null : element;
+  }
+
+  /**
+   * The annotation of the specified type on the element, as {@link Element#getAnnotation(Class)}.
+   *
+   * @param type The annotation type.
+   * @return The annotation, or null if the element isn't annotated with it.
+   */
+  @SuppressWarnings("unchecked")
+  public <A extends Annotation> A getAnnotation(Class<A> type) {
+    Optional<Annotation> annotation = this.annotations.get(type);
+    if (annotation == null) {
+      A resolved = this.element.getAnnotation(type);
+      if (resolved == null && ElementUtils.isClassOrRecord(this.element) && type.getAnnotation(Inherited.class) != null) {
+        //same as the decorated type element: inherited annotations from the superclass.
+        AnnotationIndex superclass = superclassIndex();
+        resolved = superclass == null ? null : superclass.getAnnotation(type);
+      }
+      annotation = Optional.ofNullable(resolved);
+      this.annotations.putIfAbsent(type, annotation);
+    }
+    return (A) annotation.orElse(null);
+  }
+
+  /**
+   * The annotation of the specified type on the element, or on one of its annotations (up to {@link #MAX_META_DEPTH}).
+   *
+   * @param type The annotation type.
+   * @return The annotation, or null if the element isn't (meta-)annotated with it.
+   */
+  @SuppressWarnings("unchecked")
+  public <A extends Annotation> A getMetaAnnotation(Class<A> type) {
+    Optional<Annotation> annotation = this.metaAnnotations.get(type);
+    if (annotation == null) {
+      annotation = Optional.ofNullable(findMetaAnnotation(type, 0));
+      this.metaAnnotations.putIfAbsent(type, annotation);
+    }
+    return (A) annotation.orElse(null);
+  }
+
+  private <A extends Annotation> A findMetaAnnotation(Class<A> type, int depth) {
+    A result = getAnnotation(type);
+    if (result != null) {
+      return result;
+    }
+
+    for (Element annotationType : getAnnotationTypes()) {
+      AnnotationIndex annotationIndex = this.env.getAnnotationIndex(annotationType);
+      result = annotationIndex == null ? annotationType.getAnnotation(type) : annotationIndex.getAnnotation(type);
+      if (result != null) {
+        return result;
+      }
+      if (depth < MAX_META_DEPTH && annotationIndex != null) {
+        result = annotationIndex.findMetaAnnotation(type, depth + 1);
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  private List<Element> getAnnotationTypes() {
+    List<Element> annotationTypes = this.annotationTypes;
+    if (annotationTypes == null) {
+      annotationTypes = new ArrayList<>();
+      for (AnnotationMirror annotation : this.element.getAnnotationMirrors()) {
+        DeclaredType annotationType = annotation.getAnnotationType();
+        if (annotationType != null) {
+          annotationTypes.add(annotationType.asElement());
+        }
+      }
+      this.annotationTypes = annotationTypes;
+    }
+    return annotationTypes;
+  }
+
+  /**
+   * The annotations of the specified type on the element, its enclosing elements and its superclasses, nearest first.
+   *
+   * @param type                   The annotation type.
+   * @param includeMetaAnnotations Whether to include meta-annotations.
+   * @return The annotations.
+   */
+  @SuppressWarnings("unchecked")
+  public <A extends Annotation> List<A> getAnnotations(Class<A> type, boolean includeMetaAnnotations) {
+    Map<Class<?>, List<Annotation>> cache = includeMetaAnnotations ? this.scopedMetaAnnotations : this.scopedAnnotations;
+    List<Annotation> annotations = cache.get(type);
+    if (annotations == null) {
+      if (this.element instanceof TypeElement && Object.class.getName().equals(((TypeElement) this.element).getQualifiedName().toString())) {
+        annotations = Collections.emptyList();
+      }
+      else {
+        List<Annotation> resolved = new ArrayList<>();
+        Annotation annotation = includeMetaAnnotations ? getMetaAnnotation(type) : getAnnotation(type);
+        if (annotation != null) {
+          resolved.add(annotation);
+        }
+
+        AnnotationIndex enclosing = this.element.getEnclosingElement() == null ? null : this.env.getAnnotationIndex(this.element.getEnclosingElement());
+        if (enclosing != null) {
+          resolved.addAll(enclosing.getAnnotations(type, includeMetaAnnotations));
+        }
+
+        AnnotationIndex superclass = superclassIndex();
+        if (superclass != null) {
+          resolved.addAll(superclass.getAnnotations(type, includeMetaAnnotations));
+        }
+        annotations = resolved.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(resolved);
+      }
+      cache.putIfAbsent(type, annotations);
+    }
+    return (List<A>) annotations;
+  }
+
+  private AnnotationIndex superclassIndex() {
+    if (this.element instanceof TypeElement) {
+      TypeMirror superclass = ((TypeElement) this.element).getSuperclass();
+      if (superclass instanceof DeclaredType) {
+        return this.env.getAnnotationIndex(((DeclaredType) superclass).asElement());
+      }
+    }
+    return null;
+  }
+}
@@ -21,18 +21,22 @@ import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.webcohesion.enunciate.javac.decorations.adaptors.ElementAdaptor;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
+import com.webcohesion.enunciate.javac.decorations.type.DecoratedTypeMirror;
+import com.webcohesion.enunciate.javac.javadoc.JavaDoc;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * @author Ryan Heaton
@@ -45,6 +49,15 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
   private final List<ElementDecoration> elementDecorations;
   private final List<TypeMirrorDecoration> typeMirrorDecorations;
   private final List<AnnotationMirrorDecoration> annotationMirrorDecorations;
+  private final Map<Element, Element> decoratedElements = new IdentityHashMap<Element, Element>();
+  private final AtomicLong decoratedElementHits = new AtomicLong();
+  private final AtomicLong decoratedElementAllocations = new AtomicLong();
+  private final Map<JavaDocKey, JavaDoc> javaDocs = new ConcurrentHashMap<JavaDocKey, JavaDoc>();
+  private final Map<Element, AnnotationIndex> annotationIndexes = new ConcurrentHashMap<Element, AnnotationIndex>();
+  private final Map<String, Optional<DecoratedTypeMirror>> knownTypes = new ConcurrentHashMap<String, Optional<DecoratedTypeMirror>>();
+  private final AtomicLong knownTypeHits = new AtomicLong();
+  private final Map<AssignabilityKey, Boolean> knownTypeAssignability = new ConcurrentHashMap<AssignabilityKey, Boolean>();
+  private final AtomicLong knownTypeAssignabilityHits = new AtomicLong();
 
   public DecoratedProcessingEnvironment(ProcessingEnvironment delegate, List<ElementDecoration> elementDecorations, List<TypeMirrorDecoration> typeMirrorDecorations, List<AnnotationMirrorDecoration> annotationMirrorDecorations) {
     this.elementDecorations = elementDecorations;
@@ -123,6 +136,189 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
     }
   }
 
+  /**
+   * Find the decoration of the specified (undecorated) element that was previously interned in this environment.
+   *
+   * @param element The element.
+   * @return The decorated element, or null if the element hasn't been decorated yet.
+   */
+  @SuppressWarnings("unchecked")
+  public <E extends Element> E findDecoratedElement(E element) {
+    E decorated;
+    synchronized (this.decoratedElements) {
+      decorated = (E) this.decoratedElements.get(element);
+    }
+
+    if (decorated != null) {
+      this.decoratedElementHits.incrementAndGet();
+    }
+    return decorated;
+  }
+
+  /**
+   * Intern the decoration of the specified (undecorated) element, so the decorated element (and everything it has
+   * computed and cached) is reused every time the element is decorated again.
+   *
+   * @param element   The element.
+   * @param decorated The decorated element.
+   * @return The interned decorated element, which is a previously-interned decoration if there is one.
+   */
+  @SuppressWarnings("unchecked")
+  public <E extends Element> E internDecoratedElement(E element, E decorated) {
+    synchronized (this.decoratedElements) {
+      E existing = (E) this.decoratedElements.get(element);
+      if (existing != null) {
+        return existing;
+      }
+      this.decoratedElements.put(element, decorated);
+    }
+
+    this.decoratedElementAllocations.incrementAndGet();
+    return decorated;
+  }
+
+  /**
+   * @return The number of times an element was decorated with a previously-interned decoration.
+   */
+  public long getDecoratedElementHits() {
+    return decoratedElementHits.get();
+  }
+
+  /**
+   * @return The number of decorated elements that have been allocated and interned.
+   */
+  public long getDecoratedElementAllocations() {
+    return decoratedElementAllocations.get();
+  }
+
+  /**
+   * Find the JavaDoc that was previously parsed for the specified element, tag handler and doc comment. The JavaDoc is
+   * shared by every decoration of the element, and the inherited comments of the element's overrides and subtypes are
+   * resolved against it.
+   *
+   * @param element    The element.
+   * @param tagHandler The tag handler.
+   * @param docComment The doc comment of the element.
+   * @return The JavaDoc, or null if it hasn't been parsed yet.
+   */
+  public JavaDoc findJavaDoc(Element element, JavaDocTagHandler tagHandler, String docComment) {
+    return this.javaDocs.get(new JavaDocKey(element, tagHandler, docComment));
+  }
+
+  /**
+   * Cache the JavaDoc parsed for the specified element, tag handler and doc comment.
+   *
+   * @param element    The element.
+   * @param tagHandler The tag handler.
+   * @param docComment The doc comment of the element.
+   * @param javaDoc    The parsed JavaDoc.
+   * @return The cached JavaDoc, which is a previously-cached JavaDoc if there is one.
+   */
+  public JavaDoc internJavaDoc(Element element, JavaDocTagHandler tagHandler, String docComment, JavaDoc javaDoc) {
+    JavaDoc existing = this.javaDocs.putIfAbsent(new JavaDocKey(element, tagHandler, docComment), javaDoc);
+    return existing == null ? javaDoc : existing;
+  }
+
+  /**
+   * The index of the annotations of the specified element. The index is shared by every decoration of the element that
+   * doesn't change how its annotations are resolved.
+   *
+   * @param element The element.
+   * @return The index, or null if the annotations of the element can't be indexed (e.g. a property, which merges the
+   * annotations of its accessors).
+   */
+  public AnnotationIndex getAnnotationIndex(Element element) {
+    Element indexed = AnnotationIndex.indexedElement(element);
+    if (indexed == null) {
+      return null;
+    }
+
+    AnnotationIndex index = this.annotationIndexes.get(indexed);
+    if (index == null) {
+      index = new AnnotationIndex(indexed, this);
+      AnnotationIndex existing = this.annotationIndexes.putIfAbsent(indexed, index);
+      index = existing == null ? index : existing;
+    }
+    return index;
+  }
+
+  /**
+   * The mirror of a well-known type (e.g. a JDK or framework type that's checked against over and over), resolved once
+   * for this environment.
+   *
+   * @param key      The key of the type, e.g. its name and how it's resolved.
+   * @param resolver How to resolve the type.
+   * @return The mirror, or null if the type couldn't be resolved.
+   */
+  public DecoratedTypeMirror getKnownType(String key, Supplier<DecoratedTypeMirror> resolver) {
+    Optional<DecoratedTypeMirror> knownType = this.knownTypes.get(key);
+    if (knownType != null) {
+      this.knownTypeHits.incrementAndGet();
+    }
+    else {
+      knownType = Optional.ofNullable(resolver.get());
+      Optional<DecoratedTypeMirror> existing = this.knownTypes.putIfAbsent(key, knownType);
+      knownType = existing == null ? knownType : existing;
+    }
+    return knownType.orElse(null);
+  }
+
+  /**
+   * Whether the specified type is assignable to a well-known type (see {@link #getKnownType(String, Supplier)}). The
+   * result is remembered for the (identity of the) type.
+   *
+   * @param type      The type.
+   * @param knownType The well-known type.
+   * @return Whether the type is assignable to the well-known type.
+   */
+  public boolean isAssignableToKnownType(TypeMirror type, TypeMirror knownType) {
+    while (type instanceof DecoratedTypeMirror) {
+      type = ((DecoratedTypeMirror<?>) type).getDelegate();
+    }
+    while (knownType instanceof DecoratedTypeMirror) {
+      knownType = ((DecoratedTypeMirror<?>) knownType).getDelegate();
+    }
+
+    AssignabilityKey key = new AssignabilityKey(type, knownType);
+    Boolean assignable = this.knownTypeAssignability.get(key);
+    if (assignable != null) {
+      this.knownTypeAssignabilityHits.incrementAndGet();
+    }
+    else {
+      assignable = this.delegate.getTypeUtils().isAssignable(type, knownType);
+      this.knownTypeAssignability.put(key, assignable);
+    }
+    return assignable;
+  }
+
+  /**
+   * @return The number of well-known types that have been resolved.
+   */
+  public long getKnownTypeResolutions() {
+    return this.knownTypes.size();
+  }
+
+  /**
+   * @return The number of times a well-known type was reused instead of resolved again.
+   */
+  public long getKnownTypeHits() {
+    return this.knownTypeHits.get();
+  }
+
+  /**
+   * @return The number of assignability checks against well-known types that have been computed.
+   */
+  public long getKnownTypeAssignabilityChecks() {
+    return this.knownTypeAssignability.size();
+  }
+
+  /**
+   * @return The number of times an assignability check against a well-known type was reused instead of computed again.
+   */
+  public long getKnownTypeAssignabilityHits() {
+    return this.knownTypeAssignabilityHits.get();
+  }
+
   public List<ElementDecoration> getElementDecorations() {
     return elementDecorations;
   }
@@ -134,4 +330,67 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
   public List<AnnotationMirrorDecoration> getAnnotationMirrorDecorations() {
     return annotationMirrorDecorations;
   }
+
+  /**
+   * Key of an assignability check: the identities of the (undecorated) type and well-known type.
+   */
+  private static final class AssignabilityKey {
+
+    private final TypeMirror type;
+    private final TypeMirror knownType;
+
+    private AssignabilityKey(TypeMirror type, TypeMirror knownType) {
+      this.type = type;
+      this.knownType = knownType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof AssignabilityKey)) {
+        return false;
+      }
+
+      AssignabilityKey other = (AssignabilityKey) o;
+      return this.type == other.type && this.knownType == other.knownType;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(this.type) + System.identityHashCode(this.knownType);
+    }
+  }
+
+  /**
+   * Key of a parsed JavaDoc: the identity of the (undecorated) element and the tag handler, and the doc comment.
+   */
+  private static final class JavaDocKey {
+
+    private final Element element;
+    private final JavaDocTagHandler tagHandler;
+    private final String docComment;
+
+    private JavaDocKey(Element element, JavaDocTagHandler tagHandler, String docComment) {
+      while (element instanceof DecoratedElement) {
+        element = ((DecoratedElement) element).getDelegate();
+      }
+      this.element = element;
+      this.tagHandler = tagHandler;
+      this.docComment = docComment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof JavaDocKey)) {
+        return false;
+      }
+
+      JavaDocKey other = (JavaDocKey) o;
+      return this.element == other.element && this.tagHandler == other.tagHandler && Objects.equals(this.docComment, other.docComment);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(this.element) + System.identityHashCode(this.tagHandler)) + Objects.hashCode(this.docComment);
+    }
+  }
 }
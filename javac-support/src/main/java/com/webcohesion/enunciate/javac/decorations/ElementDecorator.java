@@ -39,7 +39,8 @@ public class ElementDecorator<E extends Element> extends SimpleElementVisitor14<
 
 
   /**
-   * Decorates a declaration.
+   * Decorates a declaration. Decorations are interned by the processing environment, so decorating the same declaration
+   * again yields the same decorated declaration.
    *
    * @param element The declaration to decorate.
    * @param env The processing environment.
@@ -54,8 +55,12 @@ public class ElementDecorator<E extends Element> extends SimpleElementVisitor14<
       return element;
     }
 
-    ElementDecorator<E> decorator = new ElementDecorator<E>(env);
-    return element.accept(decorator, null);
+    E decorated = env.findDecoratedElement(element);
+    if (decorated == null) {
+      ElementDecorator<E> decorator = new ElementDecorator<E>(env);
+      decorated = env.internDecoratedElement(element, element.accept(decorator, null));
+    }
+    return decorated;
   }
 
   /**
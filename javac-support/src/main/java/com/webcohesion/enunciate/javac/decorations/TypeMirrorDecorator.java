@@ -56,6 +56,41 @@ public class TypeMirrorDecorator<T extends TypeMirror> extends SimpleTypeVisitor
     return typeMirror.accept(decorator, null);
   }
 
+  /**
+   * Decorate a new copy of a type mirror. Decorated elements are interned per environment, so the mirrors they cache
+   * are shared by every caller; use a copy before attaching per-use state such as a deferred doc comment.
+   *
+   * @param typeMirror The mirror to copy.
+   * @param env The environment.
+   * @return A decorated type mirror that isn't shared.
+   */
+  public static <T extends TypeMirror> T decorateCopy(T typeMirror, DecoratedProcessingEnvironment env) {
+    if (typeMirror instanceof DecoratedTypeMirror) {
+      typeMirror = (T) ((DecoratedTypeMirror) typeMirror).getDelegate();
+    }
+
+    return decorate(typeMirror, env);
+  }
+
+  /**
+   * Decorate a collection of type mirrors, copying any that are already decorated.
+   *
+   * @param typeMirrors The type mirrors to copy.
+   * @param env The environment.
+   * @return The collection of decorated type mirrors.
+   */
+  public static <T extends TypeMirror> List<T> decorateCopies(List<T> typeMirrors, DecoratedProcessingEnvironment env) {
+    if (typeMirrors == null) {
+      return null;
+    }
+
+    ArrayList<T> mirrors = new ArrayList<T>(typeMirrors.size());
+    for (T mirror : typeMirrors) {
+      mirrors.add(decorateCopy(mirror, env));
+    }
+    return mirrors;
+  }
+
   /**
    * Decorate a collection fo type mirrors.
    *
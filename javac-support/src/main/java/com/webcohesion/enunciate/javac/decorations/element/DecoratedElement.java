@@ -15,6 +15,7 @@
  */
 package com.webcohesion.enunciate.javac.decorations.element;
 
+import com.webcohesion.enunciate.javac.decorations.AnnotationIndex;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.ElementDecoration;
 import com.webcohesion.enunciate.javac.decorations.ElementDecorator;
@@ -190,7 +191,12 @@ public class DecoratedElement<E extends Element> implements Element {
 
     JavaDoc javaDoc = this.javaDocs.get(tagHandler);
     if (javaDoc == null) {
-      javaDoc = new JavaDoc(getDocComment(), tagHandler, this, this.env);
+      //the parsed javadoc is shared by all the decorations of the same element.
+      String docComment = getDocComment();
+      javaDoc = this.env.findJavaDoc(this.delegate, tagHandler, docComment);
+      if (javaDoc == null) {
+        javaDoc = this.env.internJavaDoc(this.delegate, tagHandler, docComment, new JavaDoc(docComment, tagHandler, this, this.env));
+      }
       this.javaDocs.put(tagHandler, javaDoc);
     }
 
@@ -290,7 +296,17 @@ public class DecoratedElement<E extends Element> implements Element {
   }
 
   public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
-    return this.delegate.getAnnotation(annotationType);
+    AnnotationIndex index = this.env.getAnnotationIndex(this.delegate);
+    return index == null ? this.delegate.getAnnotation(annotationType) : index.getAnnotation(annotationType);
+  }
+
+  /**
+   * The index of the annotations of this element.
+   *
+   * @return The index, or null if the annotations of this element can't be indexed.
+   */
+  public AnnotationIndex getAnnotationIndex() {
+    return this.env.getAnnotationIndex(this);
   }
 
   @Override
@@ -54,7 +54,7 @@ public class DecoratedExecutableElement extends DecoratedElement<ExecutableEleme
   }
 
   private List<? extends TypeMirror> loadDecoratedThrownTypes(ExecutableElement delegate) {
-    List<? extends TypeMirror> thrownTypes = TypeMirrorDecorator.decorate(delegate.getThrownTypes(), env);
+    List<? extends TypeMirror> thrownTypes = TypeMirrorDecorator.decorateCopies(delegate.getThrownTypes(), env);
 
     if (thrownTypes != null && !thrownTypes.isEmpty()) {
       for (TypeMirror thrownType : thrownTypes) {
@@ -91,7 +91,7 @@ public class DecoratedExecutableElement extends DecoratedElement<ExecutableEleme
   @Override
   public TypeMirror getReturnType() {
     if (this.typeMirror == null) {
-      this.typeMirror = TypeMirrorDecorator.decorate(delegate.getReturnType(), env);
+      this.typeMirror = TypeMirrorDecorator.decorateCopy(delegate.getReturnType(), env);
       ((DecoratedTypeMirror)this.typeMirror).setDeferredDocComment(new ReturnDocComment(this));
     }
     
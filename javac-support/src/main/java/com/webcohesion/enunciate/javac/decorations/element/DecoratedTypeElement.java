@@ -28,6 +28,7 @@ import java.lang.annotation.Inherited;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A decorated type declaration provides:
@@ -41,7 +42,7 @@ import java.util.List;
 public class DecoratedTypeElement extends DecoratedElement<TypeElement> implements TypeElement {
 
   private PackageElement pckg;
-  private List<PropertyElement> properties;
+  private final Map<Class<?>, List<PropertyElement>> properties = new HashMap<Class<?>, List<PropertyElement>>();
   private TypeMirror superclass;
   private List<? extends TypeMirror> interfaces;
   private List<ExecutableElement> methods;
@@ -130,11 +131,14 @@ public class DecoratedTypeElement extends DecoratedElement<TypeElement> implemen
   }
 
   public List<PropertyElement> getProperties(PropertySpec spec) {
-    if (this.properties == null) {
-      this.properties = loadProperties(spec);
+    //property specs only carry the environment, so the properties are cached by the type of spec.
+    List<PropertyElement> properties = this.properties.get(spec.getClass());
+    if (properties == null) {
+      properties = loadProperties(spec);
+      this.properties.put(spec.getClass(), properties);
     }
 
-    return this.properties;
+    return properties;
   }
 
   public List<VariableElement> enumValues() {
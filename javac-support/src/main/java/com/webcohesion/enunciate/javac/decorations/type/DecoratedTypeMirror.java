@@ -96,11 +96,11 @@ public class DecoratedTypeMirror<T extends TypeMirror> implements TypeMirror {
   }
 
   public boolean isInstanceOf(Class<?> clazz) {
-    return isInstanceOf(TypeMirrorUtils.mirrorOf(clazz, this.env, false));
+    return isInstanceOfKnownType(TypeMirrorUtils.mirrorOf(clazz, this.env, false));
   }
 
   public boolean isInstanceOf(String typeName) {
-    return isInstanceOf(TypeMirrorUtils.mirrorOf(typeName, this.env));
+    return isInstanceOfKnownType(TypeMirrorUtils.mirrorOf(typeName, this.env));
   }
 
   public boolean isInstanceOf(Element type) {
@@ -116,6 +116,24 @@ public class DecoratedTypeMirror<T extends TypeMirror> implements TypeMirror {
       this.env.getTypeUtils().isAssignable(this.delegate, candidate);
   }
 
+  /**
+   * Whether this type is an instance of a well-known type (see {@link DecoratedProcessingEnvironment#getKnownType}),
+   * which is remembered for this type.
+   *
+   * @param knownType The well-known type.
+   * @return Whether this type is an instance of the well-known type.
+   */
+  private boolean isInstanceOfKnownType(TypeMirror knownType) {
+    if (knownType == null || knownType.getKind() != TypeKind.DECLARED) {
+      //arrays and primitives aren't interned.
+      return isInstanceOf(knownType);
+    }
+
+    return getKind() != TypeKind.EXECUTABLE &&
+      getKind() != TypeKind.PACKAGE &&
+      this.env.isAssignableToKnownType(this.delegate, knownType);
+  }
+
   public boolean isAnnotation() {
     return isDeclared() && ((DeclaredType)this.delegate).asElement().getKind() == ElementKind.ANNOTATION_TYPE;
   }
@@ -125,15 +143,15 @@ public class DecoratedTypeMirror<T extends TypeMirror> implements TypeMirror {
   }
 
   public boolean isCollection() {
-    return isInstanceOf(TypeMirrorUtils.collectionTypeErasure(this.env));
+    return isInstanceOfKnownType(TypeMirrorUtils.collectionTypeErasure(this.env));
   }
 
   public boolean isStream() {
-    return isInstanceOf(TypeMirrorUtils.streamTypeErasure(this.env));
+    return isInstanceOfKnownType(TypeMirrorUtils.streamTypeErasure(this.env));
   }
 
   public boolean isList() {
-    return isInstanceOf(TypeMirrorUtils.listTypeErasure(this.env));
+    return isInstanceOfKnownType(TypeMirrorUtils.listTypeErasure(this.env));
   }
 
   public boolean isNull() {
@@ -38,6 +38,8 @@ public class TypeMirrorUtils {
   private static final String LIST_TYPE_ERASURE_PROPERTY = "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#LIST_TYPE_ERASURE_PROPERTY";
   private static final String STREAM_TYPE_PROPERTY = "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#STREAM_TYPE_PROPERTY";
   private static final String STREAM_TYPE_ERASURE_PROPERTY = "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#STREAM_TYPE_ERASURE_PROPERTY";
+  private static final String KNOWN_CLASS_PREFIX = "class:";
+  private static final String KNOWN_NAME_PREFIX = "name:";
 
   private TypeMirrorUtils() {}
 
@@ -53,17 +55,26 @@ public class TypeMirrorUtils {
       return (DecoratedTypeMirror) env.getTypeUtils().getPrimitiveType(TypeKind.valueOf(clazz.getName().toUpperCase()));
     }
     else {
-      TypeElement element = env.getElementUtils().getTypeElement(clazz.getCanonicalName());
-      if (element == null && !require) {
-        return null;
+      DecoratedTypeMirror mirror;
+      if (env instanceof DecoratedProcessingEnvironment) {
+        mirror = ((DecoratedProcessingEnvironment) env).getKnownType(KNOWN_CLASS_PREFIX + clazz.getName(), () -> declaredMirrorOf(clazz, env));
       }
-      else if (element == null) {
+      else {
+        mirror = declaredMirrorOf(clazz, env);
+      }
+
+      if (mirror == null && require) {
         throw new IllegalStateException("Unable to find mirror for " + clazz.getCanonicalName());
       }
-      return (DecoratedTypeMirror) element.asType();
+      return mirror;
     }
   }
 
+  private static DecoratedTypeMirror declaredMirrorOf(Class<?> clazz, ProcessingEnvironment env) {
+    TypeElement element = env.getElementUtils().getTypeElement(clazz.getCanonicalName());
+    return element == null ? null : (DecoratedTypeMirror) element.asType();
+  }
+
   public static DecoratedTypeMirror mirrorOf(String typeName, DecoratedProcessingEnvironment env) {
     return mirrorOf(typeName, env, false);
   }
@@ -98,7 +109,8 @@ public class TypeMirrorUtils {
   public static DecoratedDeclaredType collectionType(DecoratedProcessingEnvironment env) {
     DecoratedDeclaredType collectionType = (DecoratedDeclaredType) env.getProperty(COLLECTION_TYPE_PROPERTY);
     if (collectionType == null) {
-      collectionType = (DecoratedDeclaredType) env.getElementUtils().getTypeElement(Collection.class.getName()).asType();
+      //the raw type, like the list type.
+      collectionType = (DecoratedDeclaredType) env.getTypeUtils().erasure(env.getElementUtils().getTypeElement(Collection.class.getName()).asType());
       env.setProperty(COLLECTION_TYPE_PROPERTY, collectionType);
     }
     return collectionType;
@@ -108,7 +120,7 @@ public class TypeMirrorUtils {
     DecoratedDeclaredType collectionType = (DecoratedDeclaredType) env.getProperty(COLLECTION_TYPE_ERASURE_PROPERTY);
     if (collectionType == null) {
       collectionType = (DecoratedDeclaredType) env.getTypeUtils().erasure(collectionType(env));
-      env.setProperty(COLLECTION_TYPE_PROPERTY, collectionType);
+      env.setProperty(COLLECTION_TYPE_ERASURE_PROPERTY, collectionType);
     }
     return collectionType;
   }
@@ -126,7 +138,7 @@ public class TypeMirrorUtils {
     DecoratedDeclaredType listType = (DecoratedDeclaredType) env.getProperty(LIST_TYPE_ERASURE_PROPERTY);
     if (listType == null) {
       listType = (DecoratedDeclaredType) env.getTypeUtils().erasure(listType(env));
-      env.setProperty(LIST_TYPE_PROPERTY, listType);
+      env.setProperty(LIST_TYPE_ERASURE_PROPERTY, listType);
     }
     return listType;
   }
@@ -157,11 +169,6 @@ public class TypeMirrorUtils {
   }
 
   private static DecoratedTypeMirror mirrorOf(String typeName, DecoratedProcessingEnvironment env, boolean inArray) {
-    DecoratedTypeMirror cached = (DecoratedTypeMirror) env.getProperty(mirrorKey(typeName));
-    if (cached != null) {
-      return cached;
-    }
-
     if (typeName.startsWith("[")) {
       return (DecoratedTypeMirror) env.getTypeUtils().getArrayType(mirrorOf(typeName.substring(1), env, true));
     }
@@ -201,20 +208,16 @@ public class TypeMirrorUtils {
         }
       }
       catch (IllegalArgumentException e) {
-        TypeElement element = env.getElementUtils().getTypeElement(typeName);
-        if (element != null) {
-          return (DecoratedTypeMirror) env.getTypeUtils().getDeclaredType(element);
-        }
+        return env.getKnownType(KNOWN_NAME_PREFIX + typeName, () -> {
+          TypeElement element = env.getElementUtils().getTypeElement(typeName);
+          return element == null ? null : (DecoratedTypeMirror) env.getTypeUtils().getDeclaredType(element);
+        });
       }
     }
 
     return null;
   }
 
-  private static String mirrorKey(String typeName) {
-    return "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#MIRROR_OF_" + typeName;
-  }
-
   public static DecoratedTypeMirror getComponentType(DecoratedTypeMirror typeMirror, DecoratedProcessingEnvironment env) {
     if (typeMirror.isCollection()) {
       List<? extends TypeMirror> itemTypes = ((DeclaredType) typeMirror).getTypeArguments();
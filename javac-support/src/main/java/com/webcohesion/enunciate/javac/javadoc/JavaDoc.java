@@ -27,10 +27,12 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,13 +59,23 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
   }
 
   protected String value;
+  private JavaDocTagHandler unresolvedTagHandler;
+  private DecoratedElement unresolvedTagContext;
+  private volatile boolean tagsResolved = true;
+  private boolean sealed = false;
 
   private JavaDoc(String value) {
     this.value = value;
+    this.sealed = true;
   }
 
   public JavaDoc(String docComment, JavaDocTagHandler tagHandler, DecoratedElement context, DecoratedProcessingEnvironment env) {
     init(docComment, tagHandler, context, env);
+    //instances are shared through the processing environment, so they can't be modified once they're built.
+    this.sealed = true;
+    if (this.tagsResolved) {
+      sealTags();
+    }
   }
 
   public static JavaDoc createStaticJavaDoc(String value) {
@@ -125,16 +137,195 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
 
     if (tagHandler != null) {
       this.value = resolveJavaDocSemantics(null, this.value, tagHandler, context);
-      for (Map.Entry<String, JavaDocTagList> entry : entrySet()) {
-        JavaDocTagList tagValues = entry.getValue();
-        for (int i = 0; i < tagValues.size(); i++) {
-          String value = tagValues.get(i);
-          tagValues.set(i, resolveJavaDocSemantics(entry.getKey(), value, tagHandler, context));
+      if (!isEmpty()) {
+        //the block tags are resolved the first time they're asked for.
+        this.unresolvedTagHandler = tagHandler;
+        this.unresolvedTagContext = context;
+        this.tagsResolved = false;
+      }
+    }
+  }
+
+  /**
+   * Resolves the semantics of the block tags, if they haven't been resolved yet.
+   */
+  private void resolveTags() {
+    if (!this.tagsResolved) {
+      synchronized (this) {
+        if (!this.tagsResolved) {
+          for (Map.Entry<String, JavaDocTagList> entry : super.entrySet()) {
+            JavaDocTagList tagValues = entry.getValue();
+            for (int i = 0; i < tagValues.size(); i++) {
+              String value = tagValues.get(i);
+              tagValues.set(i, resolveJavaDocSemantics(entry.getKey(), value, this.unresolvedTagHandler, this.unresolvedTagContext));
+            }
+          }
+          this.unresolvedTagHandler = null;
+          this.unresolvedTagContext = null;
+          sealTags();
+          this.tagsResolved = true;
         }
       }
     }
   }
 
+  private void sealTags() {
+    for (JavaDocTagList tagValues : super.values()) {
+      tagValues.sealed = true;
+    }
+  }
+
+  private void checkMutable() {
+    if (this.sealed) {
+      throw new UnsupportedOperationException("JavaDoc is unmodifiable.");
+    }
+  }
+
+  @Override
+  public JavaDocTagList get(Object key) {
+    resolveTags();
+    return super.get(key);
+  }
+
+  @Override
+  public JavaDocTagList getOrDefault(Object key, JavaDocTagList defaultValue) {
+    resolveTags();
+    return super.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    resolveTags();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public Collection<JavaDocTagList> values() {
+    resolveTags();
+    return this.sealed ? Collections.unmodifiableCollection(super.values()) : super.values();
+  }
+
+  @Override
+  public Set<Map.Entry<String, JavaDocTagList>> entrySet() {
+    resolveTags();
+    Set<Map.Entry<String, JavaDocTagList>> entries = super.entrySet();
+    if (!this.sealed) {
+      return entries;
+    }
+
+    return new AbstractSet<Map.Entry<String, JavaDocTagList>>() {
+      @Override
+      public Iterator<Map.Entry<String, JavaDocTagList>> iterator() {
+        Iterator<Map.Entry<String, JavaDocTagList>> it = entries.iterator();
+        return new Iterator<Map.Entry<String, JavaDocTagList>>() {
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          public Map.Entry<String, JavaDocTagList> next() {
+            return new AbstractMap.SimpleImmutableEntry<>(it.next());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+    };
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return this.sealed ? Collections.unmodifiableSet(super.keySet()) : super.keySet();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super JavaDocTagList> action) {
+    resolveTags();
+    super.forEach(action);
+  }
+
+  @Override
+  public JavaDocTagList put(String key, JavaDocTagList value) {
+    checkMutable();
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends JavaDocTagList> m) {
+    checkMutable();
+    super.putAll(m);
+  }
+
+  @Override
+  public JavaDocTagList putIfAbsent(String key, JavaDocTagList value) {
+    checkMutable();
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public JavaDocTagList remove(Object key) {
+    checkMutable();
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    checkMutable();
+    return super.remove(key, value);
+  }
+
+  @Override
+  public JavaDocTagList replace(String key, JavaDocTagList value) {
+    checkMutable();
+    return super.replace(key, value);
+  }
+
+  @Override
+  public boolean replace(String key, JavaDocTagList oldValue, JavaDocTagList newValue) {
+    checkMutable();
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super JavaDocTagList, ? extends JavaDocTagList> function) {
+    checkMutable();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public JavaDocTagList computeIfAbsent(String key, Function<? super String, ? extends JavaDocTagList> mappingFunction) {
+    checkMutable();
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public JavaDocTagList computeIfPresent(String key, BiFunction<? super String, ? super JavaDocTagList, ? extends JavaDocTagList> remappingFunction) {
+    checkMutable();
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public JavaDocTagList compute(String key, BiFunction<? super String, ? super JavaDocTagList, ? extends JavaDocTagList> remappingFunction) {
+    checkMutable();
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public JavaDocTagList merge(String key, JavaDocTagList value, BiFunction<? super JavaDocTagList, ? super JavaDocTagList, ? extends JavaDocTagList> remappingFunction) {
+    checkMutable();
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public void clear() {
+    checkMutable();
+    super.clear();
+  }
+
   public static int indexOfFirstWhitespace(String line) {
     int result = line.length();
     for (char ws : WHITESPACE_CHARS) {
@@ -189,7 +380,7 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
       this.value = value;
     }
     else {
-      JavaDocTagList tagList = get(tag);
+      JavaDocTagList tagList = super.get(tag);
       if (tagList == null) {
         tagList = new JavaDocTagList(value);
         put(tag, tagList);
@@ -288,7 +479,7 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
 
     if (context.getReturnType() != null && context.getReturnType().getKind() != TypeKind.VOID) {
       //need a return tag.
-      JavaDocTagList returnTag = get("return");
+      JavaDocTagList returnTag = super.get("return");
       String returnValue = returnTag == null ? "" : returnTag.toString();
       if (valueInherits(returnValue)) {
         JavaDocTagList inheritedTag = inherited.get("return");
@@ -311,7 +502,7 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
 
     List<? extends VariableElement> parameterNames = context.getParameters();
     if (parameterNames != null && !parameterNames.isEmpty()) {
-      JavaDocTagList paramTags = get("param");
+      JavaDocTagList paramTags = super.get("param");
       for (VariableElement param : parameterNames) {
         String paramName = param.getSimpleName().toString();
         String paramValue = "";
@@ -403,10 +594,12 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
   }
 
   /**
-   * A list of values for a javadoc tag.
+   * A list of values for a javadoc tag. The list becomes unmodifiable once the owning javadoc is built.
    */
   public static class JavaDocTagList extends ArrayList<String> {
 
+    private boolean sealed = false;
+
     /**
      * To construct a tag list, at least one value must be supplied.
      *
@@ -423,6 +616,101 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
       return get(0);
     }
 
+    private void checkMutable() {
+      if (this.sealed) {
+        throw new UnsupportedOperationException("JavaDoc tag list is unmodifiable.");
+      }
+    }
+
+    @Override
+    public boolean add(String value) {
+      checkMutable();
+      return super.add(value);
+    }
+
+    @Override
+    public void add(int index, String value) {
+      checkMutable();
+      super.add(index, value);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> values) {
+      checkMutable();
+      return super.addAll(values);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends String> values) {
+      checkMutable();
+      return super.addAll(index, values);
+    }
+
+    @Override
+    public String set(int index, String value) {
+      checkMutable();
+      return super.set(index, value);
+    }
+
+    @Override
+    public String remove(int index) {
+      checkMutable();
+      return super.remove(index);
+    }
+
+    @Override
+    public boolean remove(Object value) {
+      checkMutable();
+      return super.remove(value);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> values) {
+      checkMutable();
+      return super.removeAll(values);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> values) {
+      checkMutable();
+      return super.retainAll(values);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super String> filter) {
+      checkMutable();
+      return super.removeIf(filter);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+      checkMutable();
+      super.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<String> operator) {
+      checkMutable();
+      super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(Comparator<? super String> c) {
+      checkMutable();
+      super.sort(c);
+    }
+
+    @Override
+    public void clear() {
+      checkMutable();
+      super.clear();
+    }
+
+    @Override
+    public List<String> subList(int fromIndex, int toIndex) {
+      return this.sealed ? Collections.unmodifiableList(super.subList(fromIndex, toIndex)) : super.subList(fromIndex, toIndex);
+    }
+
   }
 
 }
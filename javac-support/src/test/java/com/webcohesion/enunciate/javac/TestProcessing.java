@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+import java.util.function.Consumer;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+
+/**
+ * Runs code against the model of some sources, in the first round of annotation processing. The test classes are on
+ * the classpath of the sources.
+ *
+ * @author Ryan Heaton
+ */
+public class TestProcessing {
+
+  private TestProcessing() {}
+
+  /**
+   * Runs the specified code against the model of the specified sources.
+   *
+   * @param sources The sources, by the qualified name of their (first) type.
+   * @param test    The code to run.
+   */
+  public static void process(Map<String, String> sources, Consumer<DecoratedProcessingEnvironment> test) throws Exception {
+    List<JavaFileObject> files = new ArrayList<>();
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      files.add(new SimpleJavaFileObject(URI.create("string:///" + source.getKey().replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+          return source.getValue();
+        }
+      });
+    }
+
+    String classpath = new File(TestProcessing.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    TestProcessor processor = new TestProcessor(test);
+    JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null, Arrays.asList("-proc:only", "-classpath", classpath), null, files);
+    task.setProcessors(Collections.singletonList(processor));
+    try {
+      task.call();
+    }
+    catch (RuntimeException e) {
+      //javac wraps what is thrown by the processor (e.g. a failed assertion).
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+
+    if (!processor.processed) {
+      throw new IllegalStateException("The sources weren't processed.");
+    }
+  }
+
+  @SupportedAnnotationTypes("*")
+  private static class TestProcessor extends AbstractProcessor {
+
+    private final Consumer<DecoratedProcessingEnvironment> test;
+    private boolean processed = false;
+
+    private TestProcessor(Consumer<DecoratedProcessingEnvironment> test) {
+      this.test = test;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (!this.processed) {
+        this.processed = true;
+        this.test.accept(new DecoratedProcessingEnvironment(this.processingEnv, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()));
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+
+import com.webcohesion.enunciate.javac.TestProcessing;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class AnnotationIndexTest {
+
+  @Inherited
+  public @interface Marked {
+    String value();
+  }
+
+  public @interface Plain {
+    String value();
+  }
+
+  @Marked("meta")
+  public @interface Stereotype {
+  }
+
+  @Stereotype
+  public @interface Composed {
+  }
+
+  @CycleB
+  public @interface CycleA {
+  }
+
+  @CycleA
+  public @interface CycleB {
+  }
+
+  private static final String SOURCE = "package p;\n"
+    + "import com.webcohesion.enunciate.javac.decorations.AnnotationIndexTest.*;\n"
+    + "@Marked(\"base\") @Plain(\"base\") class Base { }\n"
+    + "class Sub extends Base { }\n"
+    + "@Plain(\"sub\") class PlainSub extends Base { }\n"
+    + "@Stereotype class Stereotyped { }\n"
+    + "@Composed class Composite { }\n"
+    + "@CycleA class Cyclic { }\n"
+    + "@Plain(\"outer\") class Outer { @Plain(\"inner\") class Inner { @Plain(\"method\") void method() { } } }\n";
+
+  @Test
+  public void testInheritedAndDeclaredAnnotations() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Base", SOURCE), env -> {
+      AnnotationIndex sub = env.getAnnotationIndex(type(env, "p.Sub"));
+      assertEquals("base", sub.getAnnotation(Marked.class).value());
+      //not @Inherited.
+      assertNull(sub.getAnnotation(Plain.class));
+      assertEquals("sub", env.getAnnotationIndex(type(env, "p.PlainSub")).getAnnotation(Plain.class).value());
+
+      //the scoped annotations: the element, its enclosing elements, then its superclasses.
+      assertEquals(Arrays.asList("sub", "base"), values(env.getAnnotationIndex(type(env, "p.PlainSub")).getAnnotations(Plain.class, false)));
+      ExecutableElement method = ElementFilter.methodsIn(type(env, "p.Outer.Inner").getEnclosedElements()).get(0);
+      assertEquals(Arrays.asList("method", "inner", "outer"), values(env.getAnnotationIndex(method).getAnnotations(Plain.class, false)));
+
+      //same as javac.
+      for (String type : Arrays.asList("p.Base", "p.Sub", "p.PlainSub", "p.Stereotyped")) {
+        TypeElement element = type(env, type);
+        assertEquals(String.valueOf(element.getAnnotation(Marked.class)), String.valueOf(env.getAnnotationIndex(element).getAnnotation(Marked.class)));
+        assertEquals(String.valueOf(element.getAnnotation(Plain.class)), String.valueOf(env.getAnnotationIndex(element).getAnnotation(Plain.class)));
+      }
+    });
+  }
+
+  @Test
+  public void testMetaAnnotations() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Base", SOURCE), env -> {
+      AnnotationIndex stereotyped = env.getAnnotationIndex(type(env, "p.Stereotyped"));
+      assertNull(stereotyped.getAnnotation(Marked.class));
+      assertEquals("meta", stereotyped.getMetaAnnotation(Marked.class).value());
+      assertEquals(Collections.singletonList("meta"), values(stereotyped.getAnnotations(Marked.class, true)));
+      assertEquals(Collections.emptyList(), stereotyped.getAnnotations(Marked.class, false));
+
+      //two levels deep.
+      assertEquals("meta", env.getAnnotationIndex(type(env, "p.Composite")).getMetaAnnotation(Marked.class).value());
+
+      //annotation types that annotate each other.
+      AnnotationIndex cyclic = env.getAnnotationIndex(type(env, "p.Cyclic"));
+      assertNull(cyclic.getMetaAnnotation(Marked.class));
+      assertNotNull(cyclic.getMetaAnnotation(CycleB.class));
+    });
+  }
+
+  @Test
+  public void testRepeatedLookups() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Base", SOURCE), env -> {
+      TypeElement sub = type(env, "p.Sub");
+      AnnotationIndex index = env.getAnnotationIndex(sub);
+      assertSame(index, env.getAnnotationIndex(sub));
+      assertSame(index, env.getAnnotationIndex(env.getElementUtils().getTypeElement("p.Sub")));
+
+      Marked marked = index.getAnnotation(Marked.class);
+      assertSame(marked, index.getAnnotation(Marked.class));
+      assertSame(marked, new DecoratedTypeElement(sub, env).getAnnotation(Marked.class));
+      assertNull(index.getAnnotation(Plain.class));
+      assertNull(index.getAnnotation(Plain.class));
+      assertSame(index.getAnnotations(Marked.class, true), index.getAnnotations(Marked.class, true));
+    });
+  }
+
+  @Test
+  public void testTransparentDecorations() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Base", SOURCE), env -> {
+      TypeElement base = type(env, "p.Base");
+      AnnotationIndex index = env.getAnnotationIndex(base);
+
+      //a plain decoration resolves annotations like the element it decorates.
+      assertSame(index, env.getAnnotationIndex(new DecoratedTypeElement(base, env)));
+      assertSame(index, env.getAnnotationIndex(new DecoratedTypeElement(base, env) { }));
+
+      //a decoration that changes how annotations are resolved doesn't share the index.
+      DecoratedTypeElement overriding = new DecoratedTypeElement(base, env) {
+        @Override
+        public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+          return null;
+        }
+      };
+      assertNull(env.getAnnotationIndex(overriding));
+      assertNull(overriding.getAnnotationIndex());
+      assertNull(overriding.getAnnotation(Marked.class));
+    });
+  }
+
+  private static TypeElement type(DecoratedProcessingEnvironment env, String name) {
+    TypeElement type = env.getElementUtils().getTypeElement(name);
+    assertNotNull(name, type);
+    return type;
+  }
+
+  private static List<String> values(List<? extends Annotation> annotations) {
+    return annotations.stream().map(a -> a instanceof Marked ? ((Marked) a).value() : ((Plain) a).value()).collect(Collectors.toList());
+  }
+
+}
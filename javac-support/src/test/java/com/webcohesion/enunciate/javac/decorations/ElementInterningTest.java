@@ -0,0 +1,151 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations;
+
+import java.util.Collections;
+import java.util.List;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+
+import com.webcohesion.enunciate.javac.TestProcessing;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedExecutableElement;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
+import com.webcohesion.enunciate.javac.decorations.element.ElementUtils;
+import com.webcohesion.enunciate.javac.decorations.element.PropertyElement;
+import com.webcohesion.enunciate.javac.decorations.type.DecoratedTypeMirror;
+import com.webcohesion.enunciate.javac.javadoc.DocComment;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class ElementInterningTest {
+
+  private static final String SOURCE = "package p;\n"
+    + "class Bean {\n"
+    + "  private String name;\n"
+    + "  public String getName() { return name; }\n"
+    + "  public void setName(String name) { this.name = name; }\n"
+    + "}\n"
+    + "class Service {\n"
+    + "  /** @return the first bean */\n"
+    + "  Bean first() { return null; }\n"
+    + "  /** @return the second bean */\n"
+    + "  Bean second() { return null; }\n"
+    + "}\n";
+
+  @Test
+  public void testSameDecorationForSameElement() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      TypeElement bean = env.getElementUtils().getTypeElement("p.Bean");
+      assertTrue(bean instanceof DecoratedTypeElement);
+      assertSame(bean, env.getElementUtils().getTypeElement("p.Bean"));
+
+      TypeElement undecorated = ((DecoratedTypeElement) bean).getDelegate();
+      long allocations = env.getDecoratedElementAllocations();
+      long hits = env.getDecoratedElementHits();
+      assertSame(bean, ElementDecorator.decorate(undecorated, env));
+      assertSame(bean, env.findDecoratedElement(undecorated));
+      assertEquals(allocations, env.getDecoratedElementAllocations());
+      assertEquals(hits + 2, env.getDecoratedElementHits());
+
+      //enclosed elements are interned too.
+      List<ExecutableElement> methods = ElementFilter.methodsIn(bean.getEnclosedElements());
+      assertSame(methods.get(0), ElementDecorator.decorate(((DecoratedElement<?>) methods.get(0)).getDelegate(), env));
+      assertSame(bean, methods.get(0).getEnclosingElement());
+
+      //a decoration that loses the race to be interned gives way to the one that won.
+      allocations = env.getDecoratedElementAllocations();
+      DecoratedTypeElement other = new DecoratedTypeElement(undecorated, env);
+      assertSame(bean, env.internDecoratedElement(undecorated, other));
+      assertEquals(allocations, env.getDecoratedElementAllocations());
+    });
+  }
+
+  @Test
+  public void testPropertiesCachedPerSpec() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      DecoratedTypeElement bean = (DecoratedTypeElement) env.getElementUtils().getTypeElement("p.Bean");
+      List<PropertyElement> properties = bean.getProperties();
+      assertFalse(properties.isEmpty());
+      assertSame(properties, bean.getProperties());
+      assertSame(properties, bean.getProperties(new ElementUtils.DefaultPropertySpec(env)));
+
+      //another kind of spec gets its own properties.
+      ElementUtils.DefaultPropertySpec noProperties = new ElementUtils.DefaultPropertySpec(env) {
+        @Override
+        public boolean isGetter(DecoratedExecutableElement executable) {
+          return false;
+        }
+
+        @Override
+        public boolean isSetter(DecoratedExecutableElement executable) {
+          return false;
+        }
+      };
+      assertEquals(Collections.emptyList(), bean.getProperties(noProperties));
+      assertSame(properties, bean.getProperties());
+    });
+  }
+
+  @Test
+  public void testDeferredDocsDontLeak() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      TypeElement bean = env.getElementUtils().getTypeElement("p.Bean");
+      List<ExecutableElement> methods = ElementFilter.methodsIn(env.getElementUtils().getTypeElement("p.Service").getEnclosedElements());
+      DecoratedTypeMirror<?> first = (DecoratedTypeMirror<?>) methods.get(0).getReturnType();
+      DecoratedTypeMirror<?> second = (DecoratedTypeMirror<?>) methods.get(1).getReturnType();
+      assertNotSame(first, second);
+      assertEquals("the first bean", first.getDocComment());
+      assertEquals("the second bean", second.getDocComment());
+
+      //the mirror of an interned type is shared; per-use docs go on a copy.
+      DecoratedTypeMirror<?> shared = (DecoratedTypeMirror<?>) bean.asType();
+      assertSame(shared, bean.asType());
+      DecoratedTypeMirror<?> copy = TypeMirrorDecorator.decorateCopy(shared, env);
+      assertNotSame(shared, copy);
+      assertEquals(shared, copy);
+      copy.setDeferredDocComment(new FixedDocComment("copied"));
+      assertEquals("copied", copy.getDocComment());
+      assertEquals("", shared.getDocComment());
+
+      //an element decorating an interned method doesn't write its docs onto the interned method's return type.
+      DecoratedExecutableElement wrapper = new DecoratedExecutableElement(methods.get(0), env);
+      ((DecoratedTypeMirror<?>) wrapper.getReturnType()).setDeferredDocComment(new FixedDocComment("wrapped"));
+      assertEquals("the first bean", ((DecoratedTypeMirror<?>) methods.get(0).getReturnType()).getDocComment());
+    });
+  }
+
+  private static class FixedDocComment implements DocComment {
+
+    private final String value;
+
+    private FixedDocComment(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String get(JavaDocTagHandler tagHandler) {
+      return value;
+    }
+  }
+
+}
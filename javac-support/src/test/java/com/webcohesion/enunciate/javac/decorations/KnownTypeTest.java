@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+import com.webcohesion.enunciate.javac.TestProcessing;
+import com.webcohesion.enunciate.javac.decorations.type.DecoratedDeclaredType;
+import com.webcohesion.enunciate.javac.decorations.type.DecoratedTypeMirror;
+import com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class KnownTypeTest {
+
+  private static final String SOURCE = "package p;\n"
+    + "class Bean {\n"
+    + "  java.util.List<String> names;\n"
+    + "}\n";
+
+  @Test
+  public void testKnownTypeResolvedOnce() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      AtomicInteger resolutions = new AtomicInteger();
+      DecoratedTypeMirror string = TypeMirrorUtils.mirrorOf(String.class, env);
+      long resolved = env.getKnownTypeResolutions();
+      long hits = env.getKnownTypeHits();
+
+      assertSame(string, env.getKnownType("test:string", () -> { resolutions.incrementAndGet(); return string; }));
+      assertSame(string, env.getKnownType("test:string", () -> { resolutions.incrementAndGet(); return null; }));
+      assertEquals(1, resolutions.get());
+
+      //types that can't be resolved are remembered too.
+      assertNull(env.getKnownType("test:missing", () -> { resolutions.incrementAndGet(); return null; }));
+      assertNull(env.getKnownType("test:missing", () -> { resolutions.incrementAndGet(); return string; }));
+      assertEquals(2, resolutions.get());
+
+      assertEquals(resolved + 2, env.getKnownTypeResolutions());
+      assertEquals(hits + 2, env.getKnownTypeHits());
+
+      //mirrorOf resolves well-known types through the environment.
+      assertSame(string, TypeMirrorUtils.mirrorOf(String.class, env));
+      assertSame(TypeMirrorUtils.mirrorOf("p.Bean", env), TypeMirrorUtils.mirrorOf("p.Bean", env));
+      assertNull(TypeMirrorUtils.mirrorOf("p.Missing", env));
+    });
+  }
+
+  @Test
+  public void testAssignabilityRememberedByIdentity() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      TypeMirror charSequence = TypeMirrorUtils.mirrorOf(CharSequence.class, env);
+      DecoratedTypeMirror string = TypeMirrorUtils.mirrorOf(String.class, env);
+      DecoratedTypeMirror integer = TypeMirrorUtils.mirrorOf(Integer.class, env);
+      long checks = env.getKnownTypeAssignabilityChecks();
+      long hits = env.getKnownTypeAssignabilityHits();
+
+      assertTrue(env.isAssignableToKnownType(string, charSequence));
+      assertFalse(env.isAssignableToKnownType(integer, charSequence));
+      assertEquals(checks + 2, env.getKnownTypeAssignabilityChecks());
+
+      //the decorated and undecorated mirrors are the same type.
+      assertTrue(env.isAssignableToKnownType(string.getDelegate(), charSequence));
+      assertFalse(env.isAssignableToKnownType(integer, ((DecoratedTypeMirror<?>) charSequence).getDelegate()));
+      assertEquals(checks + 2, env.getKnownTypeAssignabilityChecks());
+      assertEquals(hits + 2, env.getKnownTypeAssignabilityHits());
+
+      //an equal but distinct mirror is checked on its own.
+      TypeElement stringElement = env.getElementUtils().getTypeElement(String.class.getName());
+      TypeMirror otherString = env.getTypeUtils().getDeclaredType(stringElement);
+      assertNotSame(((DecoratedTypeMirror<?>) otherString).getDelegate(), string.getDelegate());
+      assertTrue(env.isAssignableToKnownType(otherString, charSequence));
+      assertEquals(checks + 3, env.getKnownTypeAssignabilityChecks());
+
+      //the decorated checks go through the environment.
+      TypeElement bean = env.getElementUtils().getTypeElement("p.Bean");
+      DecoratedTypeMirror names = (DecoratedTypeMirror) bean.getEnclosedElements().stream()
+        .filter(e -> e.getSimpleName().contentEquals("names")).findFirst().get().asType();
+      assertTrue(names.isCollection());
+      assertTrue(names.isList());
+      assertFalse(names.isStream());
+      assertTrue(string.isInstanceOf(CharSequence.class));
+      assertFalse(integer.isInstanceOf(CharSequence.class.getName()));
+      assertFalse(string.isCollection());
+      long computed = env.getKnownTypeAssignabilityChecks();
+      assertTrue(names.isCollection());
+      assertTrue(names.isInstanceOf(List.class.getName()));
+      assertEquals(computed, env.getKnownTypeAssignabilityChecks());
+    });
+  }
+
+  @Test
+  public void testContainerTypesCachedUnderTheirOwnKeys() throws Exception {
+    TestProcessing.process(Collections.singletonMap("p.Bean", SOURCE), env -> {
+      DecoratedDeclaredType collectionType = TypeMirrorUtils.collectionType(env);
+      DecoratedDeclaredType collectionTypeErasure = TypeMirrorUtils.collectionTypeErasure(env);
+      assertSame(collectionType, env.getProperty("com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#COLLECTION_TYPE_PROPERTY"));
+      assertSame(collectionTypeErasure, env.getProperty("com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#COLLECTION_TYPE_ERASURE_PROPERTY"));
+      assertSame(collectionType, TypeMirrorUtils.collectionType(env));
+      assertSame(collectionTypeErasure, TypeMirrorUtils.collectionTypeErasure(env));
+
+      DecoratedDeclaredType listType = TypeMirrorUtils.listType(env);
+      DecoratedDeclaredType listTypeErasure = TypeMirrorUtils.listTypeErasure(env);
+      assertSame(listType, env.getProperty("com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#LIST_TYPE_PROPERTY"));
+      assertSame(listTypeErasure, env.getProperty("com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#LIST_TYPE_ERASURE_PROPERTY"));
+      assertSame(listType, TypeMirrorUtils.listType(env));
+      assertSame(listTypeErasure, TypeMirrorUtils.listTypeErasure(env));
+
+      //the collection type is the raw type, like the list type.
+      assertTrue(collectionType.getTypeArguments().isEmpty());
+      assertTrue(listType.getTypeArguments().isEmpty());
+      assertTrue(env.getTypeUtils().isSameType(collectionType, collectionTypeErasure));
+    });
+  }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.javadoc;
+
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JavaDocTest {
+
+  @Test
+  public void blockTagsResolvedOnDemand() {
+    final List<String> resolved = new ArrayList<>();
+    JavaDocTagHandler handler = new JavaDocTagHandler() {
+      @Override
+      public String getTypeId() {
+        return "test";
+      }
+
+      @Override
+      public String onInlineTag(String tagName, String tagText, DecoratedElement context) {
+        return "<" + tagText + ">";
+      }
+
+      @Override
+      public String onBlockTag(String tagName, String value, DecoratedElement context) {
+        resolved.add(tagName);
+        return value;
+      }
+    };
+
+    JavaDoc javaDoc = new JavaDoc("The {@code value}.\n\n@param one the {@code first}\n@return the {@code result}", handler, null, null);
+    assertEquals("The <value>.", javaDoc.toString());
+    assertEquals(1, resolved.size());
+
+    assertEquals("the <result>", javaDoc.get("return").toString());
+    assertEquals("one the <first>", javaDoc.get("param").toString());
+    assertEquals(3, resolved.size());
+
+    javaDoc.get("param");
+    assertEquals(3, resolved.size());
+  }
+
+  @Test
+  public void unmodifiable() {
+    JavaDoc javaDoc = new JavaDoc("The value.\n\n@param one the first\n@param two the second", null, null, null);
+    assertEquals(2, javaDoc.get("param").size());
+
+    assertUnsupported(() -> javaDoc.put("return", new JavaDoc.JavaDocTagList("the result")));
+    assertUnsupported(() -> javaDoc.remove("param"));
+    assertUnsupported(javaDoc::clear);
+    assertUnsupported(() -> javaDoc.keySet().clear());
+    assertUnsupported(() -> javaDoc.entrySet().iterator().next().setValue(new JavaDoc.JavaDocTagList("other")));
+    assertUnsupported(() -> javaDoc.get("param").add("three the third"));
+    assertUnsupported(() -> javaDoc.get("param").set(0, "one the other"));
+    assertUnsupported(() -> javaDoc.get("param").subList(0, 1).clear());
+    assertUnsupported(() -> JavaDoc.EMPTY.put("return", new JavaDoc.JavaDocTagList("the result")));
+
+    assertEquals("one the first", javaDoc.get("param").get(0));
+    assertEquals(2, javaDoc.get("param").size());
+    assertEquals(1, javaDoc.size());
+  }
+
+  private static void assertUnsupported(Runnable mutation) {
+    try {
+      mutation.run();
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      //fall through.
+    }
+  }
+
+}
@@ -18,6 +18,8 @@ package com.webcohesion.enunciate.modules.jaxb;
 import com.webcohesion.enunciate.CompletionFailureException;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.EnunciateException;
+import com.webcohesion.enunciate.api.ApiRegistrationCache;
+import com.webcohesion.enunciate.api.ApiRegistrationContext;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
 import com.webcohesion.enunciate.javac.decorations.element.ElementUtils;
 import com.webcohesion.enunciate.javac.decorations.type.DecoratedDeclaredType;
@@ -30,6 +32,7 @@ import com.webcohesion.enunciate.modules.jaxb.model.types.KnownXmlType;
 import com.webcohesion.enunciate.modules.jaxb.model.types.XmlType;
 import com.webcohesion.enunciate.modules.jaxb.model.util.JAXBUtil;
 import com.webcohesion.enunciate.modules.jaxb.model.util.MapType;
+import com.webcohesion.enunciate.util.Memoized;
 import com.webcohesion.enunciate.util.OneTimeLogMessage;
 import jakarta.activation.DataHandler;
 import jakarta.xml.bind.JAXBElement;
@@ -47,6 +50,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -67,6 +71,7 @@ public class EnunciateJaxbContext extends EnunciateModuleContext {
   private final Map<String, String> examples;
   private final Map<String, SchemaInfo> schemas;
   private final Map<String, Map<String, XmlSchemaType>> packageSpecifiedTypes;
+  private final ApiRegistrationCache<Map<String, Memoized<String>>> exampleBodies = new ApiRegistrationCache<>();
 
   public EnunciateJaxbContext(EnunciateContext context, boolean disableExamples, Map<String, String> examples) {
     super(context);
@@ -114,6 +119,17 @@ public class EnunciateJaxbContext extends EnunciateModuleContext {
     return disableExamples;
   }
 
+  /**
+   * The bodies of the examples for the specified registration context, keyed by the name of the type of the example and
+   * its containers. Examples are requested for each method that references the type, so each body is written once.
+   *
+   * @param registrationContext The registration context.
+   * @return The bodies of the examples.
+   */
+  public Map<String, Memoized<String>> getExampleBodies(ApiRegistrationContext registrationContext) {
+    return this.exampleBodies.get(registrationContext, c -> new ConcurrentHashMap<>());
+  }
+
   public EnunciateContext getContext() {
     return context;
   }
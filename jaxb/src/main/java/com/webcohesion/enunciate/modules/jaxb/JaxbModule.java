@@ -220,7 +220,11 @@ public class JaxbModule extends BasicProviderModule implements TypeDetectingModu
 
   @Override
   public boolean typeDetected(ClassFile classFile) {
-    return annotationNames(classFile)
-       .anyMatch(classAnnotation -> (XmlType.class.getName().equals(classAnnotation)) || (XmlRootElement.class.getName().equals(classAnnotation)));
+    return typeDetected(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean typeDetected(ScannedType type) {
+    return type.isAnnotatedWith(XmlType.class.getName()) || type.isAnnotatedWith(XmlRootElement.class.getName());
   }
 }
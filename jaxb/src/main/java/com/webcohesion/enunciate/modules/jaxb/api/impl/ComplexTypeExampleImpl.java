@@ -33,6 +33,7 @@ import com.webcohesion.enunciate.modules.jaxb.model.types.XmlClassType;
 import com.webcohesion.enunciate.modules.jaxb.model.types.XmlType;
 import com.webcohesion.enunciate.modules.jaxb.model.types.XmlTypeFactory;
 import com.webcohesion.enunciate.util.ExampleUtils;
+import com.webcohesion.enunciate.util.Memoized;
 import com.webcohesion.enunciate.util.TypeHintUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -58,6 +59,14 @@ import java.util.List;
  */
 public class ComplexTypeExampleImpl extends ExampleImpl {
 
+  //looking up the factory implementations is expensive, so the factories are shared (creating builders and transformers is synchronized on them).
+  private static final DocumentBuilderFactory BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+  private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+  static {
+    BUILDER_FACTORY.setNamespaceAware(true);
+  }
+
   private final ComplexTypeDefinition typeDefinition;
   private final List<DataTypeReference.ContainerType> containers;
   private final ApiRegistrationContext registrationContext;
@@ -74,10 +83,20 @@ public class ComplexTypeExampleImpl extends ExampleImpl {
 
   @Override
   public String getBody() {
+    StringBuilder key = new StringBuilder(this.typeDefinition.getQualifiedName());
+    for (DataTypeReference.ContainerType container : this.containers) {
+      key.append('#').append(container.name());
+    }
+    //the body is written outside of the map so the writes of other examples aren't blocked.
+    return this.typeDefinition.getContext().getExampleBodies(this.registrationContext).computeIfAbsent(key.toString(), k -> new Memoized<>(this::writeBody)).get();
+  }
+
+  private String writeBody() {
     try {
-      DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-      builderFactory.setNamespaceAware(true);
-      DocumentBuilder domBuilder = builderFactory.newDocumentBuilder();
+      DocumentBuilder domBuilder;
+      synchronized (BUILDER_FACTORY) {
+        domBuilder = BUILDER_FACTORY.newDocumentBuilder();
+      }
       Document document = domBuilder.newDocument();
 
       String rootName = Character.toLowerCase(this.typeDefinition.getSimpleName().charAt(0)) + "-----";
@@ -103,8 +122,10 @@ public class ComplexTypeExampleImpl extends ExampleImpl {
       context.stack = new LinkedList<String>();
       build(rootElement, this.typeDefinition, document, context);
 
-      TransformerFactory transformerFactory = TransformerFactory.newInstance();
-      Transformer transformer = transformerFactory.newTransformer();
+      Transformer transformer;
+      synchronized (TRANSFORMER_FACTORY) {
+        transformer = TRANSFORMER_FACTORY.newTransformer();
+      }
       transformer.setOutputProperty(OutputKeys.INDENT, "yes");
       transformer.setOutputProperty(OutputKeys.METHOD, "xml");
       transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
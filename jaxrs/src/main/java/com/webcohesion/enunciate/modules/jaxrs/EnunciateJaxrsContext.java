@@ -16,6 +16,7 @@
 package com.webcohesion.enunciate.modules.jaxrs;
 
 import com.webcohesion.enunciate.EnunciateContext;
+import com.webcohesion.enunciate.api.ApiRegistrationCache;
 import com.webcohesion.enunciate.api.ApiRegistrationContext;
 import com.webcohesion.enunciate.api.InterfaceDescriptionFile;
 import com.webcohesion.enunciate.api.resources.ResourceGroup;
@@ -57,6 +58,7 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
   private GroupingStrategy groupingStrategy = GroupingStrategy.resource_class;
   private PathSortStrategy pathSortStrategy = PathSortStrategy.breadth_first;
   private InterfaceDescriptionFile wadlFile = null;
+  private final ApiRegistrationCache<List<ResourceGroup>> resourceGroupViews = new ApiRegistrationCache<>();
   private final boolean disableExamples;
 
   public EnunciateJaxrsContext(EnunciateContext context, boolean disableExamples) {
@@ -250,6 +252,7 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
     }
 
     this.rootResources.add(rootResource);
+    this.resourceGroupViews.clear();
     debug("Added %s as a JAX-RS root resource.", rootResource.getQualifiedName());
 
     if (getContext().getProcessingEnvironment().findSourcePosition(rootResource) == null) {
@@ -297,10 +300,12 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
 
   public void setRelativeContextPath(String relativeContextPath) {
     this.relativeContextPath = relativeContextPath;
+    this.resourceGroupViews.clear();
   }
 
   public void setGroupingStrategy(GroupingStrategy groupingStrategy) {
     this.groupingStrategy = groupingStrategy;
+    this.resourceGroupViews.clear();
   }
 
   public PathSortStrategy getPathSortStrategy() {
@@ -309,6 +314,7 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
 
   public void setPathSortStrategy(PathSortStrategy pathSortStrategy) {
     this.pathSortStrategy = pathSortStrategy;
+    this.resourceGroupViews.clear();
   }
 
   public InterfaceDescriptionFile getWadlFile() {
@@ -319,7 +325,18 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
     this.wadlFile = wadlFile;
   }
 
+  /**
+   * The resource groups of the API, as seen by the specified registration context. The groups are computed once per
+   * registration context and are shared (so they must not be modified).
+   *
+   * @param registrationContext The registration context.
+   * @return The resource groups.
+   */
   public List<ResourceGroup> getResourceGroups(ApiRegistrationContext registrationContext) {
+    return this.resourceGroupViews.get(registrationContext, this::loadResourceGroups);
+  }
+
+  protected List<ResourceGroup> loadResourceGroups(ApiRegistrationContext registrationContext) {
     List<ResourceGroup> resourceGroups;
     if (this.groupingStrategy == GroupingStrategy.path) {
       //group resources by path.
@@ -333,7 +350,7 @@ public class EnunciateJaxrsContext extends EnunciateModuleContext {
     }
 
     resourceGroups.sort(Comparator.comparing(ResourceGroup::getLabel));
-    return resourceGroups;
+    return Collections.unmodifiableList(resourceGroups);
   }
 
   public List<ResourceGroup> getResourceGroupsByClass(ApiRegistrationContext registrationContext) {
@@ -318,7 +318,12 @@ public class JaxrsModule extends BasicProviderModule implements TypeDetectingMod
 
   @Override
   public boolean internal(ClassFile classFile) {
-    String classname = classFile.getName();
+    return internal(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean internal(ScannedType type) {
+    String classname = type.getName();
     return classname.startsWith("org.glassfish.jersey")
       || classname.startsWith("com.sun.jersey")
       || classname.startsWith("org.jboss.resteasy")
@@ -327,10 +332,14 @@ public class JaxrsModule extends BasicProviderModule implements TypeDetectingMod
 
   @Override
   public boolean typeDetected(ClassFile classFile) {
-    return annotationNames(classFile).anyMatch(classAnnotation -> 
-       ((jakarta.ws.rs.Path.class.getName().equals(classAnnotation))
-       || (jakarta.ws.rs.ext.Provider.class.getName().equals(classAnnotation))
-       || (jakarta.ws.rs.ApplicationPath.class.getName().equals(classAnnotation))));
+    return typeDetected(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean typeDetected(ScannedType type) {
+    return type.isAnnotatedWith(jakarta.ws.rs.Path.class.getName())
+       || type.isAnnotatedWith(jakarta.ws.rs.ext.Provider.class.getName())
+       || type.isAnnotatedWith(jakarta.ws.rs.ApplicationPath.class.getName());
   }
 
   public class MediaTypeDependencySpec implements DependencySpec {
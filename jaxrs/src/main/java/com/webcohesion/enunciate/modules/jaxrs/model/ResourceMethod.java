@@ -137,7 +137,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
 
       //now resolve any type variables.
       DecoratedTypeMirror returnType = loadReturnType();
-      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorate(variableContext.resolveTypeVariables(returnType, this.env), this.env);
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(variableContext.resolveTypeVariables(returnType, this.env), this.env);
       returnType.setDeferredDocComment(new ReturnDocComment(this));
       outputPayload = returnType.isVoid() || returnType.isInstanceOf(Void.class) ? null : new ResourceRepresentationMetadata(returnType);
     }
@@ -345,7 +345,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
     DecoratedTypeMirror returnType;
     TypeHint hintInfo = getAnnotation(TypeHint.class);
     if (hintInfo != null) {
-      returnType = (DecoratedTypeMirror) TypeHintUtils.getTypeHint(hintInfo, this.env, getReturnType());
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(TypeHintUtils.getTypeHint(hintInfo, this.env, getReturnType()), this.env);
       returnType.setDeferredDocComment(new ReturnDocComment(this));
     }
     else {
@@ -356,7 +356,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
       if (returnType.isClass() && returnType.isInstanceOf("com.sun.jersey.api.JResponse")) {
         DecoratedDeclaredType jresponse = (DecoratedDeclaredType) returnType;
         if (!jresponse.getTypeArguments().isEmpty()) {
-          DecoratedTypeMirror responseType = (DecoratedTypeMirror) TypeMirrorDecorator.decorate(jresponse.getTypeArguments().get(0), this.env);
+          DecoratedTypeMirror responseType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(jresponse.getTypeArguments().get(0), this.env);
           if (responseType.isDeclared()) {
             responseType.setDeferredDocComment(new ReturnDocComment(this));
             returnType = responseType;
@@ -365,7 +365,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
       }
       else if (returnType.isInstanceOf(jakarta.ws.rs.core.Response.class) || returnType.isInstanceOf(java.io.InputStream.class)) {
         //generic response that doesn't have a type hint; we'll just have to assume return type of "object"
-        DecoratedDeclaredType objectType = (DecoratedDeclaredType) TypeMirrorDecorator.decorate(this.env.getElementUtils().getTypeElement(Object.class.getName()).asType(), this.env);
+        DecoratedDeclaredType objectType = (DecoratedDeclaredType) TypeMirrorDecorator.decorateCopy(this.env.getElementUtils().getTypeElement(Object.class.getName()).asType(), this.env);
         objectType.setDeferredDocComment(new ReturnDocComment(this));
         returnType = objectType;
       }
@@ -279,13 +279,22 @@ public class JaxwsModule extends BasicProviderModule implements TypeDetectingMod
 
   @Override
   public boolean internal(ClassFile classFile) {
-    String classname = classFile.getName();
-    return classname.startsWith("com.sun.xml.ws");
+    return internal(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean internal(ScannedType type) {
+    return type.getName().startsWith("com.sun.xml.ws");
   }
 
   @Override
   public boolean typeDetected(ClassFile classFile) {
-    return annotationNames(classFile).anyMatch(classAnnotation -> WebService.class.getName().equals(classAnnotation));
+    return typeDetected(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean typeDetected(ScannedType type) {
+    return type.isAnnotatedWith(WebService.class.getName());
   }
 
   /**
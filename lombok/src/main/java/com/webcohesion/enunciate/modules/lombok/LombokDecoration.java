@@ -5,7 +5,6 @@ import com.webcohesion.enunciate.javac.decorations.ElementDecoration;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedExecutableElement;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -16,18 +15,15 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.util.SimpleElementVisitor9;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.function.Function;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Ryan Heaton
  */
 public class LombokDecoration extends SimpleElementVisitor9<Void, DecoratedProcessingEnvironment> implements ElementDecoration {
 
-  private final Map<String, List<DecoratedExecutableElement>> CACHE = new ConcurrentHashMap<>();
+  private static final String CACHE_PROPERTY = "com.webcohesion.enunciate.modules.lombok.LombokDecoration#CACHE_PROPERTY";
 
   @Override
   public void applyTo(DecoratedElement e, DecoratedProcessingEnvironment env) {
@@ -38,7 +34,17 @@ public class LombokDecoration extends SimpleElementVisitor9<Void, DecoratedProce
   public Void visitType(TypeElement e, DecoratedProcessingEnvironment env) {
     DecoratedTypeElement typeElement = (DecoratedTypeElement) e;
     List<DecoratedExecutableElement> methods = getLombokMethodDecorations(typeElement, env);
-    typeElement.getMethods().addAll(methods);
+    if (!methods.isEmpty()) {
+      //the type may be decorated more than once; only add the methods that aren't there yet.
+      List<ExecutableElement> existing = typeElement.getMethods();
+      Set<ExecutableElement> present = Collections.newSetFromMap(new IdentityHashMap<>());
+      present.addAll(existing);
+      for (DecoratedExecutableElement method : methods) {
+        if (present.add(method)) {
+          existing.add(method);
+        }
+      }
+    }
     return null;
   }
 
@@ -49,48 +55,61 @@ public class LombokDecoration extends SimpleElementVisitor9<Void, DecoratedProce
   }
 
   private List<DecoratedExecutableElement> getLombokMethodDecorations(DecoratedTypeElement element, DecoratedProcessingEnvironment env) {
-    return CACHE.computeIfAbsent(element.getQualifiedName().toString(), fqn -> {
+    Element key = element;
+    while (key instanceof DecoratedElement) {
+      key = ((DecoratedElement<?>) key).getDelegate();
+    }
+
+    return getCache(env).computeIfAbsent(key, k -> {
+      boolean typeGetters = element.getAnnotation(Getter.class) != null || element.getAnnotation(Data.class) != null || element.getAnnotation(Value.class) != null;
+      boolean typeSetters = element.getAnnotation(Setter.class) != null || element.getAnnotation(Data.class) != null || element.getAnnotation(Value.class) != null;
+
+      //index the accessors that are already declared, so each field is checked in constant time.
+      Set<String> getters = new HashSet<>();
+      Set<String> setters = new HashSet<>();
+      for (ExecutableElement method : element.getMethods()) {
+        DecoratedExecutableElement decoratedMethod = (DecoratedExecutableElement) method;
+        String propertyName = decoratedMethod.getPropertyName();
+        if (propertyName != null) {
+          if (decoratedMethod.isGetter()) {
+            getters.add(propertyName);
+          }
+          if (decoratedMethod.isSetter()) {
+            setters.add(propertyName);
+          }
+        }
+      }
+
+      //the accessors get bean-style names even if lombok makes them fluent (@Accessors), because that's how the
+      //properties of the type are detected.
       List<DecoratedExecutableElement> methods = new ArrayList<>();
-      element.getFields().forEach(field -> {
-        if (shouldGenerateGetter(element, field)) {
+      for (VariableElement field : element.getFields()) {
+        String fieldSimpleName = field.getSimpleName().toString();
+        if (!getters.contains(fieldSimpleName) && (typeGetters || field.getAnnotation(Getter.class) != null)) {
           methods.add(new DecoratedExecutableElement(new LombokGeneratedGetter(field, env), env));
         }
-        if (shouldGenerateSetter(element, field)) {
+        if (!setters.contains(fieldSimpleName) && (typeSetters || field.getAnnotation(Setter.class) != null)) {
           methods.add(new DecoratedExecutableElement(new LombokGeneratedSetter(field, env), env));
         }
-      });
+      }
       return methods;
     });
   }
 
-  private boolean shouldGenerateGetter(DecoratedTypeElement element, Element field) {
-    String fieldSimpleName = field.getSimpleName().toString();
-    for (ExecutableElement method : element.getMethods()) {
-      DecoratedExecutableElement decoratedMethod = (DecoratedExecutableElement) method;
-      if (decoratedMethod.getPropertyName() != null && decoratedMethod.getPropertyName().equals(fieldSimpleName) && decoratedMethod.isGetter()) {
-        return false;
+  /**
+   * The generated methods of the types of the specified environment, keyed by the undecorated type, so every decoration
+   * of a type shares them. The cache goes away with the environment (and the compiler model it references).
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<Element, List<DecoratedExecutableElement>> getCache(DecoratedProcessingEnvironment env) {
+    synchronized (env) {
+      Map<Element, List<DecoratedExecutableElement>> cache = (Map<Element, List<DecoratedExecutableElement>>) env.getProperty(CACHE_PROPERTY);
+      if (cache == null) {
+        cache = new ConcurrentHashMap<>();
+        env.setProperty(CACHE_PROPERTY, cache);
       }
+      return cache;
     }
-
-    return field.getAnnotation(Getter.class) != null
-            || element.getAnnotation(Getter.class) != null
-            || element.getAnnotation(Data.class) != null
-            || element.getAnnotation(Value.class) != null;
-  }
-
-  private boolean shouldGenerateSetter(DecoratedTypeElement element, Element field) {
-    String fieldSimpleName = field.getSimpleName().toString();
-    for (ExecutableElement method : element.getMethods()) {
-      DecoratedExecutableElement decoratedMethod = (DecoratedExecutableElement) method;
-      if (decoratedMethod.getPropertyName() != null && decoratedMethod.getPropertyName().equals(fieldSimpleName) && decoratedMethod.isSetter()) {
-        return false;
-      }
-    }
-
-    return field.getAnnotation(Setter.class) != null
-            || element.getAnnotation(Setter.class) != null
-            || element.getAnnotation(Data.class) != null
-            || element.getAnnotation(Value.class) != null;
   }
 
 }
@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.modules.lombok;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedExecutableElement;
+import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
+import lombok.Data;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class LombokDecorationTest {
+
+  @Test
+  public void testFluentAccessors() throws Exception {
+    Map<String, List<String>> properties = decorate("package p;\n"
+      + "@lombok.Data @lombok.experimental.Accessors(fluent = true)\n"
+      + "public class Fluent {\n"
+      + "  private String name;\n"
+      + "  private int age;\n"
+      + "  public int age() { return age; }\n"
+      + "}\n", "p.Fluent");
+
+    //fluent or not, the properties are found by the model.
+    assertEquals(Arrays.asList("age", "name"), properties.get("getters"));
+    assertEquals(Arrays.asList("age", "name"), properties.get("setters"));
+  }
+
+  @Test
+  public void testDeclaredAccessorsAreKept() throws Exception {
+    Map<String, List<String>> properties = decorate("package p;\n"
+      + "@lombok.Getter\n"
+      + "public class Bean {\n"
+      + "  private String name;\n"
+      + "  @lombok.Setter private int age;\n"
+      + "  public String getName() { return name; }\n"
+      + "}\n", "p.Bean");
+
+    assertEquals(Arrays.asList("age", "name"), properties.get("getters"));
+    assertEquals(Collections.singletonList("age"), properties.get("setters"));
+    assertEquals(1, properties.get("declared").size());
+  }
+
+  private static Map<String, List<String>> decorate(String source, String typeName) throws Exception {
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + typeName.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+
+    String lombok = new File(Data.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    DecoratingProcessor processor = new DecoratingProcessor(typeName);
+    JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null, Arrays.asList("-proc:only", "-classpath", lombok), null, Collections.singletonList(file));
+    task.setProcessors(Collections.singletonList(processor));
+    assertTrue(task.call());
+    assertNotNull(processor.properties);
+    return processor.properties;
+  }
+
+  @SupportedAnnotationTypes("*")
+  private static class DecoratingProcessor extends AbstractProcessor {
+
+    private final String typeName;
+    private Map<String, List<String>> properties;
+
+    private DecoratingProcessor(String typeName) {
+      this.typeName = typeName;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (this.properties == null) {
+        DecoratedProcessingEnvironment env = new DecoratedProcessingEnvironment(this.processingEnv, Collections.singletonList(new LombokDecoration()), Collections.emptyList(), Collections.emptyList());
+        TypeElement type = this.processingEnv.getElementUtils().getTypeElement(this.typeName);
+        DecoratedTypeElement decorated = new DecoratedTypeElement(type, env);
+        //decorating the type again doesn't duplicate the generated methods.
+        DecoratedTypeElement again = new DecoratedTypeElement(type, env);
+        assertEquals(decorated.getMethods().size(), again.getMethods().size());
+
+        List<String> getters = new ArrayList<>();
+        List<String> setters = new ArrayList<>();
+        List<String> declared = new ArrayList<>();
+        for (ExecutableElement method : decorated.getMethods()) {
+          DecoratedExecutableElement decoratedMethod = (DecoratedExecutableElement) method;
+          if (decoratedMethod.isGetter()) {
+            getters.add(decoratedMethod.getPropertyName());
+          }
+          if (decoratedMethod.isSetter()) {
+            setters.add(decoratedMethod.getPropertyName());
+          }
+          if (!(decoratedMethod.getDelegate() instanceof LombokGeneratedGetter) && !(decoratedMethod.getDelegate() instanceof LombokGeneratedSetter)) {
+            declared.add(decoratedMethod.getSimpleName().toString());
+          }
+        }
+        Collections.sort(getters);
+        Collections.sort(setters);
+        this.properties = new HashMap<>();
+        this.properties.put("getters", getters);
+        this.properties.put("setters", setters);
+        this.properties.put("declared", declared);
+      }
+      return false;
+    }
+  }
+
+}
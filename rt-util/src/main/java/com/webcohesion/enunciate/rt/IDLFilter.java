@@ -17,99 +17,324 @@ package com.webcohesion.enunciate.rt;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.stream.*;
 import javax.xml.stream.events.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Serves the IDL files (WSDL, WADL, schemas) of the application, replacing the base address that was assumed at build time
+ * with the real base address of the request. The rewritten files are cached per (file, base address) and served with an
+ * ETag, gzipped if the client accepts it.
+ *
+ * The filter accepts the following init parameters:
+ * <ul>
+ *   <li><code>cache-size</code>: the maximum number of rewritten files to keep (default 64, 0 to disable the cache).</li>
+ *   <li><code>gzip</code>: whether to gzip the responses for the clients that accept it (default true).</li>
+ * </ul>
+ *
  * @author Ryan Heaton
  */
 public class IDLFilter implements Filter {
 
+  static final String ASSUMED_BASE_URI_PI = "enunciate-assumed-base-uri";
+  private static final int DEFAULT_CACHE_SIZE = 64;
+
   private ServletContext servletContext = null;
   private XMLInputFactory inputFactory;
   private XMLOutputFactory outputFactory;
+  private String assumedBaseAddress;
+  private boolean gzip = true;
+  private Map<String, IDLContent> cache;
 
   public void init(FilterConfig filterConfig) throws ServletException {
     this.inputFactory = XMLInputFactory.newInstance();
     this.outputFactory = XMLOutputFactory.newInstance();
 
     this.servletContext = filterConfig.getServletContext();
+    this.assumedBaseAddress = this.servletContext.getInitParameter("assumed-base-uri");
+
+    String gzip = filterConfig.getInitParameter("gzip");
+    this.gzip = gzip == null || Boolean.parseBoolean(gzip);
+
+    String cacheSize = filterConfig.getInitParameter("cache-size");
+    final int maxEntries = cacheSize == null ? DEFAULT_CACHE_SIZE : Integer.parseInt(cacheSize.trim());
+    this.cache = new LinkedHashMap<String, IDLContent>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, IDLContent> eldest) {
+        return size() > maxEntries;
+      }
+    };
   }
 
   public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
     HttpServletRequest request = (HttpServletRequest) servletRequest;
     RequestURIParts parts = parseParts(request);
     if (parts != null) {
-      String realBaseAddress = parts.getBaseAddress();
-      String idlPath = parts.getFilePath();
-      InputStream idl = this.servletContext.getResourceAsStream(idlPath);
-      if (idl != null) {
-        servletResponse.setContentType("text/xml");
-        String assumedBaseAddress = this.servletContext.getInitParameter("assumed-base-uri");
-        try {
-          XMLEventReader eventReader = this.inputFactory.createXMLEventReader(idl);
-          XMLEventWriter eventWriter = this.outputFactory.createXMLEventWriter(servletResponse.getWriter());
-          while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isProcessingInstruction()) {
-              String target = ((ProcessingInstruction) event).getTarget();
-              if ("enunciate-assumed-base-uri".equals(target)) {
-                assumedBaseAddress = ((ProcessingInstruction) event).getData();
-                if (assumedBaseAddress.endsWith("/")) {
-                  assumedBaseAddress = assumedBaseAddress.substring(0, assumedBaseAddress.length() - 1);
-                }
-              }
-              continue;
-            }
-            else if (event.getEventType() == XMLStreamConstants.CDATA || event.getEventType() == XMLStreamConstants.CHARACTERS) {
-              String data = ((Characters) event).getData();
-              if (assumedBaseAddress != null && data.contains(assumedBaseAddress)) {
-                data = data.replace(assumedBaseAddress, realBaseAddress);
-                event = new DelegatingCharacters(((Characters) event), data);
-              }
-            }
-            else if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
-              List<Attribute> attributes = new ArrayList<Attribute>();
-              Iterator attributesIt = ((StartElement) event).getAttributes();
-              while (attributesIt.hasNext()) {
-                Attribute attribute = (Attribute) attributesIt.next();
-                String value = attribute.getValue();
-                if (assumedBaseAddress != null && value.contains(assumedBaseAddress)) {
-                  value = value.replace(assumedBaseAddress, realBaseAddress);
-                  attribute = new DelegatingAttribute(attribute, value);
-                  event = new DelegatingStartElement(((StartElement) event), attributes);
-                }
-                attributes.add(attribute);
-              }
-            }
-
-            eventWriter.add(event);
-          }
+      IDLContent content = getContent(parts.getFilePath(), parts.getBaseAddress());
+      if (content != null) {
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        boolean gzipped = this.gzip && acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = gzipped ? content.gzipETag : content.etag;
+        if (this.gzip) {
+          response.setHeader("Vary", "Accept-Encoding");
+        }
+        response.setHeader("ETag", etag);
 
-          eventReader.close();
-          eventWriter.flush();
-          eventWriter.close();
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+          response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
           return;
         }
-        catch (XMLStreamException e) {
-          throw new ServletException(e);
+
+        byte[] bytes = gzipped ? content.gzipped() : content.bytes;
+        response.setContentType("text/xml");
+        if (gzipped) {
+          response.setHeader("Content-Encoding", "gzip");
         }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+        return;
       }
     }
 
     chain.doFilter(servletRequest, servletResponse);
   }
 
+  /**
+   * Get the content of the specified IDL file, rewritten for the specified base address.
+   *
+   * @param idlPath         The path to the IDL file.
+   * @param realBaseAddress The real base address.
+   * @return The content, or null if there's no such file.
+   */
+  protected IDLContent getContent(String idlPath, String realBaseAddress) throws IOException, ServletException {
+    String key = idlPath + ' ' + realBaseAddress;
+    IDLContent content;
+    synchronized (this.cache) {
+      content = this.cache.get(key);
+    }
+
+    if (content == null) {
+      byte[] idl;
+      try (InputStream in = this.servletContext.getResourceAsStream(idlPath)) {
+        if (in == null) {
+          return null;
+        }
+        idl = in.readAllBytes();
+      }
+
+      content = new IDLContent(rewrite(idl, realBaseAddress));
+      synchronized (this.cache) {
+        this.cache.put(key, content);
+      }
+    }
+
+    return content;
+  }
+
+  /**
+   * Replace the assumed base address in the specified IDL with the real base address.
+   *
+   * @param idl             The IDL.
+   * @param realBaseAddress The real base address.
+   * @return The rewritten IDL.
+   */
+  protected byte[] rewrite(byte[] idl, String realBaseAddress) throws ServletException {
+    byte[] copied = copyUnparsed(idl);
+    if (copied != null) {
+      return copied;
+    }
+
+    String assumedBaseAddress = this.assumedBaseAddress;
+    String encoding = null;
+    try {
+      StringWriter out = new StringWriter();
+      XMLEventReader eventReader = this.inputFactory.createXMLEventReader(new ByteArrayInputStream(idl));
+      XMLEventWriter eventWriter = this.outputFactory.createXMLEventWriter(out);
+      while (eventReader.hasNext()) {
+        XMLEvent event = eventReader.nextEvent();
+        if (event.isStartDocument() && ((StartDocument) event).encodingSet()) {
+          encoding = ((StartDocument) event).getCharacterEncodingScheme();
+        }
+        else if (event.isProcessingInstruction()) {
+          String target = ((ProcessingInstruction) event).getTarget();
+          if (ASSUMED_BASE_URI_PI.equals(target)) {
+            assumedBaseAddress = trimBaseAddress(((ProcessingInstruction) event).getData());
+          }
+          continue;
+        }
+        else if (event.getEventType() == XMLStreamConstants.CDATA || event.getEventType() == XMLStreamConstants.CHARACTERS) {
+          String data = ((Characters) event).getData();
+          if (assumedBaseAddress != null && data.contains(assumedBaseAddress)) {
+            data = data.replace(assumedBaseAddress, realBaseAddress);
+            event = new DelegatingCharacters(((Characters) event), data);
+          }
+        }
+        else if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
+          List<Attribute> attributes = new ArrayList<Attribute>();
+          Iterator attributesIt = ((StartElement) event).getAttributes();
+          while (attributesIt.hasNext()) {
+            Attribute attribute = (Attribute) attributesIt.next();
+            String value = attribute.getValue();
+            if (assumedBaseAddress != null && value.contains(assumedBaseAddress)) {
+              value = value.replace(assumedBaseAddress, realBaseAddress);
+              attribute = new DelegatingAttribute(attribute, value);
+              event = new DelegatingStartElement(((StartElement) event), attributes);
+            }
+            attributes.add(attribute);
+          }
+        }
+
+        eventWriter.add(event);
+      }
+
+      eventReader.close();
+      eventWriter.flush();
+      eventWriter.close();
+      return out.toString().getBytes(encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding));
+    }
+    catch (XMLStreamException | IllegalArgumentException e) {
+      throw new ServletException(e);
+    }
+  }
+
+  /**
+   * Copies the specified IDL without parsing it, if there's nothing to replace in it. That's the case if the only processing
+   * instruction is the one declaring the assumed base address and the assumed base address doesn't occur anywhere else.
+   *
+   * @param idl The IDL.
+   * @return The IDL, minus the processing instruction declaring the assumed base address, or null if it has to be parsed.
+   */
+  private byte[] copyUnparsed(byte[] idl) {
+    if (idl.length >= 2 && (idl[0] == 0 || idl[1] == 0 || (idl[0] & 0xFF) == 0xFE || (idl[0] & 0xFF) == 0xFF)) {
+      //not ASCII-compatible (UTF-16 or the like).
+      return null;
+    }
+
+    //each byte is a char; the ASCII text of a UTF-8 (or Latin-1) document can be searched as is.
+    String text = new String(idl, StandardCharsets.ISO_8859_1);
+    int piStart = -1;
+    int piEnd = -1;
+    String piBaseAddress = null;
+    int index = 0;
+    if (text.startsWith("<?xml") && text.length() > 5 && Character.isWhitespace(text.charAt(5))) {
+      //the xml declaration.
+      index = text.indexOf("?>");
+      if (index < 0) {
+        return null;
+      }
+    }
+
+    while ((index = text.indexOf("<?", index)) >= 0) {
+      int end = text.indexOf("?>", index);
+      if (end < 0 || piStart >= 0 || !text.startsWith(ASSUMED_BASE_URI_PI, index + 2)) {
+        //another processing instruction: the parser drops it.
+        return null;
+      }
+
+      piStart = index;
+      piEnd = end + 2;
+      piBaseAddress = trimBaseAddress(text.substring(index + 2 + ASSUMED_BASE_URI_PI.length(), end).trim());
+      index = piEnd;
+    }
+
+    String remaining = piStart < 0 ? text : text.substring(0, piStart) + text.substring(piEnd);
+    if (occurs(remaining, this.assumedBaseAddress) || occurs(remaining, piBaseAddress)) {
+      return null;
+    }
+
+    if (piStart < 0) {
+      return idl;
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(idl.length);
+    out.write(idl, 0, piStart);
+    out.write(idl, piEnd, idl.length - piEnd);
+    return out.toByteArray();
+  }
+
+  private static boolean occurs(String text, String baseAddress) {
+    if (baseAddress == null || baseAddress.isEmpty()) {
+      return false;
+    }
+
+    for (int i = 0; i < baseAddress.length(); i++) {
+      char ch = baseAddress.charAt(i);
+      if (ch > 0x7F || ch == '&' || ch == '<' || ch == '"' || ch == '\'') {
+        //could be encoded differently in the document; let the parser find it.
+        return true;
+      }
+    }
+
+    return text.contains(baseAddress);
+  }
+
+  private static String trimBaseAddress(String baseAddress) {
+    if (baseAddress.endsWith("/")) {
+      baseAddress = baseAddress.substring(0, baseAddress.length() - 1);
+    }
+    return baseAddress;
+  }
+
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (String coding : acceptEncoding.split(",")) {
+      String[] params = coding.split(";");
+      String name = params[0].trim();
+      if ("gzip".equalsIgnoreCase(name) || "*".equals(name)) {
+        for (int i = 1; i < params.length; i++) {
+          String param = params[i].trim();
+          if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if ("*".equals(candidate) || etag.equals(candidate)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
   protected RequestURIParts parseParts(HttpServletRequest request) {
     StringBuffer requestURI = request.getRequestURL();
     String contextPath = request.getContextPath();
@@ -137,6 +362,60 @@ public class IDLFilter implements Filter {
   }
 
   public void destroy() {
+    if (this.cache != null) {
+      synchronized (this.cache) {
+        this.cache.clear();
+      }
+    }
+  }
+
+  /**
+   * The (rewritten) content of an IDL file.
+   */
+  protected static class IDLContent {
+
+    private final byte[] bytes;
+    private final String etag;
+    private final String gzipETag;
+    private volatile byte[] gzipped;
+
+    public IDLContent(byte[] bytes) {
+      this.bytes = bytes;
+      byte[] digest;
+      try {
+        digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      }
+      catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+      StringBuilder hash = new StringBuilder();
+      for (int i = 0; i < 16; i++) {
+        hash.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+      }
+      this.etag = "\"" + hash + "\"";
+      this.gzipETag = "\"" + hash + "-gzip\"";
+    }
+
+    public byte[] getBytes() {
+      return bytes;
+    }
+
+    public String getETag() {
+      return etag;
+    }
+
+    byte[] gzipped() throws IOException {
+      byte[] gzipped = this.gzipped;
+      if (gzipped == null) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+          gzip.write(this.bytes);
+        }
+        gzipped = out.toByteArray();
+        this.gzipped = gzipped;
+      }
+      return gzipped;
+    }
   }
 
   public static class RequestURIParts {
@@ -24,8 +24,8 @@ import javax.xml.namespace.QName;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,7 +42,12 @@ public class QNameEnumUtil {
   private static final AtomicBoolean WRITE_RELATIVE_URIS = new AtomicBoolean(false);
   private static final QName UNKNOWN_QNAME_ENUM = new QName("enunciate:qname-enum", "UNKNOWN");
   private static final QName EXCLUDED_QNAME_ENUM = new QName("enunciate:qname-enum", "EXCLUDED");
-  private static final Map<Class<? extends Enum>, Map<? extends Enum, QName>> QNAME_CACHE = new ConcurrentHashMap<Class<? extends Enum>, Map<? extends Enum, QName>>();
+  private static final ClassValue<QNameEnumTable> QNAME_ENUM_TABLES = new ClassValue<QNameEnumTable>() {
+    @Override
+    protected QNameEnumTable computeValue(Class<?> clazz) {
+      return new QNameEnumTable(clazz.asSubclass(Enum.class));
+    }
+  };
 
   /**
    * Set the default base uri for resolving qname URIs.
@@ -98,28 +103,13 @@ public class QNameEnumUtil {
       throw new IllegalArgumentException(String.format("Class %s isn't a QName enum.", clazz.getName()));
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.QNAME) {
+    QNameEnumTable table = QNAME_ENUM_TABLES.get(clazz);
+    if (table.base != XmlQNameEnum.BaseType.QNAME) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted from a URI (not QName).");
     }
 
-    Q defaultValue = null;
-    for (Map.Entry<? extends Enum, QName> qNameEntry : qNameMap.entrySet()) {
-      if (qNameEntry.getValue().equals(qname)) {
-        return (Q) qNameEntry.getKey();
-      }
-      else if (defaultValue == null && UNKNOWN_QNAME_ENUM.equals(qNameEntry.getValue())) {
-        defaultValue = (Q) qNameEntry.getKey();
-      }
-    }
-
-    return defaultValue;
+    Enum<?> value = table.byQName.get(qname);
+    return clazz.cast(value == null ? table.unknown : value);
   }
 
   /**
@@ -141,18 +131,12 @@ public class QNameEnumUtil {
     }
     Class<Enum> clazz = e.getDeclaringClass();
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.QNAME) {
+    QNameEnumTable table = QNAME_ENUM_TABLES.get(clazz);
+    if (table.base != XmlQNameEnum.BaseType.QNAME) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted from a URI (not QName).");
     }
 
-    QName result = qNameMap.get(e);
+    QName result = table.qnames.get(e);
     if (result == null) {
       throw new IllegalStateException("Unable to find " + e.getDeclaringClass().getName() + "." + e + " as a QName enum value.");
     }
@@ -203,29 +187,13 @@ public class QNameEnumUtil {
       throw new IllegalArgumentException(String.format("Class %s isn't a QName enum.", clazz.getName()));
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.URI) {
+    QNameEnumTable table = QNAME_ENUM_TABLES.get(clazz);
+    if (table.base != XmlQNameEnum.BaseType.URI) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted to a QName (not URI).");
     }
 
-    Q defaultValue = null;
-    for (Map.Entry<? extends Enum, QName> qNameEntry : qNameMap.entrySet()) {
-      String uri = qNameEntry.getValue().getNamespaceURI() + qNameEntry.getValue().getLocalPart();
-      if (uri.equals(uriValue)) {
-        return (Q) qNameEntry.getKey();
-      }
-      else if (defaultValue == null && UNKNOWN_QNAME_ENUM.equals(qNameEntry.getValue())) {
-        defaultValue = (Q) qNameEntry.getKey();
-      }
-    }
-
-    return defaultValue;
+    Enum<?> value = table.byURI.get(uriValue);
+    return clazz.cast(value == null ? table.unknown : value);
   }
 
   /**
@@ -261,18 +229,12 @@ public class QNameEnumUtil {
     }
     Class<? extends Enum<?>> clazz = e.getDeclaringClass();
 
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.URI) {
+    QNameEnumTable table = QNAME_ENUM_TABLES.get(clazz);
+    if (table.base != XmlQNameEnum.BaseType.URI) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted to a QName (not URI).");
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap((Class<? extends Enum>) clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    QName result = qNameMap.get(e);
+    QName result = table.qnames.get(e);
     if (result == null) {
       throw new IllegalStateException("Unable to find " + e.getDeclaringClass().getName() + "." + e + " as a QName enum value.");
     }
@@ -290,7 +252,7 @@ public class QNameEnumUtil {
     }
   }
 
-  private static <Q extends Enum<Q>> Map<? extends Enum, QName> createQNameMap(Class<Q> clazz) {
+  static <Q extends Enum<Q>> Map<? extends Enum, QName> createQNameMap(Class<Q> clazz) {
     EnumMap<Q, QName> enumQNameEnumMap = new EnumMap<Q, QName>(clazz);
 
     XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
@@ -341,4 +303,41 @@ public class QNameEnumUtil {
     return enumQNameEnumMap;
   }
 
+  /**
+   * The lookup tables of a QName enum, computed once per enum class.
+   */
+  private static final class QNameEnumTable {
+
+    private final XmlQNameEnum.BaseType base;
+    private final Map<? extends Enum, QName> qnames;
+    private final Map<QName, Enum<?>> byQName = new HashMap<QName, Enum<?>>();
+    private final Map<String, Enum<?>> byURI = new HashMap<String, Enum<?>>();
+    private final Enum<?> unknown;
+
+    @SuppressWarnings("unchecked")
+    private QNameEnumTable(Class<? extends Enum> clazz) {
+      this.qnames = createQNameMap((Class) clazz);
+      this.base = clazz.getAnnotation(XmlQNameEnum.class).base();
+
+      Enum<?> unknown = null;
+      for (Map.Entry<? extends Enum, QName> entry : this.qnames.entrySet()) {
+        //first one wins, in the order of declaration.
+        QName qname = entry.getValue();
+        if (!this.byQName.containsKey(qname)) {
+          this.byQName.put(qname, entry.getKey());
+        }
+
+        String uri = qname.getNamespaceURI() + qname.getLocalPart();
+        if (!this.byURI.containsKey(uri)) {
+          this.byURI.put(uri, entry.getKey());
+        }
+
+        if (unknown == null && UNKNOWN_QNAME_ENUM.equals(qname)) {
+          unknown = entry.getKey();
+        }
+      }
+      this.unknown = unknown;
+    }
+  }
+
 }
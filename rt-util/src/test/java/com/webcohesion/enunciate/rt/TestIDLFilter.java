@@ -20,13 +20,15 @@ import junit.framework.TestCase;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Ryan Heaton
@@ -48,25 +50,117 @@ public class TestIDLFilter extends TestCase {
     when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
     when(req.getContextPath()).thenReturn("/mycontext");
     when(context.getResourceAsStream("/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
-    StringWriter writer = new StringWriter();
-    when(res.getWriter()).thenReturn(new PrintWriter(writer));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new CapturingOutputStream(out));
 
     filter.init(filterConfig);
     filter.doFilter(req, res, chain);
-    String actual = writer.toString();
+    String actual = out.toString("UTF-8");
     assertFalse(actual.contains("http://localhost:8080/base"));
+    assertTrue(actual.contains("http://myhost.com/mycontext"));
 
     reset(req, context, res);
     when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
     when(req.getContextPath()).thenReturn("");
     when(context.getResourceAsStream("/mycontext/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
-    writer = new StringWriter();
-    when(res.getWriter()).thenReturn(new PrintWriter(writer));
+    out = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new CapturingOutputStream(out));
 
     filter.init(filterConfig);
     filter.doFilter(req, res, chain);
-    actual = writer.toString();
+    actual = out.toString("UTF-8");
     assertFalse(actual.contains("http://localhost:8080/base"));
   }
 
+  /**
+   * tests that the rewritten files are cached and served with an etag, gzipped if accepted.
+   */
+  public void testCaching() throws Exception {
+    ServletContext context = mock(ServletContext.class);
+    FilterConfig filterConfig = mock(FilterConfig.class);
+    when(filterConfig.getServletContext()).thenReturn(context);
+    when(context.getResourceAsStream("/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
+    FilterChain chain = mock(FilterChain.class);
+    IDLFilter filter = new IDLFilter();
+    filter.init(filterConfig);
+
+    HttpServletRequest req = mock(HttpServletRequest.class);
+    when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
+    when(req.getContextPath()).thenReturn("/mycontext");
+    HttpServletResponse res = mock(HttpServletResponse.class);
+    ByteArrayOutputStream first = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new CapturingOutputStream(first));
+    filter.doFilter(req, res, chain);
+    String etag = filter.getContent("/something/test.wsdl", "http://myhost.com/mycontext").getETag();
+    verify(res).setHeader("ETag", etag);
+
+    //second request: gzipped, from the cache.
+    when(req.getHeader("Accept-Encoding")).thenReturn("deflate, gzip");
+    res = mock(HttpServletResponse.class);
+    ByteArrayOutputStream second = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new CapturingOutputStream(second));
+    filter.doFilter(req, res, chain);
+    verify(res).setHeader("Content-Encoding", "gzip");
+    assertEquals(first.toString("UTF-8"), new String(new GZIPInputStream(new ByteArrayInputStream(second.toByteArray())).readAllBytes(), StandardCharsets.UTF_8));
+    verify(context, times(1)).getResourceAsStream("/something/test.wsdl");
+
+    //third request: not modified.
+    when(req.getHeader("Accept-Encoding")).thenReturn(null);
+    when(req.getHeader("If-None-Match")).thenReturn("\"other\", " + etag);
+    res = mock(HttpServletResponse.class);
+    filter.doFilter(req, res, chain);
+    verify(res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    verify(res, never()).getOutputStream();
+
+    //another base address isn't served from the cache.
+    when(context.getResourceAsStream("/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
+    assertTrue(new String(filter.getContent("/something/test.wsdl", "https://other.com").getBytes(), StandardCharsets.UTF_8).contains("https://other.com/"));
+    assertNull(filter.getContent("/something/missing.wsdl", "https://other.com"));
+    verify(chain, never()).doFilter(any(), any());
+  }
+
+  /**
+   * tests that the files without the assumed base address are copied as is.
+   */
+  public void testCopyUnparsed() throws Exception {
+    ServletContext context = mock(ServletContext.class);
+    FilterConfig filterConfig = mock(FilterConfig.class);
+    when(filterConfig.getServletContext()).thenReturn(context);
+    IDLFilter filter = new IDLFilter();
+    filter.init(filterConfig);
+
+    String idl = "<?xml version=\"1.0\"?>\n<?enunciate-assumed-base-uri http://localhost:8080/base/?>\n<a   b='c'><!-- kept --></a>";
+    assertEquals("<?xml version=\"1.0\"?>\n\n<a   b='c'><!-- kept --></a>", new String(filter.rewrite(idl.getBytes(StandardCharsets.UTF_8), "http://myhost.com"), StandardCharsets.UTF_8));
+
+    idl = "<?enunciate-assumed-base-uri http://localhost:8080/base/?><a b='http://localhost:8080/base/c'/>";
+    assertTrue(new String(filter.rewrite(idl.getBytes(StandardCharsets.UTF_8), "http://myhost.com"), StandardCharsets.UTF_8).contains("http://myhost.com/c"));
+
+    assertTrue(IDLFilter.acceptsGzip("gzip;q=0.5"));
+    assertFalse(IDLFilter.acceptsGzip("gzip;q=0"));
+    assertFalse(IDLFilter.acceptsGzip("identity"));
+  }
+
+  private static class CapturingOutputStream extends ServletOutputStream {
+
+    private final OutputStream out;
+
+    private CapturingOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+    }
+  }
+
 }
@@ -20,6 +20,9 @@ import junit.framework.TestCase;
 import javax.xml.namespace.QName;
 import java.lang.annotation.RetentionPolicy;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Ryan Heaton
@@ -103,4 +106,51 @@ public class TestQNameEnumUtil extends TestCase {
     catch (IllegalArgumentException e) {}
   }
 
+  /**
+   * tests that the lookup tables give the same results as scanning the enum values.
+   */
+  public void testTablesMatchScan() throws Exception {
+    assertTablesMatchScan(SpecialQNameEnum.class, false);
+    assertTablesMatchScan(AnotherSpecialQNameEnum.class, false);
+    assertTablesMatchScan(SpecialURIEnum.class, true);
+  }
+
+  private static <Q extends Enum<Q>> void assertTablesMatchScan(Class<Q> clazz, boolean uri) {
+    Map<? extends Enum, QName> qnames = QNameEnumUtil.createQNameMap(clazz);
+    List<QName> probes = new ArrayList<QName>(qnames.values());
+    for (QName qname : qnames.values()) {
+      probes.add(new QName(qname.getNamespaceURI() + "-other", qname.getLocalPart()));
+      probes.add(new QName(qname.getNamespaceURI(), qname.getLocalPart() + "-other"));
+    }
+    probes.add(new QName("", ""));
+
+    //looked up twice, so the second lookup hits the tables that were computed by the first.
+    for (int i = 0; i < 2; i++) {
+      for (QName probe : probes) {
+        if (uri) {
+          String value = probe.getNamespaceURI() + probe.getLocalPart();
+          assertSame(value, scan(qnames, value, true), QNameEnumUtil.fromURI(value, clazz, null));
+        }
+        else {
+          assertSame(probe.toString(), scan(qnames, probe, false), QNameEnumUtil.fromQName(probe, clazz));
+        }
+      }
+    }
+  }
+
+  private static Enum scan(Map<? extends Enum, QName> qnames, Object value, boolean uri) {
+    QName unknownQName = new QName("enunciate:qname-enum", "UNKNOWN");
+    Enum unknown = null;
+    for (Map.Entry<? extends Enum, QName> entry : qnames.entrySet()) {
+      Object candidate = uri ? entry.getValue().getNamespaceURI() + entry.getValue().getLocalPart() : entry.getValue();
+      if (candidate.equals(value)) {
+        return entry.getKey();
+      }
+      else if (unknown == null && unknownQName.equals(entry.getValue())) {
+        unknown = entry.getKey();
+      }
+    }
+    return unknown;
+  }
+
 }
@@ -40,6 +40,7 @@ import com.webcohesion.enunciate.module.ProjectExtensionModule;
 
 import org.apache.maven.artifact.factory.ArtifactFactory;
 import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
 import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Contributor;
@@ -65,6 +66,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Goal which initializes an Enunciate build process.
@@ -205,6 +207,45 @@ public class ConfigMojo extends AbstractMojo {
   @Parameter ( name = "sourcepath-excludes" )
   protected DependencySourceSpec[] sourcepathExcludes;
 
+  /**
+   * Whether to remember (across builds) which dependencies have a source artifact, so the missing source artifacts aren't
+   * looked up on every build.
+   */
+  @Parameter ( defaultValue = "true", property = "enunciate.sourcepath.cache" )
+  protected boolean sourcepathCache = true;
+
+  /**
+   * The file in which to remember which dependencies have a source artifact. By default, a file in the local repository.
+   */
+  @Parameter ( property = "enunciate.sourcepath.cache.file" )
+  protected File sourcepathCacheFile;
+
+  /**
+   * How long (in hours) to remember that a dependency doesn't have a source artifact.
+   */
+  @Parameter ( defaultValue = "24", property = "enunciate.sourcepath.cache.hours" )
+  protected int sourcepathCacheHours = 24;
+
+  /**
+   * How long (in hours) to remember whether a snapshot dependency has a source artifact. A new snapshot may be deployed
+   * (with or without sources) at any time.
+   */
+  @Parameter ( defaultValue = "1", property = "enunciate.sourcepath.cache.snapshot.hours" )
+  protected int sourcepathCacheSnapshotHours = 1;
+
+  /**
+   * The number of source artifacts to look up concurrently.
+   */
+  @Parameter ( defaultValue = "8", property = "enunciate.sourcepath.threads" )
+  protected int sourcepathThreads = 8;
+
+  /**
+   * Whether to share the Enunciate module class loaders and the classpath scan results with the other executions of the
+   * same build (e.g. the other modules of a multi-module build) that run in the same JVM.
+   */
+  @Parameter ( defaultValue = "false", property = "enunciate.reactor.cache" )
+  protected boolean reactorCache = false;
+
   /**
    * The list of source directories on which to invoke Enunciate. By default, Enunciate will use the project compiler source directories.
    */
@@ -313,9 +354,18 @@ public class ConfigMojo extends AbstractMojo {
 
     //load any modules on the classpath.
     List<URL> pluginClasspath = buildPluginClasspath();
-    ServiceLoader<EnunciateModule> moduleLoader = ServiceLoader.load(EnunciateModule.class, new URLClassLoader(pluginClasspath.toArray(new URL[pluginClasspath.size()]), Thread.currentThread().getContextClassLoader()));
-    for (EnunciateModule module : moduleLoader) {
-      enunciate.addModule(module);
+    if (this.reactorCache && this.session != null) {
+      EnunciateReactorCache cache = EnunciateReactorCache.forSession(this.session);
+      for (EnunciateModule module : cache.loadModules(pluginClasspath, Thread.currentThread().getContextClassLoader())) {
+        enunciate.addModule(module);
+      }
+      enunciate.setSharedScanIndex(cache.getScanIndex());
+    }
+    else {
+      ServiceLoader<EnunciateModule> moduleLoader = ServiceLoader.load(EnunciateModule.class, new URLClassLoader(pluginClasspath.toArray(new URL[pluginClasspath.size()]), Thread.currentThread().getContextClassLoader()));
+      for (EnunciateModule module : moduleLoader) {
+        enunciate.addModule(module);
+      }
     }
 
     //set the compiler arguments.
@@ -638,30 +688,121 @@ public class ConfigMojo extends AbstractMojo {
       }
 
       //now attempt the source path lookup for the needed dependencies
-      List<File> sourcepath = new ArrayList<File>();
-      for (org.apache.maven.artifact.Artifact sourcepathDependency : sourcepathDependencies) {
-        try {
-          org.apache.maven.artifact.Artifact sourceArtifact = this.artifactFactory.createArtifactWithClassifier(sourcepathDependency.getGroupId(), sourcepathDependency.getArtifactId(), sourcepathDependency.getVersion(), sourcepathDependency.getType(), "sources");
-          this.artifactResolver.resolve(sourceArtifact, this.project.getRemoteArtifactRepositories(), this.localRepository);
+      enunciate.setSourcepath(lookupSourcepath(sourcepathDependencies));
+    }
+    else {
+      getLog().warn("[ENUNCIATE] Source path has been disabled. This may result is some missing documentation elements because the source code won't be available.");
+    }
+  }
 
-          if (getLog().isDebugEnabled()) {
-            getLog().debug("[ENUNCIATE] Source artifact found at " + sourceArtifact + ".");
+  /**
+   * Look up the source artifacts of the specified dependencies, concurrently. The dependencies known (from a previous build)
+   * not to have a source artifact aren't looked up again.
+   *
+   * @param sourcepathDependencies The dependencies.
+   * @return The source artifacts that were found, in the order of the dependencies.
+   */
+  protected List<File> lookupSourcepath(List<org.apache.maven.artifact.Artifact> sourcepathDependencies) throws MojoExecutionException {
+    final SourcepathCache cache = this.sourcepathCache ? SourcepathCache.forFile(this.sourcepathCacheFile != null ? this.sourcepathCacheFile : new File(this.localRepository.getBasedir(), ".enunciate/sourcepath-cache.properties")) : null;
+    final long ttl = this.sourcepathCacheHours * 60L * 60L * 1000L;
+    final long snapshotTtl = this.sourcepathCacheSnapshotHours * 60L * 60L * 1000L;
+    final boolean offline = this.session != null && this.session.isOffline();
+
+    List<Callable<File>> lookups = new ArrayList<Callable<File>>(sourcepathDependencies.size());
+    for (final org.apache.maven.artifact.Artifact sourcepathDependency : sourcepathDependencies) {
+      lookups.add(new Callable<File>() {
+        @Override
+        public File call() {
+          //what's remembered about a snapshot expires, because a new snapshot may be deployed at any time.
+          boolean snapshot = sourcepathDependency.isSnapshot();
+          long foundTtl = snapshot ? snapshotTtl : Long.MAX_VALUE;
+          long missingTtl = snapshot ? Math.min(ttl, snapshotTtl) : ttl;
+          String key = sourcepathDependency.getGroupId() + ':' + sourcepathDependency.getArtifactId() + ':' + sourcepathDependency.getType() + ':' + sourcepathDependency.getVersion();
+          if (cache != null) {
+            File sources = cache.getSourceArtifact(key, foundTtl);
+            if (sources != null) {
+              if (getLog().isDebugEnabled()) {
+                getLog().debug("[ENUNCIATE] Source artifact for " + sourcepathDependency + " found at " + sources + " (cached).");
+              }
+              return sources;
+            }
+            else if (cache.isMissing(key, missingTtl, offline)) {
+              if (getLog().isDebugEnabled()) {
+                getLog().debug("[ENUNCIATE] Attempt to find source artifact for " + sourcepathDependency + " skipped because it wasn't found by a previous build.");
+              }
+              return null;
+            }
           }
 
-          sourcepath.add(sourceArtifact.getFile());
-        }
-        catch (Exception e) {
-          if (getLog().isDebugEnabled()) {
-            getLog().debug("[ENUNCIATE] Attempt to find source artifact for " + sourcepathDependency + " failed.");
+          try {
+            org.apache.maven.artifact.Artifact sourceArtifact = artifactFactory.createArtifactWithClassifier(sourcepathDependency.getGroupId(), sourcepathDependency.getArtifactId(), sourcepathDependency.getVersion(), sourcepathDependency.getType(), "sources");
+            artifactResolver.resolve(sourceArtifact, project.getRemoteArtifactRepositories(), localRepository);
+
+            if (getLog().isDebugEnabled()) {
+              getLog().debug("[ENUNCIATE] Source artifact found at " + sourceArtifact + ".");
+            }
+
+            if (cache != null) {
+              cache.recordFound(key, sourceArtifact.getFile());
+            }
+            return sourceArtifact.getFile();
+          }
+          catch (ArtifactNotFoundException e) {
+            if (getLog().isDebugEnabled()) {
+              getLog().debug("[ENUNCIATE] Attempt to find source artifact for " + sourcepathDependency + " failed.");
+            }
+
+            if (cache != null) {
+              cache.recordMissing(key, offline);
+            }
+            return null;
+          }
+          catch (Exception e) {
+            //e.g. the repository couldn't be reached: not remembered, so it's looked up again next time.
+            if (getLog().isDebugEnabled()) {
+              getLog().debug("[ENUNCIATE] Attempt to find source artifact for " + sourcepathDependency + " failed: " + e.getMessage());
+            }
+            return null;
           }
         }
-      }
+      });
+    }
 
-      enunciate.setSourcepath(sourcepath);
+    List<File> sourcepath = new ArrayList<File>();
+    if (lookups.isEmpty()) {
+      return sourcepath;
     }
-    else {
-      getLog().warn("[ENUNCIATE] Source path has been disabled. This may result is some missing documentation elements because the source code won't be available.");
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(this.sourcepathThreads, lookups.size())));
+    try {
+      for (Future<File> lookup : executor.invokeAll(lookups)) {
+        File sources = lookup.get();
+        if (sources != null) {
+          sourcepath.add(sources);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while looking up the source artifacts.", e);
     }
+    catch (ExecutionException e) {
+      throw new MojoExecutionException("Unable to look up the source artifacts.", e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    if (cache != null) {
+      try {
+        cache.save();
+      }
+      catch (IOException e) {
+        getLog().warn("[ENUNCIATE] Unable to save the sourcepath cache: " + e.getMessage());
+      }
+    }
+
+    return sourcepath;
   }
 
   protected void postProcessConfig(Enunciate enunciate) {
@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.mojo;
+
+import com.webcohesion.enunciate.EnunciateScanIndex;
+import com.webcohesion.enunciate.module.EnunciateModule;
+import org.apache.maven.execution.MavenSession;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * What the Enunciate executions of a build (e.g. the modules of a multi-module build) share when they run in the same
+ * JVM: the class loaders of the Enunciate modules (and hence their compiled templates) and the results of the scan of
+ * each classpath entry. The module instances themselves are stateful, so each execution still gets its own, but they're
+ * created from the providers that were already looked up.
+ *
+ * @author Ryan Heaton
+ */
+class EnunciateReactorCache {
+
+  private static final Map<Object, EnunciateReactorCache> CACHES = Collections.synchronizedMap(new WeakHashMap<Object, EnunciateReactorCache>());
+
+  private final Map<List<Object>, List<ServiceLoader.Provider<EnunciateModule>>> moduleProviders = new ConcurrentHashMap<List<Object>, List<ServiceLoader.Provider<EnunciateModule>>>();
+  private final EnunciateScanIndex scanIndex = EnunciateScanIndex.inMemory();
+
+  /**
+   * The cache for the specified build session. The cache is keyed by the execution request of the session, because a
+   * parallel build (<code>-T</code>) gives each project a clone of the session, and the clones share the request. The
+   * cache is released with the request.
+   *
+   * @param session The build session.
+   * @return The cache.
+   */
+  static EnunciateReactorCache forSession(MavenSession session) {
+    Object key = session.getRequest() != null ? session.getRequest() : session;
+    synchronized (CACHES) {
+      EnunciateReactorCache cache = CACHES.get(key);
+      if (cache == null) {
+        cache = new EnunciateReactorCache();
+        CACHES.put(key, cache);
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * Create the Enunciate modules found on the specified classpath.
+   *
+   * @param classpath The (plugin) classpath.
+   * @param parent    The parent class loader.
+   * @return New instances of the modules.
+   */
+  List<EnunciateModule> loadModules(List<URL> classpath, ClassLoader parent) {
+    List<Object> key = new ArrayList<Object>(classpath.size() + 1);
+    key.addAll(classpath.stream().map(URL::toString).collect(Collectors.toList()));
+    key.add(parent);
+
+    List<ServiceLoader.Provider<EnunciateModule>> providers = this.moduleProviders.computeIfAbsent(key, k -> {
+      URLClassLoader loader = new URLClassLoader(classpath.toArray(new URL[classpath.size()]), parent);
+      return ServiceLoader.load(EnunciateModule.class, loader).stream().collect(Collectors.toList());
+    });
+
+    List<EnunciateModule> modules = new ArrayList<EnunciateModule>(providers.size());
+    for (ServiceLoader.Provider<EnunciateModule> provider : providers) {
+      modules.add(provider.get());
+    }
+    return modules;
+  }
+
+  /**
+   * @return The scan index shared by the executions.
+   */
+  EnunciateScanIndex getScanIndex() {
+    return scanIndex;
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.mojo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which dependencies have a source artifact (and where it is) and which don't, so the source artifacts that
+ * don't exist aren't looked up again on every build. The cache is persisted to a file and shared by all the modules of a
+ * build that use the same file. A source artifact that wasn't found by an offline build is only remembered for other
+ * offline builds, because it may well be found in a remote repository.
+ *
+ * @author Ryan Heaton
+ */
+class SourcepathCache {
+
+  private static final ConcurrentMap<File, SourcepathCache> CACHES = new ConcurrentHashMap<File, SourcepathCache>();
+  private static final String FOUND = "found:";
+  private static final String MISSING = "missing:";
+  private static final String MISSING_OFFLINE = "missing-offline:";
+
+  private final File file;
+  private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<String, String>();
+  private final ConcurrentMap<String, String> changes = new ConcurrentHashMap<String, String>();
+
+  private SourcepathCache(File file) {
+    this.file = file;
+    load(this.file, this.entries);
+  }
+
+  /**
+   * The cache persisted to the specified file.
+   *
+   * @param file The file.
+   * @return The cache.
+   */
+  static SourcepathCache forFile(File file) {
+    return CACHES.computeIfAbsent(file.getAbsoluteFile(), SourcepathCache::new);
+  }
+
+  /**
+   * The source artifact recorded for the specified dependency, if it still exists.
+   *
+   * @param key The key of the dependency.
+   * @param ttl How long (in milliseconds) a source artifact is remembered.
+   * @return The source artifact, or null if none was recorded.
+   */
+  File getSourceArtifact(String key, long ttl) {
+    String value = this.entries.get(key);
+    if (value != null && value.startsWith(FOUND)) {
+      String found = value.substring(FOUND.length());
+      long recorded = 0;
+      int separator = found.indexOf(':');
+      if (separator > 0 && isTime(found.substring(0, separator))) {
+        recorded = Long.parseLong(found.substring(0, separator));
+        found = found.substring(separator + 1);
+      }
+
+      File sources = new File(found);
+      if (isCurrent(recorded, ttl) && sources.isFile()) {
+        return sources;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Whether the specified dependency is known not to have a source artifact.
+   *
+   * @param key     The key of the dependency.
+   * @param ttl     How long (in milliseconds) a missing source artifact is remembered.
+   * @param offline Whether the build is offline.
+   * @return Whether the dependency is known not to have a source artifact.
+   */
+  boolean isMissing(String key, long ttl, boolean offline) {
+    String value = this.entries.get(key);
+    if (value != null && value.startsWith(MISSING)) {
+      String recorded = value.substring(MISSING.length());
+      return isTime(recorded) && isCurrent(Long.parseLong(recorded), ttl);
+    }
+    else if (offline && value != null && value.startsWith(MISSING_OFFLINE)) {
+      String recorded = value.substring(MISSING_OFFLINE.length());
+      return isTime(recorded) && isCurrent(Long.parseLong(recorded), ttl);
+    }
+    return false;
+  }
+
+  /**
+   * Record the source artifact of a dependency.
+   *
+   * @param key     The key of the dependency.
+   * @param sources The source artifact.
+   */
+  void recordFound(String key, File sources) {
+    put(key, FOUND + System.currentTimeMillis() + ':' + sources.getAbsolutePath());
+  }
+
+  /**
+   * Record that a dependency doesn't have a source artifact.
+   *
+   * @param key     The key of the dependency.
+   * @param offline Whether the build is offline (and therefore only looked in the local repository).
+   */
+  void recordMissing(String key, boolean offline) {
+    put(key, (offline ? MISSING_OFFLINE : MISSING) + System.currentTimeMillis());
+  }
+
+  private static boolean isCurrent(long recorded, long ttl) {
+    return System.currentTimeMillis() - recorded < ttl;
+  }
+
+  private static boolean isTime(String value) {
+    if (value.isEmpty() || value.length() > 18) {
+      return false;
+    }
+
+    for (int i = 0; i < value.length(); i++) {
+      if (!Character.isDigit(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void put(String key, String value) {
+    if (!value.equals(this.entries.put(key, value))) {
+      this.changes.put(key, value);
+    }
+  }
+
+  /**
+   * Persist the changes to the cache, merged with the changes persisted (e.g. by another build) since the cache was loaded.
+   */
+  synchronized void save() throws IOException {
+    if (this.changes.isEmpty()) {
+      return;
+    }
+
+    Properties properties = new Properties();
+    Map<String, String> persisted = new HashMap<String, String>();
+    load(this.file, persisted);
+    properties.putAll(persisted);
+    for (String key : this.changes.keySet()) {
+      properties.put(key, this.changes.remove(key));
+    }
+
+    this.file.getParentFile().mkdirs();
+    //a unique file in the same directory, so builds sharing the cache don't write over each other's file before it's moved.
+    Path tmp = Files.createTempFile(this.file.getParentFile().toPath(), this.file.getName(), ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        properties.store(out, "Enunciate sourcepath cache");
+      }
+      try {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void load(File file, Map<String, String> entries) {
+    if (file.isFile()) {
+      Properties properties = new Properties();
+      try (InputStream in = new FileInputStream(file)) {
+        properties.load(in);
+      }
+      catch (IOException | IllegalArgumentException e) {
+        //corrupt cache; start over.
+        return;
+      }
+
+      for (String key : properties.stringPropertyNames()) {
+        entries.put(key, properties.getProperty(key));
+      }
+    }
+  }
+}
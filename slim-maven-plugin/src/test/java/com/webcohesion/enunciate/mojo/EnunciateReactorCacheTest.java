@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.mojo;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class EnunciateReactorCacheTest {
+
+  @Test
+  public void testClonedSessionsShareTheCache() throws Exception {
+    MavenSession session = newSession();
+    EnunciateReactorCache cache = EnunciateReactorCache.forSession(session);
+    assertSame(cache, EnunciateReactorCache.forSession(session));
+
+    //a parallel build gives each project its own clone of the session.
+    MavenSession clone1 = session.clone();
+    MavenSession clone2 = session.clone();
+    assertNotSame(clone1, clone2);
+    assertSame(cache, EnunciateReactorCache.forSession(clone1));
+    assertSame(cache, EnunciateReactorCache.forSession(clone2));
+
+    //another build doesn't.
+    assertNotSame(cache, EnunciateReactorCache.forSession(newSession()));
+  }
+
+  @SuppressWarnings("deprecation")
+  private static MavenSession newSession() {
+    return new MavenSession(null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.mojo;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class LookupSourcepathTest {
+
+  private File dir;
+  private ConfigMojo mojo;
+  private final AtomicInteger resolutions = new AtomicInteger();
+  private volatile CountDownLatch started;
+  private final AtomicBoolean concurrent = new AtomicBoolean(true);
+
+  @Before
+  public void setUp() throws Exception {
+    this.dir = Files.createTempDirectory("enunciate-sourcepath").toFile();
+    this.mojo = new ConfigMojo();
+    this.mojo.sourcepathCacheFile = new File(this.dir, "sourcepath-cache.properties");
+    this.mojo.project = new MavenProject();
+    this.mojo.localRepository = mock(ArtifactRepository.class);
+
+    this.mojo.artifactFactory = mock(ArtifactFactory.class);
+    when(this.mojo.artifactFactory.createArtifactWithClassifier(anyString(), anyString(), anyString(), anyString(), anyString()))
+      .thenAnswer(invocation -> artifact(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(4)));
+
+    //only the "lib" artifacts have a source artifact.
+    this.mojo.artifactResolver = mock(ArtifactResolver.class);
+    doAnswer(invocation -> {
+      this.resolutions.incrementAndGet();
+      CountDownLatch started = this.started;
+      if (started != null) {
+        started.countDown();
+        if (!started.await(10, TimeUnit.SECONDS)) {
+          this.concurrent.set(false);
+        }
+      }
+
+      Artifact artifact = invocation.getArgument(0);
+      if (!artifact.getArtifactId().startsWith("lib")) {
+        throw new ArtifactNotFoundException("No sources.", artifact);
+      }
+      File sources = new File(this.dir, artifact.getArtifactId() + "-sources.jar");
+      sources.createNewFile();
+      artifact.setFile(sources);
+      return null;
+    }).when(this.mojo.artifactResolver).resolve(any(Artifact.class), any(), any());
+  }
+
+  @After
+  public void tearDown() {
+    for (File file : this.dir.listFiles()) {
+      file.delete();
+    }
+    this.dir.delete();
+  }
+
+  @Test
+  public void testSourcesLookedUpConcurrentlyAndRemembered() throws Exception {
+    List<Artifact> dependencies = Arrays.asList(artifact("lib-a", "1.0", null), artifact("app-b", "1.0", null), artifact("lib-c", "1.0", null), artifact("app-d", "1.0", null));
+    this.mojo.sourcepathThreads = dependencies.size();
+    this.started = new CountDownLatch(dependencies.size());
+
+    List<File> sourcepath = this.mojo.lookupSourcepath(dependencies);
+    assertTrue("The source artifacts weren't looked up concurrently.", this.concurrent.get());
+    assertEquals(Arrays.asList(new File(this.dir, "lib-a-sources.jar"), new File(this.dir, "lib-c-sources.jar")), sourcepath);
+    assertEquals(4, this.resolutions.get());
+    assertTrue(this.mojo.sourcepathCacheFile.isFile());
+
+    //the found and the missing source artifacts are remembered.
+    this.started = null;
+    assertEquals(sourcepath, this.mojo.lookupSourcepath(dependencies));
+    assertEquals(4, this.resolutions.get());
+  }
+
+  @Test
+  public void testOfflineMissesOnlyRememberedOffline() throws Exception {
+    List<Artifact> dependencies = Collections.singletonList(artifact("app-a", "1.0", null));
+    this.mojo.session = session(true);
+    assertTrue(this.mojo.lookupSourcepath(dependencies).isEmpty());
+    assertTrue(this.mojo.lookupSourcepath(dependencies).isEmpty());
+    assertEquals(1, this.resolutions.get());
+
+    this.mojo.session = session(false);
+    assertTrue(this.mojo.lookupSourcepath(dependencies).isEmpty());
+    assertTrue(this.mojo.lookupSourcepath(dependencies).isEmpty());
+    assertEquals(2, this.resolutions.get());
+  }
+
+  @Test
+  public void testSnapshotsExpire() throws Exception {
+    List<Artifact> dependencies = Arrays.asList(artifact("lib-a", "1.0-SNAPSHOT", null), artifact("app-b", "1.0-SNAPSHOT", null));
+    this.mojo.lookupSourcepath(dependencies);
+    this.mojo.lookupSourcepath(dependencies);
+    assertEquals(2, this.resolutions.get());
+
+    this.mojo.sourcepathCacheSnapshotHours = 0;
+    assertEquals(Collections.singletonList(new File(this.dir, "lib-a-sources.jar")), this.mojo.lookupSourcepath(dependencies));
+    assertEquals(4, this.resolutions.get());
+  }
+
+  private static Artifact artifact(String artifactId, String version, String classifier) {
+    return new DefaultArtifact("g", artifactId, version, "compile", "jar", classifier, new DefaultArtifactHandler("jar"));
+  }
+
+  @SuppressWarnings("deprecation")
+  private static MavenSession session(boolean offline) {
+    DefaultMavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    request.setOffline(offline);
+    return new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+  }
+
+}
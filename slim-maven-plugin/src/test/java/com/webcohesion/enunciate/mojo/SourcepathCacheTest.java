@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.mojo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class SourcepathCacheTest {
+
+  private static final long TTL = 60L * 60L * 1000L;
+
+  private File dir;
+
+  @Before
+  public void setUp() throws Exception {
+    this.dir = Files.createTempDirectory("enunciate-sourcepath-cache").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    for (File file : this.dir.listFiles()) {
+      file.delete();
+    }
+    this.dir.delete();
+  }
+
+  @Test
+  public void testSaveMergesWithPersistedChanges() throws Exception {
+    File file = new File(this.dir, "cache.properties");
+    SourcepathCache cache = SourcepathCache.forFile(file);
+    assertSame(cache, SourcepathCache.forFile(new File(this.dir, "cache.properties")));
+    cache.recordMissing("g:a:jar:1", false);
+
+    //e.g. another build that shares the cache saved its changes in the meantime.
+    Properties other = new Properties();
+    other.setProperty("g:a:jar:1", "found:" + System.currentTimeMillis() + ":/nowhere/a-sources.jar");
+    other.setProperty("g:b:jar:1", "missing:" + System.currentTimeMillis());
+    store(other, file);
+
+    cache.save();
+    Properties saved = load(file);
+    assertTrue(saved.getProperty("g:a:jar:1").startsWith("missing:"));
+    assertTrue(saved.getProperty("g:b:jar:1").startsWith("missing:"));
+    assertEquals(2, saved.size());
+    assertEquals(1, this.dir.listFiles().length);
+
+    //nothing changed since, so nothing is written.
+    assertTrue(file.delete());
+    cache.save();
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testMissesAreRemembered() throws Exception {
+    SourcepathCache cache = SourcepathCache.forFile(new File(this.dir, "cache.properties"));
+    assertFalse(cache.isMissing("g:a:jar:1", TTL, false));
+
+    cache.recordMissing("g:a:jar:1", false);
+    assertTrue(cache.isMissing("g:a:jar:1", TTL, false));
+    assertTrue(cache.isMissing("g:a:jar:1", TTL, true));
+    assertFalse(cache.isMissing("g:a:jar:1", 0, false));
+
+    //a source artifact that isn't in the local repository may still be found in a remote one.
+    cache.recordMissing("g:b:jar:1", true);
+    assertTrue(cache.isMissing("g:b:jar:1", TTL, true));
+    assertFalse(cache.isMissing("g:b:jar:1", TTL, false));
+  }
+
+  @Test
+  public void testFoundSourcesExpire() throws Exception {
+    File sources = new File(this.dir, "a-sources.jar");
+    assertTrue(sources.createNewFile());
+    File legacySources = new File(this.dir, "b-sources.jar");
+    assertTrue(legacySources.createNewFile());
+
+    //recorded without the time it was found.
+    File file = new File(this.dir, "cache.properties");
+    Properties legacy = new Properties();
+    legacy.setProperty("g:b:jar:1", "found:" + legacySources.getAbsolutePath());
+    store(legacy, file);
+
+    SourcepathCache cache = SourcepathCache.forFile(file);
+    cache.recordFound("g:a:jar:1", sources);
+    assertEquals(sources.getAbsoluteFile(), cache.getSourceArtifact("g:a:jar:1", Long.MAX_VALUE));
+    assertEquals(sources.getAbsoluteFile(), cache.getSourceArtifact("g:a:jar:1", TTL));
+    assertNull(cache.getSourceArtifact("g:a:jar:1", 0));
+    assertEquals(legacySources.getAbsoluteFile(), cache.getSourceArtifact("g:b:jar:1", Long.MAX_VALUE));
+    assertNull(cache.getSourceArtifact("g:b:jar:1", TTL));
+
+    //the source artifact has to still be there.
+    assertTrue(sources.delete());
+    assertNull(cache.getSourceArtifact("g:a:jar:1", Long.MAX_VALUE));
+  }
+
+  private static void store(Properties properties, File file) throws Exception {
+    try (OutputStream out = new FileOutputStream(file)) {
+      properties.store(out, null);
+    }
+  }
+
+  private static Properties load(File file) throws Exception {
+    Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(file)) {
+      properties.load(in);
+    }
+    return properties;
+  }
+
+}
@@ -16,6 +16,7 @@
 package com.webcohesion.enunciate.modules.spring_web;
 
 import com.webcohesion.enunciate.EnunciateContext;
+import com.webcohesion.enunciate.api.ApiRegistrationCache;
 import com.webcohesion.enunciate.api.ApiRegistrationContext;
 import com.webcohesion.enunciate.api.InterfaceDescriptionFile;
 import com.webcohesion.enunciate.api.resources.Resource;
@@ -27,11 +28,13 @@ import com.webcohesion.enunciate.modules.spring_web.api.impl.AnnotationBasedReso
 import com.webcohesion.enunciate.modules.spring_web.api.impl.PathBasedResourceGroupImpl;
 import com.webcohesion.enunciate.modules.spring_web.api.impl.ResourceClassResourceGroupImpl;
 import com.webcohesion.enunciate.modules.spring_web.api.impl.ResourceImpl;
+import com.webcohesion.enunciate.modules.spring_web.model.AdviceIndex;
 import com.webcohesion.enunciate.modules.spring_web.model.RequestMapping;
 import com.webcohesion.enunciate.modules.spring_web.model.SpringController;
 import com.webcohesion.enunciate.modules.spring_web.model.SpringControllerAdvice;
 import com.webcohesion.enunciate.util.*;
 
+import javax.lang.model.element.Element;
 import java.util.*;
 
 /**
@@ -48,9 +51,11 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
 
   private final Set<SpringController> controllers;
   private final Set<SpringControllerAdvice> advice;
+  private AdviceIndex<SpringControllerAdvice> adviceIndex;
   private String relativeContextPath = "";
   private GroupingStrategy groupingStrategy = GroupingStrategy.resource_class;
   private InterfaceDescriptionFile wadlFile = null;
+  private final ApiRegistrationCache<List<ResourceGroup>> resourceGroupViews = new ApiRegistrationCache<>();
   private PathSortStrategy pathSortStrategy = PathSortStrategy.breadth_first;
   private final boolean disableExamples;
 
@@ -75,14 +80,33 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
 
   public void add(SpringController controller) {
     this.controllers.add(controller);
+    this.resourceGroupViews.clear();
     debug("Added %s as a Spring controller.", controller.getQualifiedName());
   }
 
   public void add(SpringControllerAdvice advice) {
     this.advice.add(advice);
+    this.adviceIndex = null;
     debug("Added %s as Spring controller advice.", advice.getQualifiedName());
   }
 
+  /**
+   * The controller advice that applies to the specified element (e.g. a request mapping).
+   *
+   * @param el The element.
+   * @return The advice that applies, in the order of {@link #getAdvice()}.
+   */
+  public synchronized List<SpringControllerAdvice> findAdvice(Element el) {
+    if (this.adviceIndex == null) {
+      AdviceIndex<SpringControllerAdvice> adviceIndex = new AdviceIndex<SpringControllerAdvice>();
+      for (SpringControllerAdvice advice : this.advice) {
+        adviceIndex.add(advice, advice.getScope());
+      }
+      this.adviceIndex = adviceIndex;
+    }
+    return this.adviceIndex.find(el);
+  }
+
   public boolean isIncludeResourceGroupName() {
     return this.groupingStrategy != GroupingStrategy.path;
   }
@@ -97,10 +121,12 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
 
   public void setRelativeContextPath(String relativeContextPath) {
     this.relativeContextPath = relativeContextPath;
+    this.resourceGroupViews.clear();
   }
 
   public void setGroupingStrategy(GroupingStrategy groupingStrategy) {
     this.groupingStrategy = groupingStrategy;
+    this.resourceGroupViews.clear();
   }
 
   public PathSortStrategy getPathSortStrategy() {
@@ -109,6 +135,7 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
 
   public void setPathSortStrategy(PathSortStrategy pathSortStrategy) {
     this.pathSortStrategy = pathSortStrategy;
+    this.resourceGroupViews.clear();
   }
 
   public InterfaceDescriptionFile getWadlFile() {
@@ -119,7 +146,18 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
     this.wadlFile = wadlFile;
   }
 
+  /**
+   * The resource groups of the API, as seen by the specified registration context. The groups are computed once per
+   * registration context and are shared (so they must not be modified).
+   *
+   * @param registrationContext The registration context.
+   * @return The resource groups.
+   */
   public List<ResourceGroup> getResourceGroups(ApiRegistrationContext registrationContext) {
+    return this.resourceGroupViews.get(registrationContext, this::loadResourceGroups);
+  }
+
+  protected List<ResourceGroup> loadResourceGroups(ApiRegistrationContext registrationContext) {
     List<ResourceGroup> resourceGroups;
     if (this.groupingStrategy == GroupingStrategy.path) {
       //group resources by path.
@@ -138,7 +176,7 @@ public class EnunciateSpringWebContext extends EnunciateModuleContext {
         return o1.getLabel().compareTo(o2.getLabel());
       }
     });
-    return resourceGroups;
+    return Collections.unmodifiableList(resourceGroups);
   }
 
   public List<ResourceGroup> getResourceGroupsByClass(ApiRegistrationContext registrationContext) {
@@ -44,7 +44,8 @@ public class SpringWebModule extends BasicProviderModule implements TypeDetectin
   private EnunciateSpringWebContext springContext;
   static final String NAME = "spring-web";
   private PathSortStrategy defaultSortStrategy = PathSortStrategy.breadth_first;
-  private String detectedContextPath = null;
+  //the context path of the last application.properties that was scanned; reset for each run.
+  private volatile String detectedContextPath = null;
 
   @Override
   public String getName() {
@@ -117,6 +118,8 @@ public class SpringWebModule extends BasicProviderModule implements TypeDetectin
   @Override
   public void call(EnunciateContext context) {
     springContext = new EnunciateSpringWebContext(context, isDisableExamples());
+    String detectedContextPath = this.detectedContextPath;
+    this.detectedContextPath = null;
 
     DataTypeDetectionStrategy detectionStrategy = getDataTypeDetectionStrategy();
     if (detectionStrategy != DataTypeDetectionStrategy.passive) {
@@ -177,7 +180,7 @@ public class SpringWebModule extends BasicProviderModule implements TypeDetectin
 
 
     //tidy up the application path.
-    String relativeContextPath = this.config.getString("application[@path]", Optional.ofNullable(this.detectedContextPath).orElse(""));
+    String relativeContextPath = this.config.getString("application[@path]", Optional.ofNullable(detectedContextPath).orElse(""));
     while (relativeContextPath.startsWith("/")) {
       relativeContextPath = relativeContextPath.substring(1);
     }
@@ -291,8 +294,12 @@ public class SpringWebModule extends BasicProviderModule implements TypeDetectin
 
   @Override
   public boolean internal(ClassFile classFile) {
-    String classname = classFile.getName();
-    return classname.startsWith("org.springframework");
+    return internal(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean internal(ScannedType type) {
+    return type.getName().startsWith("org.springframework");
   }
 
   @Override
@@ -311,8 +318,12 @@ public class SpringWebModule extends BasicProviderModule implements TypeDetectin
 
   @Override
   public boolean typeDetected(ClassFile classFile) {
-    return annotationNames(classFile)
-       .anyMatch(classAnnotation -> ((Controller.class.getName().equals(classAnnotation)) || (RestController.class.getName().equals(classAnnotation))));
+    return typeDetected(ScannedType.of(null, classFile));
+  }
+
+  @Override
+  public boolean typeDetected(ScannedType type) {
+    return type.isAnnotatedWith(Controller.class.getName()) || type.isAnnotatedWith(RestController.class.getName());
   }
 
   public class MediaTypeDependencySpec implements DependencySpec {
@@ -0,0 +1,145 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.modules.spring_web.model;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import java.util.*;
+
+/**
+ * An index of controller advice by the scopes they apply to (the packages, classes and annotations of the
+ * controllers), so the advice that applies to a request mapping is found without evaluating the scope of every advice.
+ *
+ * @author Ryan Heaton
+ */
+public class AdviceIndex<A> {
+
+  private final List<A> advice = new ArrayList<A>();
+  private final List<Integer> global = new ArrayList<Integer>();
+  private final Map<String, List<Integer>> byPackage = new HashMap<String, List<Integer>>();
+  private final Map<String, List<Integer>> byClass = new HashMap<String, List<Integer>>();
+  private final Map<String, List<Integer>> byAnnotation = new HashMap<String, List<Integer>>();
+  private final Map<Integer, List<AdviceScope>> unindexed = new TreeMap<Integer, List<AdviceScope>>();
+
+  /**
+   * Add advice to the index. Advice is found in the order it was added.
+   *
+   * @param advice The advice.
+   * @param scope  The scopes the advice applies to.
+   */
+  public void add(A advice, List<AdviceScope> scope) {
+    int position = this.advice.size();
+    this.advice.add(advice);
+    for (AdviceScope adviceScope : scope) {
+      if (adviceScope instanceof GlobalScope) {
+        this.global.add(position);
+      }
+      else if (adviceScope instanceof PackageAdviceScope) {
+        index(this.byPackage, ((PackageAdviceScope) adviceScope).getPackages(), position);
+      }
+      else if (adviceScope instanceof ClassAdviceScope) {
+        index(this.byClass, ((ClassAdviceScope) adviceScope).getClasses(), position);
+      }
+      else if (adviceScope instanceof AnnotationAdviceScope) {
+        index(this.byAnnotation, ((AnnotationAdviceScope) adviceScope).getAnnotations(), position);
+      }
+      else {
+        this.unindexed.computeIfAbsent(position, p -> new ArrayList<AdviceScope>()).add(adviceScope);
+      }
+    }
+  }
+
+  private static void index(Map<String, List<Integer>> index, Set<String> keys, int position) {
+    for (String key : keys) {
+      index.computeIfAbsent(key, k -> new ArrayList<Integer>()).add(position);
+    }
+  }
+
+  /**
+   * Find the advice that applies to the specified element (e.g. a request mapping).
+   *
+   * @param el The element.
+   * @return The advice that applies, in the order it was added.
+   */
+  public List<A> find(Element el) {
+    Element type = el;
+    while (type != null && !(type instanceof TypeElement)) {
+      type = type.getEnclosingElement();
+    }
+
+    Element pckg = el;
+    while (pckg != null && !(pckg instanceof PackageElement)) {
+      pckg = pckg.getEnclosingElement();
+    }
+
+    List<String> annotations = new ArrayList<String>();
+    if (type != null && !this.byAnnotation.isEmpty()) {
+      List<? extends AnnotationMirror> annotationMirrors = type.getAnnotationMirrors();
+      if (annotationMirrors != null) {
+        for (AnnotationMirror annotationMirror : annotationMirrors) {
+          DeclaredType annotationType = annotationMirror.getAnnotationType();
+          if (annotationType != null && annotationType.asElement() instanceof TypeElement) {
+            annotations.add(((TypeElement) annotationType.asElement()).getQualifiedName().toString());
+          }
+        }
+      }
+    }
+
+    SortedSet<Integer> positions = find(pckg == null ? null : ((PackageElement) pckg).getQualifiedName().toString(), type == null ? null : ((TypeElement) type).getQualifiedName().toString(), annotations);
+    for (Map.Entry<Integer, List<AdviceScope>> entry : this.unindexed.entrySet()) {
+      if (!positions.contains(entry.getKey())) {
+        for (AdviceScope adviceScope : entry.getValue()) {
+          if (adviceScope.applies(el)) {
+            positions.add(entry.getKey());
+            break;
+          }
+        }
+      }
+    }
+
+    List<A> found = new ArrayList<A>(positions.size());
+    for (Integer position : positions) {
+      found.add(this.advice.get(position));
+    }
+    return found;
+  }
+
+  /**
+   * Find the positions of the advice that applies to the specified package, class and class annotations.
+   *
+   * @param packageName The package name (or null).
+   * @param className   The class name (or null).
+   * @param annotations The annotations of the class.
+   * @return The positions of the advice that applies.
+   */
+  SortedSet<Integer> find(String packageName, String className, Collection<String> annotations) {
+    SortedSet<Integer> positions = new TreeSet<Integer>(this.global);
+    if (packageName != null) {
+      positions.addAll(this.byPackage.getOrDefault(packageName, Collections.<Integer>emptyList()));
+    }
+    if (className != null) {
+      positions.addAll(this.byClass.getOrDefault(className, Collections.<Integer>emptyList()));
+    }
+    for (String annotation : annotations) {
+      positions.addAll(this.byAnnotation.getOrDefault(annotation, Collections.<Integer>emptyList()));
+    }
+    return positions;
+  }
+
+}
@@ -163,9 +163,8 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
     ResourceEntityParameter entityParameter = null;
     ResourceRepresentationMetadata outputPayload = null;
 
-    Set<SpringControllerAdvice> advice = this.context.getAdvice();
-    for (SpringControllerAdvice controllerAdvice : advice) {
-      List<RequestMappingAdvice> requestAdvice = controllerAdvice.findRequestMappingAdvice(this);
+    for (SpringControllerAdvice controllerAdvice : this.context.findAdvice(this)) {
+      List<RequestMappingAdvice> requestAdvice = controllerAdvice.createRequestMappingAdvice(this);
       for (RequestMappingAdvice mappingAdvice : requestAdvice) {
         entityParameter = mappingAdvice.getEntityParameter();
         outputPayload = mappingAdvice.getRepresentationMetadata();
@@ -197,7 +196,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
     TypeHint hintInfo = getAnnotation(TypeHint.class);
     JavaDoc localDoc = new JavaDoc(getDocComment(), null, null, this.env);
     if (hintInfo != null) {
-      returnType = (DecoratedTypeMirror) TypeHintUtils.getTypeHint(hintInfo, this.env, null);
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(TypeHintUtils.getTypeHint(hintInfo, this.env, null), this.env);
       if (returnType != null) {
         returnType.setDeferredDocComment(new ReturnDocComment(this));
       }
@@ -236,7 +235,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
       }
 
       //now resolve any type variables.
-      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorate(variableContext.resolveTypeVariables(returnType, this.env), this.env);
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(variableContext.resolveTypeVariables(returnType, this.env), this.env);
       returnType.setDeferredDocComment(new ReturnDocComment(this));
     }
 
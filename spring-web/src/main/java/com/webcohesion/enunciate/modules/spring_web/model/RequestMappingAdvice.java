@@ -84,7 +84,7 @@ public class RequestMappingAdvice extends DecoratedExecutableElement {
     TypeHint hintInfo = getAnnotation(TypeHint.class);
     JavaDoc localDoc = new JavaDoc(getDocComment(), null, null, this.env);
     if (hintInfo != null) {
-      returnType = (DecoratedTypeMirror) TypeHintUtils.getTypeHint(hintInfo, this.env, null);
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(TypeHintUtils.getTypeHint(hintInfo, this.env, null), this.env);
       if (returnType != null) {
         returnType.setDeferredDocComment(new ReturnDocComment(this));
       }
@@ -118,7 +118,7 @@ public class RequestMappingAdvice extends DecoratedExecutableElement {
       }
 
       //now resolve any type variables.
-      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorate(variableContext.resolveTypeVariables(returnType, this.env), this.env);
+      returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorateCopy(variableContext.resolveTypeVariables(returnType, this.env), this.env);
       returnType.setDeferredDocComment(new ReturnDocComment(this));
     }
 
@@ -37,6 +37,8 @@ import java.util.*;
 public class SpringControllerAdvice extends DecoratedTypeElement {
 
   private final EnunciateSpringWebContext context;
+  private List<AdviceScope> scope;
+  private List<AdviceMethod> adviceMethods;
 
   public SpringControllerAdvice(TypeElement delegate, EnunciateSpringWebContext context) {
     super(delegate, context.getContext().getProcessingEnvironment());
@@ -67,7 +69,19 @@ public class SpringControllerAdvice extends DecoratedTypeElement {
     return context;
   }
 
-  public List<RequestMappingAdvice> findRequestMappingAdvice(RequestMapping requestMapping) {
+  /**
+   * The scopes this advice applies to.
+   *
+   * @return The scopes this advice applies to.
+   */
+  public List<AdviceScope> getScope() {
+    if (this.scope == null) {
+      this.scope = loadScope();
+    }
+    return this.scope;
+  }
+
+  protected List<AdviceScope> loadScope() {
     List<AdviceScope> scope = new ArrayList<AdviceScope>();
     ControllerAdvice adviceInfo = getAnnotation(ControllerAdvice.class);
     if (adviceInfo != null) {
@@ -148,29 +162,54 @@ public class SpringControllerAdvice extends DecoratedTypeElement {
       scope.add(new ClassAdviceScope(new TreeSet<String>(Collections.singletonList(getQualifiedName().toString()))));
     }
 
-    return findRequestMappingAdvice(requestMapping, this, scope, new TypeVariableContext());
+    return scope;
+  }
+
+  /**
+   * The advice for the specified request mapping, if this advice applies to it.
+   *
+   * @param requestMapping The request mapping.
+   * @return The advice.
+   */
+  public List<RequestMappingAdvice> findRequestMappingAdvice(RequestMapping requestMapping) {
+    for (AdviceScope adviceScope : getScope()) {
+      if (adviceScope.applies(requestMapping)) {
+        return createRequestMappingAdvice(requestMapping);
+      }
+    }
+    return Collections.emptyList();
   }
 
-  protected List<RequestMappingAdvice> findRequestMappingAdvice(RequestMapping requestMapping, TypeElement controllerAdvice, List<AdviceScope> scope, TypeVariableContext variableContext) {
+  /**
+   * The advice for the specified request mapping, which is known to be in the scope of this advice.
+   *
+   * @param requestMapping The request mapping.
+   * @return The advice.
+   */
+  public List<RequestMappingAdvice> createRequestMappingAdvice(RequestMapping requestMapping) {
+    if (this.adviceMethods == null) {
+      this.adviceMethods = findAdviceMethods(this, new TypeVariableContext());
+    }
+
+    List<RequestMappingAdvice> advice = new ArrayList<RequestMappingAdvice>(this.adviceMethods.size());
+    for (AdviceMethod adviceMethod : this.adviceMethods) {
+      advice.add(new RequestMappingAdvice(requestMapping, adviceMethod.modelAttribute, adviceMethod.method, this, adviceMethod.variableContext, this.context));
+    }
+    return advice;
+  }
+
+  protected List<AdviceMethod> findAdviceMethods(TypeElement controllerAdvice, TypeVariableContext variableContext) {
     if (controllerAdvice == null || controllerAdvice.getQualifiedName().toString().equals(Object.class.getName())) {
       return Collections.emptyList();
     }
 
-    ArrayList<RequestMappingAdvice> advice = new ArrayList<RequestMappingAdvice>();
+    ArrayList<AdviceMethod> advice = new ArrayList<AdviceMethod>();
+    ArrayList<ExecutableElement> methods = new ArrayList<ExecutableElement>();
     for (ExecutableElement method : ElementFilter.methodsIn(controllerAdvice.getEnclosedElements())) {
-      boolean applies = false;
-      for (AdviceScope adviceScope : scope) {
-        if (adviceScope.applies(requestMapping)) {
-          applies = true;
-          break;
-        }
-      }
-
-      if (applies) {
-        org.springframework.web.bind.annotation.ModelAttribute modelAttribute = method.getAnnotation(org.springframework.web.bind.annotation.ModelAttribute.class);
-        if (modelAttribute != null) {
-          advice.add(new RequestMappingAdvice(requestMapping, modelAttribute, method, this, variableContext, this.context));
-        }
+      org.springframework.web.bind.annotation.ModelAttribute modelAttribute = method.getAnnotation(org.springframework.web.bind.annotation.ModelAttribute.class);
+      if (modelAttribute != null) {
+        advice.add(new AdviceMethod(method, modelAttribute, variableContext));
+        methods.add(method);
       }
     }
 
@@ -179,10 +218,11 @@ public class SpringControllerAdvice extends DecoratedTypeElement {
       if (interfaceType instanceof DeclaredType) {
         DeclaredType declared = (DeclaredType) interfaceType;
         TypeElement element = (TypeElement) declared.asElement();
-        List<RequestMappingAdvice> interfaceMethods = findRequestMappingAdvice(requestMapping, element, scope, variableContext.push(element.getTypeParameters(), declared.getTypeArguments()));
-        for (RequestMappingAdvice interfaceMethod : interfaceMethods) {
-          if (!isOverridden(interfaceMethod, advice)) {
+        List<AdviceMethod> interfaceMethods = findAdviceMethods(element, variableContext.push(element.getTypeParameters(), declared.getTypeArguments()));
+        for (AdviceMethod interfaceMethod : interfaceMethods) {
+          if (!isOverridden(interfaceMethod.method, methods)) {
             advice.add(interfaceMethod);
+            methods.add(interfaceMethod.method);
           }
         }
       }
@@ -193,10 +233,11 @@ public class SpringControllerAdvice extends DecoratedTypeElement {
       if (superclass instanceof DeclaredType && ((DeclaredType)superclass).asElement() != null) {
         DeclaredType declared = (DeclaredType) superclass;
         TypeElement element = (TypeElement) declared.asElement();
-        List<RequestMappingAdvice> superMethods = findRequestMappingAdvice(requestMapping, element, scope, variableContext.push(element.getTypeParameters(), declared.getTypeArguments()));
-        for (RequestMappingAdvice superMethod : superMethods) {
-          if (!isOverridden(superMethod, advice)) {
+        List<AdviceMethod> superMethods = findAdviceMethods(element, variableContext.push(element.getTypeParameters(), declared.getTypeArguments()));
+        for (AdviceMethod superMethod : superMethods) {
+          if (!isOverridden(superMethod.method, methods)) {
             advice.add(superMethod);
+            methods.add(superMethod.method);
           }
         }
       }
@@ -204,4 +245,20 @@ public class SpringControllerAdvice extends DecoratedTypeElement {
 
     return advice;
   }
+
+  /**
+   * A method of the advice (or of its superclasses or interfaces) that contributes to the request mappings it applies to.
+   */
+  protected static final class AdviceMethod {
+
+    private final ExecutableElement method;
+    private final org.springframework.web.bind.annotation.ModelAttribute modelAttribute;
+    private final TypeVariableContext variableContext;
+
+    private AdviceMethod(ExecutableElement method, org.springframework.web.bind.annotation.ModelAttribute modelAttribute, TypeVariableContext variableContext) {
+      this.method = method;
+      this.modelAttribute = modelAttribute;
+      this.variableContext = variableContext;
+    }
+  }
 }
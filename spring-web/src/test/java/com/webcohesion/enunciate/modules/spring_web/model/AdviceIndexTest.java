@@ -0,0 +1,47 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.modules.spring_web.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Ryan Heaton
+ */
+public class AdviceIndexTest {
+
+  @Test
+  public void testFind() throws Exception {
+    AdviceIndex<String> index = new AdviceIndex<String>();
+    index.add("global", Collections.<AdviceScope>singletonList(new GlobalScope()));
+    index.add("package", Arrays.<AdviceScope>asList(new PackageAdviceScope(new TreeSet<String>(Arrays.asList("com.example.api", "com.example.admin"))), new ClassAdviceScope(new TreeSet<String>())));
+    index.add("class", Collections.<AdviceScope>singletonList(new ClassAdviceScope(new TreeSet<String>(Collections.singletonList("com.example.api.PersonController")))));
+    index.add("annotation", Collections.<AdviceScope>singletonList(new AnnotationAdviceScope(new TreeSet<String>(Collections.singletonList("com.example.Secured")))));
+    index.add("both", Arrays.<AdviceScope>asList(new PackageAdviceScope(new TreeSet<String>(Collections.singletonList("com.example.api"))), new AnnotationAdviceScope(new TreeSet<String>(Collections.singletonList("com.example.Secured")))));
+
+    assertEquals(Arrays.asList(0), Arrays.asList(index.find("com.example.other", "com.example.other.OtherController", Collections.<String>emptyList()).toArray()));
+    assertEquals(Arrays.asList(0, 1, 2, 4), Arrays.asList(index.find("com.example.api", "com.example.api.PersonController", Collections.<String>emptyList()).toArray()));
+    assertEquals(Arrays.asList(0, 3, 4), Arrays.asList(index.find("com.example.other", "com.example.other.OtherController", Collections.singletonList("com.example.Secured")).toArray()));
+    assertEquals(Arrays.asList(0, 1, 3, 4), Arrays.asList(index.find("com.example.api", "com.example.api.Other", Collections.singletonList("com.example.Secured")).toArray()));
+    assertEquals(Arrays.asList(0), Arrays.asList(index.find("com.example.api.sub", null, Collections.<String>emptyList()).toArray()));
+  }
+
+}
@@ -35,9 +35,7 @@ import com.webcohesion.enunciate.javac.javadoc.DefaultJavaDocTagHandler;
 import com.webcohesion.enunciate.module.*;
 import com.webcohesion.enunciate.modules.jaxb.JaxbModule;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
-import com.webcohesion.enunciate.util.freemarker.FreemarkerUtil;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.template.Configuration;
+import com.webcohesion.enunciate.util.freemarker.FreemarkerTemplateCache;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -98,6 +96,18 @@ public class SwaggerModule extends BasicGeneratingModule implements ApiFeaturePr
     });
   }
 
+  @Override
+  public List<File> getInputFiles() {
+    List<File> inputFiles = new ArrayList<>();
+    EnunciateConfiguration configuration = this.enunciate.getConfiguration();
+    for (String file : Arrays.asList(getFreemarkerProcessingTemplate(), getCss(), getBase())) {
+      if (file != null) {
+        inputFiles.add(configuration.resolveFile(file));
+      }
+    }
+    return inputFiles;
+  }
+
   /**
    * The URL to "openapi.fmt".
    *
@@ -324,30 +334,9 @@ public class SwaggerModule extends BasicGeneratingModule implements ApiFeaturePr
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(FreemarkerUtil.VERSION);
-    configuration.setLocale(new Locale("en", "US"));
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler((templateException, environment, writer) -> {
-      throw templateException;
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new SwaggerUIObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
+    Template template = FreemarkerTemplateCache.getInstance().getTemplate(getClass(), SwaggerUIObjectWrapper::new, templateURL, this.enunciate.getLogger());
     StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
+    processTemplate(template, model, unhandledOutput);
     unhandledOutput.close();
     return unhandledOutput.toString();
   }